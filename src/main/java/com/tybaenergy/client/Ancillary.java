@@ -1,19 +1,26 @@
 package com.tybaenergy.client;
 
+import com.tybaenergy.client.model.AncillaryPriceCube;
 import com.tybaenergy.client.model.AncillaryRegionData;
 import com.tybaenergy.client.model.AncillaryService;
 import com.tybaenergy.client.model.Market;
 import com.tybaenergy.client.model.PriceTimeSeries;
 import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * Interface for accessing Tyba's historical ancillary price data
  */
 public class Ancillary {
+    private static final Logger logger = LoggerFactory.getLogger(Ancillary.class);
     private final Services services;
     private static final String ROUTE_BASE = "ancillary";
 
@@ -80,4 +87,67 @@ public class Ancillary {
         Response response = get("prices", params);
         return services.client.parseResponse(response, PriceTimeSeries.class);
     }
-}
\ No newline at end of file
+
+    /**
+     * Get prices for every service, market and pricing region of every ISO as a single cube.
+     *
+     * Pricing regions are discovered through the services' reference data cache, year ranges are clamped
+     * by the request planner, and all requests run concurrently on the client's executor. ISO/service/market
+     * combinations the API reports as not found or not offered are left out of the cube.
+     *
+     * @param isos ISOs to sweep. Possible values can be found by calling Services.getAllIsos()
+     * @param startYear the year prices should start
+     * @param endYear the year prices should end
+     * @return cube of prices indexed by (iso, service, market, region) on a shared time axis
+     * @throws IOException if a region lookup fails for another reason, or a price request fails
+     */
+    public AncillaryPriceCube sweepPrices(List<String> isos, int startYear, int endYear) throws IOException {
+        ReferenceDataCache referenceData = services.getReferenceDataCache();
+        RequestPlanner planner = services.getRequestPlanner();
+
+        Map<AncillaryPriceCube.Key, Callable<List<AncillaryRegionData>>> discovery = new LinkedHashMap<>();
+        for (String iso : isos) {
+            for (AncillaryService service : AncillaryService.values()) {
+                for (Market market : Market.values()) {
+                    discovery.put(new AncillaryPriceCube.Key(iso, service, market, null), () -> {
+                        try {
+                            return referenceData.getPricingRegions(iso, service, market);
+                        } catch (IOException e) {
+                            if (!ClientErrorException.isNoData(e)) {
+                                throw e;
+                            }
+                            logger.debug("No pricing regions for {} {} {}: {}", iso, service, market, e.getMessage());
+                            return Collections.emptyList();
+                        }
+                    });
+                }
+            }
+        }
+        Map<AncillaryPriceCube.Key, List<AncillaryRegionData>> regions = Parallel.invokeAll(services.client.executor(), discovery);
+
+        Map<AncillaryPriceCube.Key, Callable<PriceTimeSeries>> fetches = new LinkedHashMap<>();
+        for (Map.Entry<AncillaryPriceCube.Key, List<AncillaryRegionData>> entry : regions.entrySet()) {
+            AncillaryPriceCube.Key combination = entry.getKey();
+            for (AncillaryRegionData region : entry.getValue()) {
+                RequestPlanner.YearRange range = planner.planAncillaryPrices(combination.getIso(),
+                        combination.getService(), combination.getMarket(), region, startYear, endYear);
+                if (range != null) {
+                    fetches.put(new AncillaryPriceCube.Key(combination.getIso(), combination.getService(),
+                                    combination.getMarket(), region.getRegion()),
+                            () -> planner.fetch(combination.getIso(), combination.getService(),
+                                    combination.getMarket(), region.getRegion(), range));
+                }
+            }
+        }
+        return AncillaryPriceCube.of(Parallel.invokeAll(services.client.executor(), fetches));
+    }
+
+    /**
+     * Get prices for every service, market and pricing region of all ISOs
+     *
+     * @see #sweepPrices(List, int, int)
+     */
+    public AncillaryPriceCube sweepPrices(int startYear, int endYear) throws IOException {
+        return sweepPrices(services.getReferenceDataCache().getAllIsos(), startYear, endYear);
+    }
+}
@@ -0,0 +1,199 @@
+package com.tybaenergy.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.tybaenergy.client.model.Asset;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Typed, indexed view of the assets returned by {@link Operations#getAssetList}, with cached asset details.
+ *
+ * The asset list is parsed once per load and indexed by name, display name and organization. It is
+ * reloaded in the background once it passes the refresh-ahead point of its TTL. Asset details for past
+ * dates never change and are kept until evicted by the size bound; details without a date, or for today
+ * or later, are refreshed in the background like the asset list, and reloaded before being returned once
+ * they are past their TTL. Whether a date is past is decided in the registry's time zone.
+ */
+public class AssetRegistry {
+    /**
+     * Default time after which the asset list and current asset details are considered expired
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+
+    /**
+     * Default maximum number of asset details kept, separately for past and current dates
+     */
+    public static final int DEFAULT_MAX_DETAILS = 1024;
+
+    private static final double REFRESH_AHEAD = 0.8;
+    private static final Duration FOREVER = Duration.ofNanos(Long.MAX_VALUE);
+
+    private final Clock clock;
+    private final RefreshingCache<String, Index> assets;
+    private final RefreshingCache<DetailsKey, JsonNode> pastDetails;
+    private final RefreshingCache<DetailsKey, JsonNode> currentDetails;
+
+    public AssetRegistry(TybaClient client) {
+        this(client, false, DEFAULT_TTL, DEFAULT_MAX_DETAILS);
+    }
+
+    /**
+     * @param client the client to fetch with
+     * @param includeDisabled whether disabled assets are listed
+     * @param ttl time after which the asset list and current asset details are considered expired
+     * @param maxDetails maximum number of asset details kept, separately for past and current dates
+     */
+    public AssetRegistry(TybaClient client, boolean includeDisabled, Duration ttl, int maxDetails) {
+        this(client, includeDisabled, ttl, maxDetails, ZoneOffset.UTC);
+    }
+
+    /**
+     * @param client the client to fetch with
+     * @param includeDisabled whether disabled assets are listed
+     * @param ttl time after which the asset list and current asset details are considered expired
+     * @param maxDetails maximum number of asset details kept, separately for past and current dates
+     * @param zone time zone in which today's date is determined, UTC by default
+     */
+    public AssetRegistry(TybaClient client, boolean includeDisabled, Duration ttl, int maxDetails, ZoneId zone) {
+        this(client, includeDisabled, ttl, maxDetails, System::nanoTime, Clock.system(zone));
+    }
+
+    AssetRegistry(TybaClient client, boolean includeDisabled, Duration ttl, int maxDetails,
+                  LongSupplier ticker, Clock clock) {
+        Operations operations = client.getOperations();
+        this.clock = clock;
+        this.assets = new RefreshingCache<>(key -> new Index(operations.getAssetList(null, includeDisabled)),
+                ttl, REFRESH_AHEAD, 1, client.executor(), ticker);
+        RefreshingCache.Loader<DetailsKey, JsonNode> loader =
+                key -> operations.getAssetDetailsJson(key.assetName, key.date, null);
+        this.pastDetails = new RefreshingCache<>(loader, FOREVER, 1.0, maxDetails, client.executor(), ticker);
+        this.currentDetails = new RefreshingCache<>(loader, ttl, REFRESH_AHEAD, maxDetails, client.executor(), ticker);
+    }
+
+    /**
+     * All assets, in the order returned by the API
+     */
+    public List<Asset> getAssets() throws IOException {
+        return index().all;
+    }
+
+    /**
+     * The asset with a name, or null if there is none
+     */
+    public Asset getAsset(String name) throws IOException {
+        return index().byName.get(name);
+    }
+
+    /**
+     * The asset with a display name, or null if there is none
+     */
+    public Asset getAssetByDisplayName(String displayName) throws IOException {
+        return index().byDisplayName.get(displayName);
+    }
+
+    /**
+     * The assets of an organization, empty if there are none
+     */
+    public List<Asset> getAssetsByOrg(String orgId) throws IOException {
+        return index().byOrg.getOrDefault(orgId, List.of());
+    }
+
+    /**
+     * Cached equivalent of {@link Operations#getAssetDetails(String, LocalDate, String)}. Current details
+     * past their TTL are reloaded before being returned.
+     *
+     * @param assetName asset name
+     * @param date optional date, or null for the current details
+     */
+    public JsonNode getAssetDetails(String assetName, LocalDate date) throws IOException {
+        Objects.requireNonNull(assetName, "assetName");
+        DetailsKey key = new DetailsKey(assetName, date);
+        if (date != null && date.isBefore(LocalDate.now(clock))) {
+            return pastDetails.get(key);
+        }
+        return currentDetails.getUnexpired(key);
+    }
+
+    /**
+     * Drop all cached assets and details
+     */
+    public void invalidateAll() {
+        assets.invalidateAll();
+        pastDetails.invalidateAll();
+        currentDetails.invalidateAll();
+    }
+
+    /**
+     * Combined hit, miss and refresh counters for assets and details
+     */
+    public CacheStats getStats() {
+        return assets.stats().plus(pastDetails.stats()).plus(currentDetails.stats());
+    }
+
+    private Index index() throws IOException {
+        return assets.get("assets");
+    }
+
+    /**
+     * One loaded asset list with its lookups
+     */
+    private static final class Index {
+        final List<Asset> all;
+        final Map<String, Asset> byName = new HashMap<>();
+        final Map<String, Asset> byDisplayName = new HashMap<>();
+        final Map<String, List<Asset>> byOrg;
+
+        Index(List<Asset> assets) {
+            this.all = Collections.unmodifiableList(new ArrayList<>(assets));
+            Map<String, List<Asset>> orgs = new HashMap<>();
+            for (Asset asset : assets) {
+                if (asset.getName() != null) {
+                    byName.putIfAbsent(asset.getName(), asset);
+                }
+                if (asset.getDisplayName() != null) {
+                    byDisplayName.putIfAbsent(asset.getDisplayName(), asset);
+                }
+                if (asset.getOrgId() != null) {
+                    orgs.computeIfAbsent(asset.getOrgId(), key -> new ArrayList<>()).add(asset);
+                }
+            }
+            orgs.replaceAll((org, list) -> Collections.unmodifiableList(list));
+            this.byOrg = orgs;
+        }
+    }
+
+    private static final class DetailsKey {
+        final String assetName;
+        final LocalDate date;
+
+        DetailsKey(String assetName, LocalDate date) {
+            this.assetName = assetName;
+            this.date = date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DetailsKey)) return false;
+            DetailsKey other = (DetailsKey) o;
+            return assetName.equals(other.assetName) && Objects.equals(date, other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(assetName, date);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.tybaenergy.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tybaenergy.client.model.AssetOverride;
+import com.tybaenergy.client.model.OverrideReport;
+import com.tybaenergy.client.model.OverrideReport.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Future;
+
+/**
+ * Applies many asset overrides with as few requests as possible.
+ *
+ * Overrides whose assumption (field, aggregation, values, service and date) is identical are sent as one
+ * {@code setAssetOverrides} request for all of their assets, split into requests of at most
+ * {@code maxAssetsPerRequest} assets. Distinct requests run concurrently on the client's executor. Each
+ * acknowledged override's assumption hash is remembered per slot (asset, field, service, aggregation and
+ * date), optionally in a state file, and an override identical to its slot's last acknowledged one is not
+ * sent again. Overrides failing {@link Operations#getOverrideValidator() validation} are reported as failed
+ * without being sent, and a failing request fails only the overrides it carried.
+ */
+public class BulkOverrides {
+    private static final Logger logger = LoggerFactory.getLogger(BulkOverrides.class);
+
+    private final TybaClient client;
+    private final int maxAssetsPerRequest;
+    private final Path stateFile;
+    private final ObjectWriter canonicalWriter;
+    private final Map<String, String> acknowledged = new HashMap<>();
+    private boolean stateLoaded;
+
+    private BulkOverrides(Builder builder) {
+        this.client = builder.client;
+        this.maxAssetsPerRequest = builder.maxAssetsPerRequest;
+        this.stateFile = builder.stateFile;
+        this.canonicalWriter = client.objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    public static Builder builder(TybaClient client) {
+        return new Builder(client);
+    }
+
+    /**
+     * Apply overrides, skipping those already acknowledged with identical content
+     *
+     * @param overrides the overrides; if several share a slot, the last one is applied
+     * @return the outcome of every override, in the order given
+     * @throws IOException if interrupted, or if the state file cannot be written
+     */
+    public synchronized OverrideReport apply(Collection<AssetOverride> overrides) throws IOException {
+        loadState();
+        List<AssetOverride> inputs = new ArrayList<>(overrides);
+        Map<String, Integer> lastBySlot = new HashMap<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            lastBySlot.put(inputs.get(i).slot(), i);
+        }
+
+        Status[] statuses = new Status[inputs.size()];
+        Exception[] errors = new Exception[inputs.size()];
+        String[] hashes = new String[inputs.size()];
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> assumptions = new HashMap<>();
+        OverrideValidator validator = inputs.isEmpty() ? null : client.getOperations().getOverrideValidator();
+        for (int i = 0; i < inputs.size(); i++) {
+            AssetOverride override = inputs.get(i);
+            if (lastBySlot.get(override.slot()) != i) {
+                statuses[i] = Status.SUPERSEDED;
+                continue;
+            }
+            try {
+                validator.validate(override);
+            } catch (IllegalArgumentException e) {
+                statuses[i] = Status.FAILED;
+                errors[i] = e;
+                continue;
+            }
+            Map<String, Object> assumption = Operations.assumption(override.getField(), override.getAggregation(),
+                    override.getValues(), override.getService(), override.getDate());
+            String canonical = canonical(assumption);
+            hashes[i] = sha256(canonical);
+            if (hashes[i].equals(acknowledged.get(override.slot()))) {
+                statuses[i] = Status.UNCHANGED;
+                continue;
+            }
+            assumptions.putIfAbsent(canonical, assumption);
+            groups.computeIfAbsent(canonical, key -> new ArrayList<>()).add(i);
+        }
+
+        List<List<Integer>> requests = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Map.Entry<String, List<Integer>> group : groups.entrySet()) {
+                Map<String, Object> assumption = assumptions.get(group.getKey());
+                List<Integer> members = group.getValue();
+                for (int from = 0; from < members.size(); from += maxAssetsPerRequest) {
+                    List<Integer> request = members.subList(from, Math.min(from + maxAssetsPerRequest, members.size()));
+                    List<String> assetNames = request.stream().map(i -> inputs.get(i).getAssetName()).toList();
+                    requests.add(request);
+                    futures.add(client.executor().submit(() -> client.getOperations().postOverrides(assetNames, assumption)));
+                }
+            }
+            for (int r = 0; r < requests.size(); r++) {
+                Exception error = null;
+                try {
+                    Parallel.await(futures.get(r));
+                } catch (IOException | RuntimeException e) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw e;
+                    }
+                    error = e;
+                }
+                for (int i : requests.get(r)) {
+                    statuses[i] = error == null ? Status.APPLIED : Status.FAILED;
+                    errors[i] = error;
+                    if (error == null) {
+                        acknowledged.put(inputs.get(i).slot(), hashes[i]);
+                    }
+                }
+            }
+        } finally {
+            Parallel.cancelAll(futures);
+        }
+
+        List<OverrideReport.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            entries.add(new OverrideReport.Entry(inputs.get(i), statuses[i], errors[i]));
+        }
+        OverrideReport report = new OverrideReport(entries);
+        logger.debug("Applied overrides in {} requests: {}", requests.size(), report);
+        writeState();
+        return report;
+    }
+
+    /**
+     * Forget all acknowledged overrides, so that the next run sends everything
+     */
+    public synchronized void reset() throws IOException {
+        acknowledged.clear();
+        stateLoaded = true;
+        writeState();
+    }
+
+    private String canonical(Map<String, Object> assumption) {
+        try {
+            return canonicalWriter.writeValueAsString(assumption);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Override values cannot be serialized: " + e.getMessage(), e);
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void loadState() {
+        if (stateLoaded) {
+            return;
+        }
+        stateLoaded = true;
+        if (stateFile == null || !Files.isRegularFile(stateFile)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(stateFile)) {
+            properties.load(reader);
+            for (String slot : properties.stringPropertyNames()) {
+                acknowledged.put(slot, properties.getProperty(slot));
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable override state {}: {}", stateFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Write the state to a temporary file and move it into place, so a crash mid-write never leaves a
+     * truncated state file behind
+     */
+    private void writeState() throws IOException {
+        if (stateFile == null) {
+            return;
+        }
+        Path parent = stateFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Properties properties = new Properties();
+        properties.putAll(acknowledged);
+        Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp)) {
+            properties.store(writer, "Acknowledged asset overrides");
+        }
+        try {
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Builder for {@link BulkOverrides}
+     */
+    public static final class Builder {
+        private final TybaClient client;
+        private int maxAssetsPerRequest = 100;
+        private Path stateFile;
+
+        private Builder(TybaClient client) {
+            this.client = client;
+        }
+
+        /**
+         * Largest number of assets sent in one request, 100 by default
+         */
+        public Builder maxAssetsPerRequest(int maxAssetsPerRequest) {
+            if (maxAssetsPerRequest < 1) {
+                throw new IllegalArgumentException("maxAssetsPerRequest must be positive");
+            }
+            this.maxAssetsPerRequest = maxAssetsPerRequest;
+            return this;
+        }
+
+        /**
+         * File in which acknowledged overrides are remembered across runs. Without one, they are only
+         * remembered by this instance.
+         */
+        public Builder stateFile(Path stateFile) {
+            this.stateFile = stateFile;
+            return this;
+        }
+
+        public BulkOverrides build() {
+            return new BulkOverrides(this);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.tybaenergy.client;
+
+/**
+ * Point-in-time counters describing how a client-side cache has been used
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long staleHitCount;
+    private final long missCount;
+    private final long refreshCount;
+    private final long refreshFailureCount;
+    private final long evictionCount;
+
+    public CacheStats(long hitCount, long staleHitCount, long missCount, long refreshCount,
+                      long refreshFailureCount, long evictionCount) {
+        this.hitCount = hitCount;
+        this.staleHitCount = staleHitCount;
+        this.missCount = missCount;
+        this.refreshCount = refreshCount;
+        this.refreshFailureCount = refreshFailureCount;
+        this.evictionCount = evictionCount;
+    }
+
+    /**
+     * Number of lookups answered from a fresh entry
+     */
+    public long getHitCount() { return hitCount; }
+
+    /**
+     * Number of lookups answered from an expired entry while a refresh was pending
+     */
+    public long getStaleHitCount() { return staleHitCount; }
+
+    /**
+     * Number of lookups that had to wait for a load
+     */
+    public long getMissCount() { return missCount; }
+
+    /**
+     * Number of background refreshes that completed successfully
+     */
+    public long getRefreshCount() { return refreshCount; }
+
+    /**
+     * Number of background refreshes that failed; the previous value is kept in that case
+     */
+    public long getRefreshFailureCount() { return refreshFailureCount; }
+
+    /**
+     * Number of entries dropped to stay within the size bound
+     */
+    public long getEvictionCount() { return evictionCount; }
+
+    /**
+     * Fraction of lookups answered without waiting for a load
+     */
+    public double getHitRate() {
+        long requests = hitCount + staleHitCount + missCount;
+        return requests == 0 ? 1.0 : (double) (hitCount + staleHitCount) / requests;
+    }
+
+    /**
+     * Combine these counters with another set
+     */
+    public CacheStats plus(CacheStats other) {
+        return new CacheStats(
+                hitCount + other.hitCount,
+                staleHitCount + other.staleHitCount,
+                missCount + other.missCount,
+                refreshCount + other.refreshCount,
+                refreshFailureCount + other.refreshFailureCount,
+                evictionCount + other.evictionCount);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hits=" + hitCount + ", staleHits=" + staleHitCount + ", misses=" + missCount
+                + ", refreshes=" + refreshCount + ", refreshFailures=" + refreshFailureCount
+                + ", evictions=" + evictionCount + "}";
+    }
+}
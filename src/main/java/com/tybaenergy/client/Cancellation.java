@@ -0,0 +1,108 @@
+package com.tybaenergy.client;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cancels the requests made with the {@link RequestOptions} it belongs to, from any thread.
+ *
+ * Cancelling aborts requests in flight, including those still reading their response body, and
+ * releases their connections at once. Requests started afterwards fail immediately, so bulk operations
+ * running on the client's executor stop at their next request. Cancelled requests throw
+ * {@link RequestCancelledException}. A cancellation cannot be undone; use a new one for new requests.
+ */
+public final class Cancellation {
+    private final Set<Call> calls = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    /**
+     * Cancel every request in flight and every later one
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Call call : calls) {
+            call.cancel();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Number of calls in flight, i.e. started and not yet ended
+     */
+    int inFlight() {
+        return calls.size();
+    }
+
+    Handle handle() {
+        return new Handle(this);
+    }
+
+    /**
+     * Links one request to its cancellation. It travels with the request as a tag, so that the call can
+     * be released when it ends: once its response body is exhausted or closed, or when it fails.
+     */
+    static final class Handle {
+        private final Cancellation owner;
+        private volatile Call call;
+
+        private Handle(Cancellation owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * Track the call until {@link #release}, cancelling it at once if already cancelled
+         */
+        void attach(Call call) {
+            this.call = call;
+            owner.calls.add(call);
+            if (owner.cancelled) {
+                call.cancel();
+            }
+        }
+
+        /**
+         * Stop tracking the call; safe to call more than once
+         */
+        void release() {
+            Call attached = call;
+            if (attached != null) {
+                owner.calls.remove(attached);
+            }
+        }
+
+        boolean isCancelled() {
+            return owner.cancelled;
+        }
+    }
+
+    /**
+     * Releases each call's handle when OkHttp ends the call, however its response was consumed
+     */
+    static final class ReleasingListener extends EventListener {
+        static final EventListener.Factory FACTORY = call -> new ReleasingListener();
+
+        @Override
+        public void callEnd(Call call) {
+            release(call);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            release(call);
+        }
+
+        private static void release(Call call) {
+            Handle handle = call.request().tag(Handle.class);
+            if (handle != null) {
+                handle.release();
+            }
+        }
+    }
+}
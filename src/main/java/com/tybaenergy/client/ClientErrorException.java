@@ -0,0 +1,24 @@
+package com.tybaenergy.client;
+
+import java.io.IOException;
+
+/**
+ * The API rejected a request as invalid or unauthorized (HTTP 4xx other than 408 and 429). Sending it
+ * again unchanged fails the same way, so it is never retryable.
+ */
+public class ClientErrorException extends TybaApiException {
+    private static final long serialVersionUID = 1L;
+
+    public ClientErrorException(String message, int statusCode, String bodyExcerpt) {
+        super(message, statusCode, bodyExcerpt, false, null);
+    }
+
+    /**
+     * Whether a lookup failed because there is no such data: the API answers 404, or 400 for a service or
+     * market an ISO does not offer. Any other failure, including timeouts and cancellation, is not.
+     */
+    static boolean isNoData(IOException e) {
+        return e instanceof ClientErrorException
+                && (((ClientErrorException) e).getStatusCode() == 404 || ((ClientErrorException) e).getStatusCode() == 400);
+    }
+}
@@ -0,0 +1,160 @@
+package com.tybaenergy.client;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of {@link Operations#getDaSnapshot} responses.
+ *
+ * Unlike the reference data cache, expired snapshots are never served: a lookup after the TTL waits for
+ * a fresh response. Entries can be loaded ahead of time with {@link #refresh}, e.g. by a
+ * {@link PrefetchScheduler} before a bidding deadline, and then kept past the TTL until the deadline has
+ * passed.
+ */
+public class DaSnapshotCache {
+    /**
+     * Default time for which a fetched snapshot is reused
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(15);
+
+    /**
+     * Default maximum number of snapshots kept
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private final TybaClient client;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier ticker;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public DaSnapshotCache(TybaClient client) {
+        this(client, DEFAULT_TTL, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param client the client to fetch with
+     * @param ttl time for which a fetched snapshot is reused
+     * @param maxEntries maximum number of snapshots kept
+     */
+    public DaSnapshotCache(TybaClient client, Duration ttl, int maxEntries) {
+        this(client, ttl, maxEntries, System::nanoTime);
+    }
+
+    DaSnapshotCache(TybaClient client, Duration ttl, int maxEntries, LongSupplier ticker) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.client = client;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Cached equivalent of {@link Operations#getDaSnapshot(LocalDate, LocalDate, String)}
+     */
+    public String getDaSnapshot(LocalDate startDate, LocalDate endDate, String assetName) throws IOException {
+        Key key = new Key(startDate, endDate, assetName);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && ticker.getAsLong() - entry.expiresAtNanos < 0) {
+                hits.increment();
+                return entry.value;
+            }
+        }
+        misses.increment();
+        return load(key, ttlNanos);
+    }
+
+    /**
+     * Fetch a snapshot now and cache it, regardless of any cached copy
+     *
+     * @return the fetched snapshot
+     */
+    public String refresh(LocalDate startDate, LocalDate endDate, String assetName) throws IOException {
+        return load(new Key(startDate, endDate, assetName), ttlNanos);
+    }
+
+    /**
+     * Fetch a snapshot now and cache it for at least {@code keepFor}, regardless of the TTL and of any
+     * cached copy. Used to warm the cache ahead of a deadline, e.g. by a {@link PrefetchScheduler}.
+     *
+     * @param keepFor minimum time for which the snapshot is reused
+     * @return the fetched snapshot
+     */
+    public String refresh(LocalDate startDate, LocalDate endDate, String assetName, Duration keepFor) throws IOException {
+        return load(new Key(startDate, endDate, assetName), Math.max(ttlNanos, keepFor.toNanos()));
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), 0, misses.sum(), 0, 0, evictions.sum());
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private String load(Key key, long keepNanos) throws IOException {
+        String value = client.getOperations().getDaSnapshot(key.startDate, key.endDate, key.assetName);
+        synchronized (entries) {
+            entries.put(key, new Entry(value, ticker.getAsLong() + keepNanos));
+            Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+        return value;
+    }
+
+    private static final class Entry {
+        private final String value;
+        private final long expiresAtNanos;
+
+        Entry(String value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private static final class Key {
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final String assetName;
+
+        Key(LocalDate startDate, LocalDate endDate, String assetName) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.assetName = assetName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return startDate.equals(other.startDate) && endDate.equals(other.endDate)
+                    && assetName.equals(other.assetName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(startDate, endDate, assetName);
+        }
+    }
+}
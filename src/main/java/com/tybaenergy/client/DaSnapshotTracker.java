@@ -0,0 +1,310 @@
+package com.tybaenergy.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tybaenergy.client.model.SnapshotDiff;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Tracks the latest DA snapshot of each asset and date, and reports only what changed since the previous
+ * one.
+ *
+ * A snapshot body identical to the previous one is recognized by its SHA-256 and not parsed. Otherwise it
+ * is parsed into a compact table: one row of scalar values per interval, sharing one array of field
+ * paths. Intervals are the objects of the snapshot's first array of objects, identified by their
+ * {@code datetime}, {@code timestamp}, {@code time} or {@code interval_start} field, or by position if
+ * they have none. Scalars outside that array form one interval with an empty name. The JSON tree is
+ * dropped once the table is built.
+ */
+public class DaSnapshotTracker {
+    /**
+     * Default maximum number of asset and date pairs tracked
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private static final List<String> INTERVAL_FIELDS = List.of("datetime", "timestamp", "time", "interval_start");
+
+    private final TybaClient client;
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+
+    public DaSnapshotTracker(TybaClient client) {
+        this(client, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param client the client to fetch with
+     * @param maxEntries maximum number of asset and date pairs tracked; the least recently updated is
+     *                   forgotten first
+     */
+    public DaSnapshotTracker(TybaClient client, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.client = client;
+        this.objectMapper = client.objectMapper;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Fetch the asset's snapshot for a date and compare it with the previous one
+     *
+     * @throws IOException if the request fails
+     */
+    public SnapshotDiff update(String assetName, LocalDate date) throws IOException {
+        return update(assetName, date, client.getOperations().getDaSnapshot(date, date, assetName));
+    }
+
+    /**
+     * Compare a snapshot body obtained elsewhere, e.g. from a {@link DaSnapshotCache}, with the previous
+     * one and keep it as the latest
+     *
+     * @throws IOException if the body is not valid JSON
+     */
+    public SnapshotDiff update(String assetName, LocalDate date, String body) throws IOException {
+        Key key = new Key(assetName, date);
+        String sha256 = sha256(body);
+        synchronized (snapshots) {
+            Snapshot previous = snapshots.get(key);
+            if (previous != null && previous.sha256.equals(sha256)) {
+                return new SnapshotDiff(assetName, date, sha256, false, Map.of(), List.of());
+            }
+        }
+
+        Snapshot latest = Snapshot.parse(objectMapper.readTree(body), sha256);
+        synchronized (snapshots) {
+            Snapshot previous = snapshots.put(key, latest);
+            Iterator<Map.Entry<Key, Snapshot>> eldest = snapshots.entrySet().iterator();
+            while (snapshots.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+            return diff(assetName, date, previous, latest);
+        }
+    }
+
+    /**
+     * Forget the snapshot of an asset and date, so that the next update reports every interval
+     */
+    public void forget(String assetName, LocalDate date) {
+        synchronized (snapshots) {
+            snapshots.remove(new Key(assetName, date));
+        }
+    }
+
+    /**
+     * Forget all snapshots
+     */
+    public void clear() {
+        synchronized (snapshots) {
+            snapshots.clear();
+        }
+    }
+
+    private static SnapshotDiff diff(String assetName, LocalDate date, Snapshot previous, Snapshot latest) {
+        Map<String, Map<String, Object>> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, Object[]> row : latest.rows.entrySet()) {
+            Object[] before = previous == null ? null : previous.rows.get(row.getKey());
+            Map<String, Object> fields = new LinkedHashMap<>();
+            Object[] after = row.getValue();
+            for (int f = 0; f < latest.fields.length; f++) {
+                if (after[f] == Snapshot.ABSENT) {
+                    continue;
+                }
+                Object old = before == null ? Snapshot.ABSENT : previous.value(before, latest.fields[f]);
+                if (!Objects.equals(old, after[f])) {
+                    fields.put(latest.fields[f], after[f]);
+                }
+            }
+            if (before != null) {
+                for (int f = 0; f < previous.fields.length; f++) {
+                    if (before[f] != Snapshot.ABSENT && latest.value(after, previous.fields[f]) == Snapshot.ABSENT) {
+                        fields.put(previous.fields[f], null);
+                    }
+                }
+            }
+            if (!fields.isEmpty()) {
+                changed.put(row.getKey(), fields);
+            }
+        }
+
+        List<String> removed = new ArrayList<>();
+        if (previous != null) {
+            for (String interval : previous.rows.keySet()) {
+                if (!latest.rows.containsKey(interval)) {
+                    removed.add(interval);
+                }
+            }
+        }
+        return new SnapshotDiff(assetName, date, latest.sha256, previous == null, changed, removed);
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * One parsed snapshot: a row of values per interval, aligned with the field paths
+     */
+    private static final class Snapshot {
+        /**
+         * Marks a field an interval does not have, as distinct from a JSON null
+         */
+        static final Object ABSENT = new Object();
+
+        final String sha256;
+        final String[] fields;
+        final Map<String, Integer> fieldIndex;
+        final LinkedHashMap<String, Object[]> rows;
+
+        private Snapshot(String sha256, String[] fields, Map<String, Integer> fieldIndex,
+                         LinkedHashMap<String, Object[]> rows) {
+            this.sha256 = sha256;
+            this.fields = fields;
+            this.fieldIndex = fieldIndex;
+            this.rows = rows;
+        }
+
+        Object value(Object[] row, String field) {
+            Integer index = fieldIndex.get(field);
+            return index == null ? ABSENT : row[index];
+        }
+
+        static Snapshot parse(JsonNode root, String sha256) {
+            Map<String, Map<String, Object>> intervals = new LinkedHashMap<>();
+            JsonNode records = null;
+            if (isRecords(root)) {
+                records = root;
+            } else if (root.isObject()) {
+                Map<String, Object> outside = new LinkedHashMap<>();
+                Iterator<Map.Entry<String, JsonNode>> entries = root.fields();
+                while (entries.hasNext()) {
+                    Map.Entry<String, JsonNode> entry = entries.next();
+                    if (records == null && isRecords(entry.getValue())) {
+                        records = entry.getValue();
+                    } else {
+                        flatten(entry.getKey(), entry.getValue(), outside);
+                    }
+                }
+                if (!outside.isEmpty()) {
+                    intervals.put("", outside);
+                }
+            } else {
+                Map<String, Object> value = new LinkedHashMap<>();
+                flatten("", root, value);
+                intervals.put("", value);
+            }
+
+            if (records != null) {
+                int position = 0;
+                for (JsonNode record : records) {
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    flatten("", record, values);
+                    String name = intervalName(record, position++);
+                    String unique = name;
+                    for (int n = 2; intervals.containsKey(unique); n++) {
+                        unique = name + "#" + n;
+                    }
+                    intervals.put(unique, values);
+                }
+            }
+
+            Map<String, Integer> fieldIndex = new LinkedHashMap<>();
+            for (Map<String, Object> values : intervals.values()) {
+                for (String field : values.keySet()) {
+                    fieldIndex.putIfAbsent(field, fieldIndex.size());
+                }
+            }
+            String[] fields = fieldIndex.keySet().toArray(new String[0]);
+            LinkedHashMap<String, Object[]> rows = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, Object>> interval : intervals.entrySet()) {
+                Object[] row = new Object[fields.length];
+                for (int f = 0; f < fields.length; f++) {
+                    row[f] = interval.getValue().containsKey(fields[f]) ? interval.getValue().get(fields[f]) : ABSENT;
+                }
+                rows.put(interval.getKey(), row);
+            }
+            return new Snapshot(sha256, fields, fieldIndex, rows);
+        }
+
+        private static boolean isRecords(JsonNode node) {
+            return node.isArray() && node.size() > 0 && node.get(0).isObject();
+        }
+
+        private static String intervalName(JsonNode record, int position) {
+            for (String field : INTERVAL_FIELDS) {
+                JsonNode value = record.get(field);
+                if (value != null && value.isValueNode() && !value.isNull()) {
+                    return value.asText();
+                }
+            }
+            return String.valueOf(position);
+        }
+
+        /**
+         * Collect scalar values by dotted path, with array elements indexed by position
+         */
+        private static void flatten(String prefix, JsonNode node, Map<String, Object> values) {
+            if (node.isObject()) {
+                Iterator<Map.Entry<String, JsonNode>> entries = node.fields();
+                while (entries.hasNext()) {
+                    Map.Entry<String, JsonNode> entry = entries.next();
+                    flatten(prefix.isEmpty() ? entry.getKey() : prefix + "." + entry.getKey(), entry.getValue(), values);
+                }
+            } else if (node.isArray()) {
+                for (int i = 0; i < node.size(); i++) {
+                    flatten(prefix.isEmpty() ? String.valueOf(i) : prefix + "." + i, node.get(i), values);
+                }
+            } else if (node.isNumber()) {
+                values.put(prefix, node.asDouble());
+            } else if (node.isBoolean()) {
+                values.put(prefix, node.asBoolean());
+            } else if (node.isNull()) {
+                values.put(prefix, null);
+            } else {
+                values.put(prefix, node.asText());
+            }
+        }
+    }
+
+    private static final class Key {
+        private final String assetName;
+        private final LocalDate date;
+
+        Key(String assetName, LocalDate date) {
+            this.assetName = assetName;
+            this.date = date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return assetName.equals(other.assetName) && date.equals(other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(assetName, date);
+        }
+    }
+}
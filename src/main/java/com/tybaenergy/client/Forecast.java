@@ -1,14 +1,25 @@
 package com.tybaenergy.client;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.tybaenergy.client.model.BatchResult;
+import com.tybaenergy.client.model.ForecastKey;
+import com.tybaenergy.client.model.ForecastSeries;
+import com.tybaenergy.client.model.QuantileForecast;
+import com.tybaenergy.client.model.VintageCube;
 import okhttp3.Response;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalTime;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 /**
  * Interface for accessing Tyba's forecast data
@@ -52,16 +63,8 @@ public class Forecast {
     public JsonNode getMostRecent(String objectName, String product, ZonedDateTime startTime, ZonedDateTime endTime,
                                  String forecastType, Integer predictionsPerHour, 
                                  Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
-        Map<String, Object> params = TybaClient.params();
-        params.put("object_name", objectName);
-        params.put("product", product);
-        params.put("start_time", startTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-        params.put("end_time", endTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-        if (forecastType != null) params.put("forecast_type", forecastType);
-        if (predictionsPerHour != null) params.put("predictions_per_hour", predictionsPerHour);
-        if (predictionLeadTimeMins != null) params.put("prediction_lead_time_mins", predictionLeadTimeMins);
-        if (horizonMins != null) params.put("horizon_mins", horizonMins);
-        
+        Map<String, Object> params = windowParams(objectName, product, startTime, endTime,
+                forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
         Response response = get("most_recent_forecast", params);
         return client.parseResponse(response, JsonNode.class);
     }
@@ -84,17 +87,9 @@ public class Forecast {
     public JsonNode getMostRecentProbabilistic(String objectName, String product, ZonedDateTime startTime, ZonedDateTime endTime,
                                               List<Double> quantiles, String forecastType, Integer predictionsPerHour,
                                               Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
-        Map<String, Object> params = TybaClient.params();
-        params.put("object_name", objectName);
-        params.put("product", product);
-        params.put("start_time", startTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-        params.put("end_time", endTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        Map<String, Object> params = windowParams(objectName, product, startTime, endTime,
+                forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
         params.put("quantiles", quantiles);
-        if (forecastType != null) params.put("forecast_type", forecastType);
-        if (predictionsPerHour != null) params.put("predictions_per_hour", predictionsPerHour);
-        if (predictionLeadTimeMins != null) params.put("prediction_lead_time_mins", predictionLeadTimeMins);
-        if (horizonMins != null) params.put("horizon_mins", horizonMins);
-        
         Response response = get("most_recent_probabilistic_forecast", params);
         return client.parseResponse(response, JsonNode.class);
     }
@@ -120,19 +115,8 @@ public class Forecast {
                                int daysAgo, LocalTime beforeTime, boolean exactVintage,
                                String forecastType, Integer predictionsPerHour,
                                Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
-        Map<String, Object> params = TybaClient.params();
-        params.put("object_name", objectName);
-        params.put("product", product);
-        params.put("start_time", startTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-        params.put("end_time", endTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-        params.put("days_ago", daysAgo);
-        params.put("before_time", beforeTime.toString());
-        params.put("exact_vintage", exactVintage);
-        if (forecastType != null) params.put("forecast_type", forecastType);
-        if (predictionsPerHour != null) params.put("predictions_per_hour", predictionsPerHour);
-        if (predictionLeadTimeMins != null) params.put("prediction_lead_time_mins", predictionLeadTimeMins);
-        if (horizonMins != null) params.put("horizon_mins", horizonMins);
-        
+        Map<String, Object> params = vintagedParams(objectName, product, startTime, endTime, daysAgo, beforeTime,
+                exactVintage, forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
         Response response = get("vintaged_forecast", params);
         return client.parseResponse(response, JsonNode.class);
     }
@@ -159,20 +143,9 @@ public class Forecast {
                                             List<Double> quantiles, int daysAgo, LocalTime beforeTime, boolean exactVintage,
                                             String forecastType, Integer predictionsPerHour,
                                             Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
-        Map<String, Object> params = TybaClient.params();
-        params.put("object_name", objectName);
-        params.put("product", product);
-        params.put("start_time", startTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-        params.put("end_time", endTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        Map<String, Object> params = vintagedParams(objectName, product, startTime, endTime, daysAgo, beforeTime,
+                exactVintage, forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
         params.put("quantiles", quantiles);
-        params.put("days_ago", daysAgo);
-        params.put("before_time", beforeTime.toString());
-        params.put("exact_vintage", exactVintage);
-        if (forecastType != null) params.put("forecast_type", forecastType);
-        if (predictionsPerHour != null) params.put("predictions_per_hour", predictionsPerHour);
-        if (predictionLeadTimeMins != null) params.put("prediction_lead_time_mins", predictionLeadTimeMins);
-        if (horizonMins != null) params.put("horizon_mins", horizonMins);
-        
         Response response = get("vintaged_probabilistic_forecast", params);
         return client.parseResponse(response, JsonNode.class);
     }
@@ -194,16 +167,8 @@ public class Forecast {
     public JsonNode getByVintage(String objectName, String product, ZonedDateTime vintageStartTime, ZonedDateTime vintageEndTime,
                                 String forecastType, Integer predictionsPerHour,
                                 Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
-        Map<String, Object> params = TybaClient.params();
-        params.put("object_name", objectName);
-        params.put("product", product);
-        params.put("start_time", vintageStartTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-        params.put("end_time", vintageEndTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-        if (forecastType != null) params.put("forecast_type", forecastType);
-        if (predictionsPerHour != null) params.put("predictions_per_hour", predictionsPerHour);
-        if (predictionLeadTimeMins != null) params.put("prediction_lead_time_mins", predictionLeadTimeMins);
-        if (horizonMins != null) params.put("horizon_mins", horizonMins);
-        
+        Map<String, Object> params = windowParams(objectName, product, vintageStartTime, vintageEndTime,
+                forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
         Response response = get("forecasts_by_vintage", params);
         return client.parseResponse(response, JsonNode.class);
     }
@@ -227,17 +192,9 @@ public class Forecast {
                                              ZonedDateTime vintageStartTime, ZonedDateTime vintageEndTime,
                                              String forecastType, Integer predictionsPerHour,
                                              Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
-        Map<String, Object> params = TybaClient.params();
-        params.put("object_name", objectName);
-        params.put("product", product);
+        Map<String, Object> params = windowParams(objectName, product, vintageStartTime, vintageEndTime,
+                forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
         params.put("quantiles", quantiles);
-        params.put("start_time", vintageStartTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-        params.put("end_time", vintageEndTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-        if (forecastType != null) params.put("forecast_type", forecastType);
-        if (predictionsPerHour != null) params.put("predictions_per_hour", predictionsPerHour);
-        if (predictionLeadTimeMins != null) params.put("prediction_lead_time_mins", predictionLeadTimeMins);
-        if (horizonMins != null) params.put("horizon_mins", horizonMins);
-        
         Response response = get("probabilistic_forecasts_by_vintage", params);
         return client.parseResponse(response, JsonNode.class);
     }
@@ -259,6 +216,18 @@ public class Forecast {
     public JsonNode getActuals(String objectName, String product, ZonedDateTime startTime, ZonedDateTime endTime,
                               String forecastType, Integer predictionsPerHour, 
                               Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
+        Map<String, Object> params = windowParams(objectName, product, startTime, endTime,
+                forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
+        Response response = get("actuals", params);
+        return client.parseResponse(response, JsonNode.class);
+    }
+
+    /**
+     * Build the parameters shared by all forecast endpoints
+     */
+    private static Map<String, Object> windowParams(String objectName, String product, ZonedDateTime startTime,
+                                                    ZonedDateTime endTime, String forecastType, Integer predictionsPerHour,
+                                                    Integer predictionLeadTimeMins, Integer horizonMins) {
         Map<String, Object> params = TybaClient.params();
         params.put("object_name", objectName);
         params.put("product", product);
@@ -268,9 +237,243 @@ public class Forecast {
         if (predictionsPerHour != null) params.put("predictions_per_hour", predictionsPerHour);
         if (predictionLeadTimeMins != null) params.put("prediction_lead_time_mins", predictionLeadTimeMins);
         if (horizonMins != null) params.put("horizon_mins", horizonMins);
-        
+        return params;
+    }
+
+    /**
+     * Build the parameters for the vintaged forecast endpoints
+     */
+    private static Map<String, Object> vintagedParams(String objectName, String product, ZonedDateTime startTime,
+                                                      ZonedDateTime endTime, int daysAgo, LocalTime beforeTime,
+                                                      boolean exactVintage, String forecastType, Integer predictionsPerHour,
+                                                      Integer predictionLeadTimeMins, Integer horizonMins) {
+        Map<String, Object> params = windowParams(objectName, product, startTime, endTime,
+                forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
+        params.put("days_ago", daysAgo);
+        params.put("before_time", beforeTime.toString());
+        params.put("exact_vintage", exactVintage);
+        return params;
+    }
+
+    /**
+     * Get the most recent forecast data as a typed, columnar series
+     *
+     * @see #getMostRecent(String, String, ZonedDateTime, ZonedDateTime, String, Integer, Integer, Integer)
+     * @return ForecastSeries containing the forecast data
+     * @throws IOException if the request fails
+     */
+    public ForecastSeries getMostRecentSeries(String objectName, String product, ZonedDateTime startTime, ZonedDateTime endTime,
+                                              String forecastType, Integer predictionsPerHour,
+                                              Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
+        Map<String, Object> params = windowParams(objectName, product, startTime, endTime,
+                forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
+        Response response = get("most_recent_forecast", params);
+        return client.parseResponse(response, ForecastSeries.class);
+    }
+
+    /**
+     * Get vintaged forecast data as a typed, columnar series
+     *
+     * @see #getVintaged(String, String, ZonedDateTime, ZonedDateTime, int, LocalTime, boolean, String, Integer, Integer, Integer)
+     * @return ForecastSeries containing the vintaged forecast data
+     * @throws IOException if the request fails
+     */
+    public ForecastSeries getVintagedSeries(String objectName, String product, ZonedDateTime startTime, ZonedDateTime endTime,
+                                            int daysAgo, LocalTime beforeTime, boolean exactVintage,
+                                            String forecastType, Integer predictionsPerHour,
+                                            Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
+        Map<String, Object> params = vintagedParams(objectName, product, startTime, endTime, daysAgo, beforeTime,
+                exactVintage, forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
+        Response response = get("vintaged_forecast", params);
+        return client.parseResponse(response, ForecastSeries.class);
+    }
+
+    /**
+     * Get forecast data by vintage as a typed, columnar series
+     *
+     * @see #getByVintage(String, String, ZonedDateTime, ZonedDateTime, String, Integer, Integer, Integer)
+     * @return ForecastSeries containing the forecast data by vintage
+     * @throws IOException if the request fails
+     */
+    public ForecastSeries getByVintageSeries(String objectName, String product, ZonedDateTime vintageStartTime,
+                                             ZonedDateTime vintageEndTime, String forecastType, Integer predictionsPerHour,
+                                             Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
+        Map<String, Object> params = windowParams(objectName, product, vintageStartTime, vintageEndTime,
+                forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
+        Response response = get("forecasts_by_vintage", params);
+        return client.parseResponse(response, ForecastSeries.class);
+    }
+
+    /**
+     * Get actual data as a typed, columnar series
+     *
+     * @see #getActuals(String, String, ZonedDateTime, ZonedDateTime, String, Integer, Integer, Integer)
+     * @return ForecastSeries containing the actual data
+     * @throws IOException if the request fails
+     */
+    public ForecastSeries getActualsSeries(String objectName, String product, ZonedDateTime startTime, ZonedDateTime endTime,
+                                           String forecastType, Integer predictionsPerHour,
+                                           Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
+        Map<String, Object> params = windowParams(objectName, product, startTime, endTime,
+                forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
         Response response = get("actuals", params);
-        return client.parseResponse(response, JsonNode.class);
+        return client.parseResponse(response, ForecastSeries.class);
+    }
+
+    /**
+     * Get the most recent probabilistic forecast data as a quantile matrix
+     *
+     * @see #getMostRecentProbabilistic(String, String, ZonedDateTime, ZonedDateTime, List, String, Integer, Integer, Integer)
+     * @return QuantileForecast containing the probabilistic forecast data
+     * @throws IOException if the request fails
+     */
+    public QuantileForecast getMostRecentQuantiles(String objectName, String product, ZonedDateTime startTime,
+                                                   ZonedDateTime endTime, List<Double> quantiles, String forecastType,
+                                                   Integer predictionsPerHour, Integer predictionLeadTimeMins,
+                                                   Integer horizonMins) throws IOException {
+        Map<String, Object> params = windowParams(objectName, product, startTime, endTime,
+                forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
+        params.put("quantiles", quantiles);
+        Response response = get("most_recent_probabilistic_forecast", params);
+        return client.parseResponse(response, QuantileForecast.class);
+    }
+
+    /**
+     * Get vintaged probabilistic forecast data as a quantile matrix
+     *
+     * @see #getVintagedProbabilistic(String, String, ZonedDateTime, ZonedDateTime, List, int, LocalTime, boolean, String, Integer, Integer, Integer)
+     * @return QuantileForecast containing the vintaged probabilistic forecast data
+     * @throws IOException if the request fails
+     */
+    public QuantileForecast getVintagedQuantiles(String objectName, String product, ZonedDateTime startTime,
+                                                 ZonedDateTime endTime, List<Double> quantiles, int daysAgo,
+                                                 LocalTime beforeTime, boolean exactVintage, String forecastType,
+                                                 Integer predictionsPerHour, Integer predictionLeadTimeMins,
+                                                 Integer horizonMins) throws IOException {
+        Map<String, Object> params = vintagedParams(objectName, product, startTime, endTime, daysAgo, beforeTime,
+                exactVintage, forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
+        params.put("quantiles", quantiles);
+        Response response = get("vintaged_probabilistic_forecast", params);
+        return client.parseResponse(response, QuantileForecast.class);
+    }
+
+    /**
+     * Get probabilistic forecast data by vintage as a quantile matrix
+     *
+     * @see #getByVintageProbabilistic(String, String, List, ZonedDateTime, ZonedDateTime, String, Integer, Integer, Integer)
+     * @return QuantileForecast containing the probabilistic forecast data by vintage
+     * @throws IOException if the request fails
+     */
+    public QuantileForecast getByVintageQuantiles(String objectName, String product, List<Double> quantiles,
+                                                  ZonedDateTime vintageStartTime, ZonedDateTime vintageEndTime,
+                                                  String forecastType, Integer predictionsPerHour,
+                                                  Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
+        Map<String, Object> params = windowParams(objectName, product, vintageStartTime, vintageEndTime,
+                forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
+        params.put("quantiles", quantiles);
+        Response response = get("probabilistic_forecasts_by_vintage", params);
+        return client.parseResponse(response, QuantileForecast.class);
+    }
+
+    /**
+     * Build a vintage cube from all forecasts issued between two vintage times. The vintage window is split
+     * into chunks that are fetched concurrently on the client's executor.
+     *
+     * @param objectName the object name
+     * @param product the product type
+     * @param quantiles quantile levels to fetch, or null or empty for point forecasts
+     * @param vintageStartTime vintage start time (timezone-aware)
+     * @param vintageEndTime vintage end time (timezone-aware)
+     * @param chunk length of the vintage window fetched by each request
+     * @param forecastType optional forecast type
+     * @param predictionsPerHour optional predictions per hour
+     * @param predictionLeadTimeMins optional prediction lead time in minutes
+     * @param horizonMins optional horizon in minutes
+     * @return VintageCube holding every fetched (vintage, target) row
+     * @throws IOException if any request fails
+     */
+    public VintageCube getVintageCube(String objectName, String product, List<Double> quantiles,
+                                      ZonedDateTime vintageStartTime, ZonedDateTime vintageEndTime, Duration chunk,
+                                      String forecastType, Integer predictionsPerHour,
+                                      Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
+        if (chunk.isNegative() || chunk.isZero()) {
+            throw new IllegalArgumentException("chunk must be positive");
+        }
+        boolean probabilistic = quantiles != null && !quantiles.isEmpty();
+        Map<ZonedDateTime, Callable<Object>> tasks = new LinkedHashMap<>();
+        for (ZonedDateTime start = vintageStartTime; start.isBefore(vintageEndTime); start = start.plus(chunk)) {
+            ZonedDateTime windowStart = start;
+            ZonedDateTime end = start.plus(chunk);
+            ZonedDateTime windowEnd = end.isBefore(vintageEndTime) ? end : vintageEndTime;
+            tasks.put(windowStart, () -> probabilistic
+                    ? getByVintageQuantiles(objectName, product, quantiles, windowStart, windowEnd,
+                            forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins)
+                    : getByVintageSeries(objectName, product, windowStart, windowEnd,
+                            forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins));
+        }
+
+        VintageCube.Builder builder;
+        if (probabilistic) {
+            double[] levels = quantiles.stream().mapToDouble(Double::doubleValue).sorted().distinct().toArray();
+            builder = VintageCube.builder(levels);
+        } else {
+            builder = VintageCube.builder();
+        }
+        for (Object result : Parallel.invokeAll(client.executor(), tasks).values()) {
+            if (result instanceof QuantileForecast) {
+                builder.add((QuantileForecast) result);
+            } else {
+                builder.add((ForecastSeries) result);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get the most recent forecasts for many (object, product, forecast type) combinations over a shared
+     * window. Requests run concurrently on the client's executor and duplicate keys are fetched once. A
+     * failing item is reported in its result and does not affect the others.
+     *
+     * @param keys the series to fetch
+     * @param startTime start time for the forecasts (timezone-aware)
+     * @param endTime end time for the forecasts (timezone-aware)
+     * @param predictionsPerHour optional predictions per hour
+     * @param predictionLeadTimeMins optional prediction lead time in minutes
+     * @param horizonMins optional horizon in minutes
+     * @return a result per distinct key, in the order the keys were first given
+     * @throws IOException if the calling thread is interrupted while waiting
+     */
+    public Map<ForecastKey, BatchResult<ForecastSeries>> getMostRecentBatch(Collection<ForecastKey> keys,
+                                                                         ZonedDateTime startTime, ZonedDateTime endTime,
+                                                                         Integer predictionsPerHour,
+                                                                         Integer predictionLeadTimeMins,
+                                                                         Integer horizonMins) throws IOException {
+        Map<ForecastKey, Future<ForecastSeries>> futures = new LinkedHashMap<>();
+        Map<ForecastKey, BatchResult<ForecastSeries>> results = new LinkedHashMap<>();
+        try {
+            for (ForecastKey key : keys) {
+                if (!futures.containsKey(key)) {
+                    futures.put(key, client.executor().submit(() -> getMostRecentSeries(key.getObjectName(),
+                            key.getProduct(), startTime, endTime, key.getForecastType(), predictionsPerHour,
+                            predictionLeadTimeMins, horizonMins)));
+                }
+            }
+            for (Map.Entry<ForecastKey, Future<ForecastSeries>> entry : futures.entrySet()) {
+                try {
+                    results.put(entry.getKey(), BatchResult.success(Parallel.await(entry.getValue())));
+                } catch (IOException | RuntimeException e) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw e;
+                    }
+                    results.put(entry.getKey(), BatchResult.failure(e));
+                }
+            }
+            return results;
+        } finally {
+            if (results.size() < futures.size()) {
+                Parallel.cancelAll(new ArrayList<>(futures.values()));
+            }
+        }
     }
 
     // Convenience methods with default parameters
@@ -291,4 +494,26 @@ public class Forecast {
         return getVintaged(objectName, product, startTime, endTime, daysAgo, beforeTime, false, null, null, null, null);
     }
 
+    public Map<ForecastKey, BatchResult<ForecastSeries>> getMostRecentBatch(Collection<ForecastKey> keys,
+                                                                         ZonedDateTime startTime,
+                                                                         ZonedDateTime endTime) throws IOException {
+        return getMostRecentBatch(keys, startTime, endTime, null, null, null);
+    }
+
+    public ForecastSeries getMostRecentSeries(String objectName, String product, ZonedDateTime startTime, ZonedDateTime endTime) throws IOException {
+        return getMostRecentSeries(objectName, product, startTime, endTime, null, null, null, null);
+    }
+
+    public ForecastSeries getActualsSeries(String objectName, String product, ZonedDateTime startTime, ZonedDateTime endTime) throws IOException {
+        return getActualsSeries(objectName, product, startTime, endTime, null, null, null, null);
+    }
+
+    public ForecastSeries getByVintageSeries(String objectName, String product, ZonedDateTime vintageStartTime, ZonedDateTime vintageEndTime) throws IOException {
+        return getByVintageSeries(objectName, product, vintageStartTime, vintageEndTime, null, null, null, null);
+    }
+
+    public ForecastSeries getVintagedSeries(String objectName, String product, ZonedDateTime startTime, ZonedDateTime endTime,
+                                            int daysAgo, LocalTime beforeTime) throws IOException {
+        return getVintagedSeries(objectName, product, startTime, endTime, daysAgo, beforeTime, false, null, null, null, null);
+    }
 }
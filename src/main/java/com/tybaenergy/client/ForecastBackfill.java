@@ -0,0 +1,477 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.ForecastSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backfill of {@link Forecast#getByVintage} over a long vintage range.
+ *
+ * The range is split into fixed windows that are fetched concurrently on the client's executor, with at
+ * most {@code parallelism} windows in flight. Windows are delivered to the listener strictly in vintage
+ * order, each holding only the rows whose forecast time falls inside it, so the delivered series
+ * concatenate without overlap; a row without a forecast time goes to the window holding its target time,
+ * or to none. Failed windows are retried after a pause scheduled off the client's executor, so a waiting
+ * retry does not hold one of its threads. After each delivered window the position is written to an
+ * optional checkpoint file; a later run with the same job parameters resumes after the last delivered
+ * window.
+ */
+public class ForecastBackfill {
+    private static final Logger logger = LoggerFactory.getLogger(ForecastBackfill.class);
+
+    private static final String JOB_KEY = "job";
+    private static final String NEXT_KEY = "next";
+
+    /**
+     * Receives the fetched windows in vintage order
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called once per window, from the thread running the backfill. An exception aborts the backfill
+         * without advancing the checkpoint past this window.
+         */
+        void onWindow(Window window, ForecastSeries series) throws IOException;
+    }
+
+    private final TybaClient client;
+    private final String objectName;
+    private final String product;
+    private final ZonedDateTime vintageStartTime;
+    private final ZonedDateTime vintageEndTime;
+    private final Duration window;
+    private final int parallelism;
+    private final int retries;
+    private final Duration maxRetryAfter;
+    private final Path checkpoint;
+    private final String forecastType;
+    private final Integer predictionsPerHour;
+    private final Integer predictionLeadTimeMins;
+    private final Integer horizonMins;
+
+    private ForecastBackfill(Builder builder) {
+        this.client = builder.client;
+        this.objectName = builder.objectName;
+        this.product = builder.product;
+        this.vintageStartTime = builder.vintageStartTime;
+        this.vintageEndTime = builder.vintageEndTime;
+        this.window = builder.window;
+        this.parallelism = builder.parallelism;
+        this.retries = builder.retries;
+        this.maxRetryAfter = builder.maxRetryAfter;
+        this.checkpoint = builder.checkpoint;
+        this.forecastType = builder.forecastType;
+        this.predictionsPerHour = builder.predictionsPerHour;
+        this.predictionLeadTimeMins = builder.predictionLeadTimeMins;
+        this.horizonMins = builder.horizonMins;
+    }
+
+    /**
+     * Create a builder for a backfill of forecasts by vintage
+     *
+     * @param client the client to fetch with
+     * @param objectName the object name
+     * @param product the product type
+     * @param vintageStartTime first vintage time to fetch (timezone-aware)
+     * @param vintageEndTime vintage time at which to stop, exclusive (timezone-aware)
+     */
+    public static Builder builder(TybaClient client, String objectName, String product,
+                                  ZonedDateTime vintageStartTime, ZonedDateTime vintageEndTime) {
+        return new Builder(client, objectName, product, vintageStartTime, vintageEndTime);
+    }
+
+    /**
+     * Windows still to be fetched, taking the checkpoint into account
+     */
+    public List<Window> remainingWindows() {
+        Instant next = readCheckpoint();
+        List<Window> windows = new ArrayList<>();
+        ZonedDateTime start = vintageStartTime;
+        if (next != null && next.isAfter(start.toInstant())) {
+            start = next.atZone(vintageStartTime.getZone());
+        }
+        while (start.isBefore(vintageEndTime)) {
+            ZonedDateTime end = start.plus(window);
+            windows.add(new Window(start, end.isBefore(vintageEndTime) ? end : vintageEndTime));
+            start = end;
+        }
+        return windows;
+    }
+
+    /**
+     * Fetch all remaining windows and deliver them to the listener in vintage order
+     *
+     * @param listener receives each window's rows
+     * @return number of rows delivered in this run
+     * @throws IOException if a window still fails after its retries, the listener fails, or the checkpoint
+     *         cannot be written; windows delivered before the failure stay checkpointed
+     */
+    public long run(Listener listener) throws IOException {
+        List<Window> windows = remainingWindows();
+        Deque<Fetch> inFlight = new ArrayDeque<>();
+        ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tyba-backfill-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long rows = 0;
+        int submitted = 0;
+        try {
+            for (Window current : windows) {
+                while (submitted < windows.size() && inFlight.size() < parallelism) {
+                    Fetch next = new Fetch(windows.get(submitted++), retryScheduler);
+                    inFlight.add(next);
+                    next.submit();
+                }
+                ForecastSeries series = Parallel.await(inFlight.poll().result);
+                listener.onWindow(current, series);
+                writeCheckpoint(current.getEnd().toInstant());
+                rows += series.size();
+            }
+            return rows;
+        } finally {
+            for (Fetch fetch : inFlight) {
+                fetch.cancel();
+            }
+            retryScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Fetch of one window, whose attempts run on the client's executor. A retryable failure schedules the
+     * next attempt after a growing pause (at least any Retry-After) rather than sleeping on a pooled
+     * thread; a Retry-After longer than the maximum fails the window instead. Rows that belong to the
+     * neighbouring windows are dropped.
+     */
+    private final class Fetch {
+        final CompletableFuture<ForecastSeries> result = new CompletableFuture<>();
+        private final Window target;
+        private final ScheduledExecutorService retryScheduler;
+        private volatile Future<?> pending;
+        private int attempts;
+
+        Fetch(Window target, ScheduledExecutorService retryScheduler) {
+            this.target = target;
+            this.retryScheduler = retryScheduler;
+        }
+
+        void submit() {
+            try {
+                track(client.executor().submit(this::attempt));
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        void cancel() {
+            result.cancel(true);
+            Future<?> current = pending;
+            if (current != null) {
+                current.cancel(true);
+            }
+        }
+
+        /**
+         * Remember the attempt or scheduled retry in flight, cancelling it if the fetch was cancelled
+         * in the meantime
+         */
+        private void track(Future<?> future) {
+            pending = future;
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        }
+
+        private void attempt() {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                ForecastSeries series = client.getForecast().getByVintageSeries(objectName, product,
+                        target.getStart(), target.getEnd(), forecastType, predictionsPerHour,
+                        predictionLeadTimeMins, horizonMins);
+                result.complete(clip(series, target.getStart().toEpochSecond(), target.getEnd().toEpochSecond()));
+            } catch (IOException e) {
+                retryOrFail(e);
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void retryOrFail(IOException e) {
+            boolean retryable = !(e instanceof TybaApiException) || ((TybaApiException) e).isRetryable();
+            if (attempts >= retries || !retryable || e instanceof InterruptedIOException) {
+                result.completeExceptionally(e);
+                return;
+            }
+            long pauseMillis = 500L << attempts++;
+            if (e instanceof RateLimitedException && ((RateLimitedException) e).getRetryAfter() != null) {
+                Duration retryAfter = ((RateLimitedException) e).getRetryAfter();
+                if (retryAfter.compareTo(maxRetryAfter) > 0) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                pauseMillis = Math.max(pauseMillis, retryAfter.toMillis());
+            }
+            logger.warn("Backfill window {} failed, retrying in {} ms: {}", target, pauseMillis, e.getMessage());
+            try {
+                track(retryScheduler.schedule(this::submit, pauseMillis, TimeUnit.MILLISECONDS));
+            } catch (RejectedExecutionException rejected) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Keep the rows whose forecast time lies in {@code [from, to)}. A row without a forecast time is kept
+     * only if its target time lies in {@code [from, to)}, so it is delivered by at most one window.
+     */
+    static ForecastSeries clip(ForecastSeries series, long from, long to) {
+        long[] targets = series.getDatetimes();
+        long[] forecastedAt = series.getForecastedAt();
+        int[] keep = new int[forecastedAt.length];
+        int size = 0;
+        for (int i = 0; i < forecastedAt.length; i++) {
+            long vintage = forecastedAt[i];
+            long time = vintage == ForecastSeries.NO_TIME ? targets[i] : vintage;
+            if (time >= from && time < to) {
+                keep[size++] = i;
+            }
+        }
+        if (size == forecastedAt.length) {
+            return series;
+        }
+        long[] datetimes = new long[size];
+        long[] vintages = new long[size];
+        double[] values = new double[size];
+        String[] types = new String[size];
+        for (int i = 0; i < size; i++) {
+            int row = keep[i];
+            datetimes[i] = targets[row];
+            vintages[i] = forecastedAt[row];
+            values[i] = series.getValues()[row];
+            types[i] = series.getForecastTypes()[row];
+        }
+        return new ForecastSeries(datetimes, vintages, values, types);
+    }
+
+    /**
+     * Identifies the job in the checkpoint, so that a checkpoint is never resumed by a different backfill
+     */
+    private String jobKey() {
+        return String.join("|", Arrays.asList(objectName, product, String.valueOf(forecastType),
+                String.valueOf(predictionsPerHour), String.valueOf(predictionLeadTimeMins), String.valueOf(horizonMins),
+                String.valueOf(vintageStartTime.toEpochSecond()), String.valueOf(vintageEndTime.toEpochSecond())));
+    }
+
+    private Instant readCheckpoint() {
+        if (checkpoint == null || !Files.isRegularFile(checkpoint)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpoint)) {
+            properties.load(reader);
+            if (!jobKey().equals(properties.getProperty(JOB_KEY))) {
+                logger.warn("Ignoring checkpoint {} written by a different backfill", checkpoint);
+                return null;
+            }
+            return Instant.ofEpochSecond(Long.parseLong(properties.getProperty(NEXT_KEY)));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable checkpoint {}: {}", checkpoint, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write the checkpoint to a temporary file and move it into place, so a crash mid-write never
+     * leaves a truncated checkpoint behind
+     */
+    private void writeCheckpoint(Instant next) throws IOException {
+        if (checkpoint == null) {
+            return;
+        }
+        Path parent = checkpoint.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Properties properties = new Properties();
+        properties.setProperty(JOB_KEY, jobKey());
+        properties.setProperty(NEXT_KEY, String.valueOf(next.getEpochSecond()));
+        Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp)) {
+            properties.store(writer, "Forecast backfill checkpoint, next vintage " + next);
+        }
+        try {
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * A vintage window, from its start inclusive to its end exclusive
+     */
+    public static final class Window {
+        private final ZonedDateTime start;
+        private final ZonedDateTime end;
+
+        public Window(ZonedDateTime start, ZonedDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public ZonedDateTime getStart() { return start; }
+        public ZonedDateTime getEnd() { return end; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Window)) return false;
+            Window other = (Window) o;
+            return start.equals(other.start) && end.equals(other.end);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ")";
+        }
+    }
+
+    /**
+     * Builder for {@link ForecastBackfill}
+     */
+    public static final class Builder {
+        private final TybaClient client;
+        private final String objectName;
+        private final String product;
+        private final ZonedDateTime vintageStartTime;
+        private final ZonedDateTime vintageEndTime;
+        private Duration window = Duration.ofDays(7);
+        private int parallelism = 4;
+        private int retries = 2;
+        private Duration maxRetryAfter = Duration.ofMinutes(5);
+        private Path checkpoint;
+        private String forecastType;
+        private Integer predictionsPerHour;
+        private Integer predictionLeadTimeMins;
+        private Integer horizonMins;
+
+        private Builder(TybaClient client, String objectName, String product,
+                        ZonedDateTime vintageStartTime, ZonedDateTime vintageEndTime) {
+            this.client = client;
+            this.objectName = objectName;
+            this.product = product;
+            this.vintageStartTime = vintageStartTime;
+            this.vintageEndTime = vintageEndTime;
+        }
+
+        /**
+         * Length of the vintage window fetched by each request, 7 days by default
+         */
+        public Builder window(Duration window) {
+            if (window.isNegative() || window.isZero()) {
+                throw new IllegalArgumentException("window must be positive");
+            }
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Maximum number of windows fetched or buffered at once, 4 by default. Requests are also bounded by
+         * the client's {@link TybaClient#setMaxConcurrentRequests(int) maximum concurrency}.
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("parallelism must be at least 1");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Number of times a failed window is retried before the backfill fails, 2 by default. Failures that
+         * are not {@link TybaApiException#isRetryable() retryable} fail at once.
+         */
+        public Builder retries(int retries) {
+            if (retries < 0) {
+                throw new IllegalArgumentException("retries must not be negative");
+            }
+            this.retries = retries;
+            return this;
+        }
+
+        /**
+         * Longest Retry-After of a rate-limited window that is waited out before retrying, 5 minutes by
+         * default. A window asked to wait longer fails with its {@link RateLimitedException}.
+         */
+        public Builder maxRetryAfter(Duration maxRetryAfter) {
+            if (maxRetryAfter.isNegative()) {
+                throw new IllegalArgumentException("maxRetryAfter must not be negative");
+            }
+            this.maxRetryAfter = maxRetryAfter;
+            return this;
+        }
+
+        /**
+         * File recording the position after each delivered window, for resuming an interrupted backfill
+         */
+        public Builder checkpoint(Path checkpoint) {
+            this.checkpoint = checkpoint;
+            return this;
+        }
+
+        public Builder forecastType(String forecastType) {
+            this.forecastType = forecastType;
+            return this;
+        }
+
+        public Builder predictionsPerHour(Integer predictionsPerHour) {
+            this.predictionsPerHour = predictionsPerHour;
+            return this;
+        }
+
+        public Builder predictionLeadTimeMins(Integer predictionLeadTimeMins) {
+            this.predictionLeadTimeMins = predictionLeadTimeMins;
+            return this;
+        }
+
+        public Builder horizonMins(Integer horizonMins) {
+            this.horizonMins = horizonMins;
+            return this;
+        }
+
+        public ForecastBackfill build() {
+            return new ForecastBackfill(this);
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.ForecastSeries;
+import com.tybaenergy.client.model.QuantileForecast;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of most recent forecasts that answers requests from any cached response holding a
+ * superset of the requested data.
+ *
+ * A request is derived locally from a cached response for the same object, product, forecast type,
+ * predictions per hour and lead time when the cached response covers the requested window, was fetched
+ * with the same or a wider horizon, and holds every requested quantile. Derived results keep the rows
+ * whose target time lies in the window and, for a narrower horizon, whose target time is at most the
+ * horizon after their forecast time.
+ *
+ * With widening enabled, a request that misses is sent with the union of the quantiles and the widest
+ * horizon of the variants recently requested for the same series, so later variants become hits.
+ */
+public class ForecastCache {
+    /**
+     * Default time for which a fetched forecast is reused
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    /**
+     * Default maximum number of series kept
+     */
+    public static final int DEFAULT_MAX_SERIES = 256;
+
+    /**
+     * Maximum number of responses kept for one series
+     */
+    static final int MAX_RESPONSES_PER_SERIES = 4;
+
+    private final TybaClient client;
+    private final long ttlNanos;
+    private final int maxSeries;
+    private final boolean widen;
+    private final LongSupplier ticker;
+    private final LinkedHashMap<SeriesKey, Series> series = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder derivedHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create a cache with the default TTL and size bound and without widening
+     *
+     * @param client the client to fetch with
+     */
+    public ForecastCache(TybaClient client) {
+        this(client, DEFAULT_TTL, DEFAULT_MAX_SERIES, false);
+    }
+
+    /**
+     * @param client the client to fetch with
+     * @param ttl time for which a fetched forecast is reused
+     * @param maxSeries maximum number of series kept
+     * @param widen whether to widen missing requests to the union of recently requested variants
+     */
+    public ForecastCache(TybaClient client, Duration ttl, int maxSeries, boolean widen) {
+        this(client, ttl, maxSeries, widen, System::nanoTime);
+    }
+
+    ForecastCache(TybaClient client, Duration ttl, int maxSeries, boolean widen, LongSupplier ticker) {
+        if (maxSeries < 1) {
+            throw new IllegalArgumentException("maxSeries must be at least 1");
+        }
+        this.client = client;
+        this.ttlNanos = ttl.toNanos();
+        this.maxSeries = maxSeries;
+        this.widen = widen;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Cached equivalent of {@link Forecast#getMostRecentSeries}
+     */
+    public ForecastSeries getMostRecent(String objectName, String product, ZonedDateTime startTime,
+                                        ZonedDateTime endTime, String forecastType, Integer predictionsPerHour,
+                                        Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
+        SeriesKey key = new SeriesKey(objectName, product, forecastType, predictionsPerHour,
+                predictionLeadTimeMins, false);
+        Variant requested = new Variant(startTime, endTime, horizonMins, null);
+        Cached cached = lookup(key, requested);
+        if (cached == null) {
+            Variant fetch = widened(key, requested);
+            ForecastSeries fetched = client.getForecast().getMostRecentSeries(objectName, product, startTime,
+                    endTime, forecastType, predictionsPerHour, predictionLeadTimeMins, fetch.horizonMins);
+            cached = store(key, fetch, fetched, ttlNanos);
+        }
+        return cached.variant.equals(requested) ? (ForecastSeries) cached.data
+                : derive((ForecastSeries) cached.data, requested);
+    }
+
+    /**
+     * Cached equivalent of {@link Forecast#getMostRecentQuantiles}
+     */
+    public QuantileForecast getMostRecentQuantiles(String objectName, String product, ZonedDateTime startTime,
+                                                   ZonedDateTime endTime, List<Double> quantiles,
+                                                   String forecastType, Integer predictionsPerHour,
+                                                   Integer predictionLeadTimeMins, Integer horizonMins) throws IOException {
+        SeriesKey key = new SeriesKey(objectName, product, forecastType, predictionsPerHour,
+                predictionLeadTimeMins, true);
+        Variant requested = new Variant(startTime, endTime, horizonMins, levels(quantiles));
+        Cached cached = lookup(key, requested);
+        if (cached == null) {
+            Variant fetch = widened(key, requested);
+            QuantileForecast fetched = client.getForecast().getMostRecentQuantiles(objectName, product, startTime,
+                    endTime, boxed(fetch.quantiles), forecastType, predictionsPerHour, predictionLeadTimeMins,
+                    fetch.horizonMins);
+            cached = store(key, fetch, fetched, ttlNanos);
+        }
+        return cached.variant.equals(requested) ? (QuantileForecast) cached.data
+                : derive((QuantileForecast) cached.data, requested);
+    }
+
+    /**
+     * Fetch a most recent forecast now and cache it for at least {@code keepFor}, regardless of the TTL
+     * and of any cached copy. Used to warm the cache ahead of a deadline, e.g. by a
+     * {@link PrefetchScheduler}.
+     *
+     * @param keepFor minimum time for which the response is reused
+     */
+    public void prefetchMostRecent(String objectName, String product, ZonedDateTime startTime,
+                                   ZonedDateTime endTime, String forecastType, Integer predictionsPerHour,
+                                   Integer predictionLeadTimeMins, Integer horizonMins,
+                                   Duration keepFor) throws IOException {
+        SeriesKey key = new SeriesKey(objectName, product, forecastType, predictionsPerHour,
+                predictionLeadTimeMins, false);
+        Variant variant = new Variant(startTime, endTime, horizonMins, null);
+        ForecastSeries fetched = client.getForecast().getMostRecentSeries(objectName, product, startTime,
+                endTime, forecastType, predictionsPerHour, predictionLeadTimeMins, horizonMins);
+        store(key, variant, fetched, Math.max(ttlNanos, keepFor.toNanos()));
+    }
+
+    /**
+     * Usage counters. Hits include lookups derived from a wider response.
+     */
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), 0, misses.sum(), 0, 0, evictions.sum());
+    }
+
+    /**
+     * Number of hits answered by deriving a subset of a different cached response
+     */
+    public long getDerivedHitCount() {
+        return derivedHits.sum();
+    }
+
+    /**
+     * Drop all cached responses and recently requested variants
+     */
+    public synchronized void invalidateAll() {
+        series.clear();
+    }
+
+    private synchronized Cached lookup(SeriesKey key, Variant requested) {
+        long now = ticker.getAsLong();
+        Series held = series.get(key);
+        if (held != null) {
+            held.expire(now);
+            held.recent.addLast(new Requested(requested, now));
+            for (Cached response : held.responses) {
+                if (response.variant.covers(requested)) {
+                    hits.increment();
+                    if (!response.variant.equals(requested)) {
+                        derivedHits.increment();
+                    }
+                    return response;
+                }
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * The variant to fetch for a missing request: the request itself, or with widening the union of the
+     * quantiles and the widest horizon of the variants recently requested for the series
+     */
+    private synchronized Variant widened(SeriesKey key, Variant requested) {
+        Series held = series.get(key);
+        if (!widen || held == null) {
+            return requested;
+        }
+        double[] quantiles = requested.quantiles;
+        Integer horizon = requested.horizonMins;
+        for (Requested recent : held.recent) {
+            Variant variant = recent.variant;
+            if (quantiles != null && variant.quantiles != null) {
+                quantiles = union(quantiles, variant.quantiles);
+            }
+            if (horizon != null) {
+                horizon = variant.horizonMins == null ? null : Math.max(horizon, variant.horizonMins);
+            }
+        }
+        return new Variant(requested.startTime, requested.endTime, horizon, quantiles);
+    }
+
+    private synchronized Cached store(SeriesKey key, Variant variant, Object data, long keepNanos) {
+        long now = ticker.getAsLong();
+        Series held = series.computeIfAbsent(key, k -> new Series());
+        Cached response = new Cached(variant, data, now + keepNanos);
+        held.responses.removeIf(existing -> variant.covers(existing.variant));
+        held.responses.addFirst(response);
+        while (held.responses.size() > MAX_RESPONSES_PER_SERIES) {
+            held.responses.removeLast();
+        }
+        if (held.recent.isEmpty()) {
+            held.recent.addLast(new Requested(variant, now));
+        }
+        Iterator<Map.Entry<SeriesKey, Series>> eldest = series.entrySet().iterator();
+        while (series.size() > maxSeries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+        return response;
+    }
+
+    /**
+     * Rows of a wider point forecast that fall in the requested window and horizon
+     */
+    static ForecastSeries derive(ForecastSeries source, Variant requested) {
+        int[] rows = selectRows(source.getDatetimes(), source.getForecastedAt(), requested);
+        long[] datetimes = new long[rows.length];
+        long[] forecastedAt = new long[rows.length];
+        double[] values = new double[rows.length];
+        String[] types = new String[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            datetimes[i] = source.getDatetimes()[rows[i]];
+            forecastedAt[i] = source.getForecastedAt()[rows[i]];
+            values[i] = source.getValues()[rows[i]];
+            types[i] = source.getForecastTypes()[rows[i]];
+        }
+        return new ForecastSeries(datetimes, forecastedAt, values, types);
+    }
+
+    /**
+     * Requested quantile rows of a wider probabilistic forecast, restricted to the requested window and
+     * horizon
+     */
+    static QuantileForecast derive(QuantileForecast source, Variant requested) {
+        int[] rows = selectRows(source.getDatetimes(), source.getForecastedAt(), requested);
+        double[] quantiles = requested.quantiles;
+        long[] datetimes = new long[rows.length];
+        long[] forecastedAt = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            datetimes[i] = source.getDatetimes()[rows[i]];
+            forecastedAt[i] = source.getForecastedAt()[rows[i]];
+        }
+        double[] values = new double[quantiles.length * rows.length];
+        for (int q = 0; q < quantiles.length; q++) {
+            int sourceRow = source.indexOfQuantile(quantiles[q]);
+            for (int i = 0; i < rows.length; i++) {
+                values[q * rows.length + i] = source.get(sourceRow, rows[i]);
+            }
+        }
+        return new QuantileForecast(quantiles, datetimes, forecastedAt, values);
+    }
+
+    private static int[] selectRows(long[] datetimes, long[] forecastedAt, Variant requested) {
+        long start = requested.startTime.toEpochSecond();
+        long end = requested.endTime.toEpochSecond();
+        long horizonSeconds = requested.horizonMins == null ? Long.MAX_VALUE : requested.horizonMins * 60L;
+        int[] rows = new int[datetimes.length];
+        int size = 0;
+        for (int i = 0; i < datetimes.length; i++) {
+            long time = datetimes[i];
+            if (time < start || time > end) {
+                continue;
+            }
+            if (forecastedAt[i] != ForecastSeries.NO_TIME && time - forecastedAt[i] > horizonSeconds) {
+                continue;
+            }
+            rows[size++] = i;
+        }
+        return Arrays.copyOf(rows, size);
+    }
+
+    private static double[] levels(List<Double> quantiles) {
+        return quantiles.stream().mapToDouble(Double::doubleValue).sorted().distinct().toArray();
+    }
+
+    private static List<Double> boxed(double[] quantiles) {
+        return Arrays.stream(quantiles).boxed().toList();
+    }
+
+    private static double[] union(double[] a, double[] b) {
+        double[] merged = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, merged, a.length, b.length);
+        return Arrays.stream(merged).sorted().distinct().toArray();
+    }
+
+    /**
+     * Everything about a request that can be derived from a wider response
+     */
+    static final class Variant {
+        private final ZonedDateTime startTime;
+        private final ZonedDateTime endTime;
+        private final Integer horizonMins;
+        private final double[] quantiles;
+
+        Variant(ZonedDateTime startTime, ZonedDateTime endTime, Integer horizonMins, double[] quantiles) {
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.horizonMins = horizonMins;
+            this.quantiles = quantiles;
+        }
+
+        /**
+         * Whether a response to this variant holds all the data of {@code other}
+         */
+        boolean covers(Variant other) {
+            if (startTime.isAfter(other.startTime) || endTime.isBefore(other.endTime)) {
+                return false;
+            }
+            if (horizonMins != null && (other.horizonMins == null || other.horizonMins > horizonMins)) {
+                return false;
+            }
+            if (quantiles == null || other.quantiles == null) {
+                return quantiles == other.quantiles;
+            }
+            for (double quantile : other.quantiles) {
+                if (Arrays.binarySearch(quantiles, quantile) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Variant)) return false;
+            Variant other = (Variant) o;
+            return startTime.toInstant().equals(other.startTime.toInstant())
+                    && endTime.toInstant().equals(other.endTime.toInstant())
+                    && Objects.equals(horizonMins, other.horizonMins) && Arrays.equals(quantiles, other.quantiles);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(startTime.toInstant(), endTime.toInstant(), horizonMins, Arrays.hashCode(quantiles));
+        }
+    }
+
+    private static final class SeriesKey {
+        private final String objectName;
+        private final String product;
+        private final String forecastType;
+        private final Integer predictionsPerHour;
+        private final Integer predictionLeadTimeMins;
+        private final boolean probabilistic;
+
+        SeriesKey(String objectName, String product, String forecastType, Integer predictionsPerHour,
+                  Integer predictionLeadTimeMins, boolean probabilistic) {
+            this.objectName = objectName;
+            this.product = product;
+            this.forecastType = forecastType;
+            this.predictionsPerHour = predictionsPerHour;
+            this.predictionLeadTimeMins = predictionLeadTimeMins;
+            this.probabilistic = probabilistic;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SeriesKey)) return false;
+            SeriesKey other = (SeriesKey) o;
+            return probabilistic == other.probabilistic && objectName.equals(other.objectName)
+                    && product.equals(other.product) && Objects.equals(forecastType, other.forecastType)
+                    && Objects.equals(predictionsPerHour, other.predictionsPerHour)
+                    && Objects.equals(predictionLeadTimeMins, other.predictionLeadTimeMins);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(objectName, product, forecastType, predictionsPerHour, predictionLeadTimeMins,
+                    probabilistic);
+        }
+    }
+
+    private final class Series {
+        private final Deque<Cached> responses = new ArrayDeque<>();
+        private final Deque<Requested> recent = new ArrayDeque<>();
+
+        void expire(long now) {
+            responses.removeIf(response -> now - response.expiresAtNanos >= 0);
+            recent.removeIf(request -> now - request.atNanos >= ttlNanos);
+            while (recent.size() >= MAX_RESPONSES_PER_SERIES * 2) {
+                recent.removeFirst();
+            }
+        }
+    }
+
+    private static final class Cached {
+        private final Variant variant;
+        private final Object data;
+        private final long expiresAtNanos;
+
+        Cached(Variant variant, Object data, long expiresAtNanos) {
+            this.variant = variant;
+            this.data = data;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private static final class Requested {
+        private final Variant variant;
+        private final long atNanos;
+
+        Requested(Variant variant, long atNanos) {
+            this.variant = variant;
+            this.atNanos = atNanos;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.ForecastErrorMetrics;
+import com.tybaenergy.client.model.ForecastKey;
+import com.tybaenergy.client.model.ForecastSeries;
+import com.tybaenergy.client.model.QuantileForecast;
+import com.tybaenergy.client.model.TimeSeriesFrame;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Forecast skill evaluation against actuals.
+ *
+ * The evaluation range is walked in target-time chunks. For each chunk, the actuals and the forecasts
+ * issued up to the maximum lead time before it are fetched as primitive series. Every forecast row whose
+ * target lies in the chunk is joined to its actual value and added to a {@link ForecastErrorMetrics}
+ * accumulator, and the chunk is then dropped. Memory therefore depends on the chunk length, not on the
+ * length of the evaluation. Objects are evaluated in parallel on the client's executor.
+ */
+public class ForecastEvaluator {
+    private final TybaClient client;
+    private final ZonedDateTime startTime;
+    private final ZonedDateTime endTime;
+    private final double[] quantiles;
+    private final Duration chunk;
+    private final Duration maxLead;
+    private final Duration leadBucket;
+
+    private ForecastEvaluator(Builder builder) {
+        this.client = builder.client;
+        this.startTime = builder.startTime;
+        this.endTime = builder.endTime;
+        this.quantiles = builder.quantiles;
+        this.chunk = builder.chunk;
+        this.maxLead = builder.maxLead;
+        this.leadBucket = builder.leadBucket;
+    }
+
+    /**
+     * Create a builder for an evaluation of target times in {@code [startTime, endTime)}
+     */
+    public static Builder builder(TybaClient client, ZonedDateTime startTime, ZonedDateTime endTime) {
+        return new Builder(client, startTime, endTime);
+    }
+
+    /**
+     * Evaluate the forecasts of several series concurrently
+     *
+     * @param keys the series to evaluate; each key's forecast type is used for both forecasts and actuals
+     * @return metrics per distinct key, in the order the keys were first given
+     * @throws IOException if fetching any series fails
+     */
+    public Map<ForecastKey, ForecastErrorMetrics> evaluate(Collection<ForecastKey> keys) throws IOException {
+        Map<ForecastKey, Callable<ForecastErrorMetrics>> tasks = new LinkedHashMap<>();
+        for (ForecastKey key : keys) {
+            tasks.putIfAbsent(key, () -> evaluate(key));
+        }
+        return Parallel.invokeAll(client.executor(), tasks);
+    }
+
+    /**
+     * Evaluate the forecasts of one series on the calling thread
+     *
+     * @throws IOException if fetching the series fails
+     */
+    public ForecastErrorMetrics evaluate(ForecastKey key) throws IOException {
+        Forecast forecast = client.getForecast();
+        ForecastErrorMetrics metrics = new ForecastErrorMetrics(quantiles, leadBucket.getSeconds());
+        for (ZonedDateTime from = startTime; from.isBefore(endTime); from = from.plus(chunk)) {
+            ZonedDateTime next = from.plus(chunk);
+            ZonedDateTime to = next.isBefore(endTime) ? next : endTime;
+            ForecastSeries actualSeries = forecast.getActualsSeries(key.getObjectName(), key.getProduct(), from, to,
+                    key.getForecastType(), null, null, null);
+            TimeSeriesFrame actuals = actualSeries.toFrame("actual");
+            if (actuals.getRowCount() == 0) {
+                continue;
+            }
+            ZonedDateTime vintageStart = from.minus(maxLead);
+            long fromSeconds = from.toEpochSecond();
+            long toSeconds = to.toEpochSecond();
+            if (quantiles.length == 0) {
+                ForecastSeries forecasts = forecast.getByVintageSeries(key.getObjectName(), key.getProduct(),
+                        vintageStart, to, key.getForecastType(), null, null, null);
+                accumulate(metrics, forecasts, actuals, fromSeconds, toSeconds, maxLead.getSeconds());
+            } else {
+                QuantileForecast forecasts = forecast.getByVintageQuantiles(key.getObjectName(), key.getProduct(),
+                        Arrays.stream(quantiles).boxed().toList(), vintageStart, to, key.getForecastType(),
+                        null, null, null);
+                accumulate(metrics, forecasts, actuals, fromSeconds, toSeconds, maxLead.getSeconds());
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Join point forecast rows with target times in {@code [from, to)} and a lead time of at most
+     * {@code maxLeadSeconds} to the actuals and accumulate them
+     */
+    static void accumulate(ForecastErrorMetrics metrics, ForecastSeries forecasts, TimeSeriesFrame actuals,
+                           long from, long to, long maxLeadSeconds) {
+        long[] actualTimes = actuals.getEpochSeconds();
+        double[] actualValues = actuals.getColumn(0);
+        long[] targets = forecasts.getDatetimes();
+        long[] vintages = forecasts.getForecastedAt();
+        double[] values = forecasts.getValues();
+        for (int i = 0; i < targets.length; i++) {
+            long target = targets[i];
+            if (target < from || target >= to || vintages[i] == ForecastSeries.NO_TIME
+                    || target - vintages[i] > maxLeadSeconds) {
+                continue;
+            }
+            int row = Arrays.binarySearch(actualTimes, target);
+            if (row >= 0) {
+                metrics.add(target - vintages[i], values[i], actualValues[row]);
+            }
+        }
+    }
+
+    /**
+     * Join probabilistic forecast rows with target times in {@code [from, to)} and a lead time of at most
+     * {@code maxLeadSeconds} to the actuals and accumulate them. Quantile columns are matched to the
+     * metrics' quantile levels.
+     */
+    static void accumulate(ForecastErrorMetrics metrics, QuantileForecast forecasts, TimeSeriesFrame actuals,
+                           long from, long to, long maxLeadSeconds) {
+        double[] levels = metrics.getQuantiles();
+        int[] columns = new int[levels.length];
+        for (int q = 0; q < levels.length; q++) {
+            columns[q] = forecasts.indexOfQuantile(levels[q]);
+        }
+        long[] actualTimes = actuals.getEpochSeconds();
+        double[] actualValues = actuals.getColumn(0);
+        long[] targets = forecasts.getDatetimes();
+        long[] vintages = forecasts.getForecastedAt();
+        double[] row = new double[levels.length];
+        for (int t = 0; t < targets.length; t++) {
+            long target = targets[t];
+            if (target < from || target >= to || vintages[t] == ForecastSeries.NO_TIME
+                    || target - vintages[t] > maxLeadSeconds) {
+                continue;
+            }
+            int actual = Arrays.binarySearch(actualTimes, target);
+            if (actual < 0) {
+                continue;
+            }
+            for (int q = 0; q < levels.length; q++) {
+                row[q] = columns[q] >= 0 ? forecasts.get(columns[q], t) : Double.NaN;
+            }
+            metrics.addQuantiles(target - vintages[t], row, actualValues[actual]);
+        }
+    }
+
+    /**
+     * Builder for {@link ForecastEvaluator}
+     */
+    public static final class Builder {
+        private final TybaClient client;
+        private final ZonedDateTime startTime;
+        private final ZonedDateTime endTime;
+        private double[] quantiles = new double[0];
+        private Duration chunk = Duration.ofDays(7);
+        private Duration maxLead = Duration.ofDays(2);
+        private Duration leadBucket = Duration.ofHours(1);
+
+        private Builder(TybaClient client, ZonedDateTime startTime, ZonedDateTime endTime) {
+            this.client = client;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        /**
+         * Evaluate probabilistic forecasts at these quantile levels instead of point forecasts
+         */
+        public Builder quantiles(List<Double> quantiles) {
+            this.quantiles = quantiles.stream().mapToDouble(Double::doubleValue).sorted().distinct().toArray();
+            return this;
+        }
+
+        /**
+         * Length of target time fetched and accumulated at once, 7 days by default
+         */
+        public Builder chunk(Duration chunk) {
+            this.chunk = requirePositive(chunk, "chunk");
+            return this;
+        }
+
+        /**
+         * Longest lead time evaluated, 2 days by default. Forecasts issued further ahead of their target are
+         * not fetched.
+         */
+        public Builder maxLead(Duration maxLead) {
+            this.maxLead = requirePositive(maxLead, "maxLead");
+            return this;
+        }
+
+        /**
+         * Width of the lead-time buckets, 1 hour by default
+         */
+        public Builder leadBucket(Duration leadBucket) {
+            this.leadBucket = requirePositive(leadBucket, "leadBucket");
+            return this;
+        }
+
+        public ForecastEvaluator build() {
+            return new ForecastEvaluator(this);
+        }
+
+        private static Duration requirePositive(Duration duration, String name) {
+            if (duration.isNegative() || duration.getSeconds() == 0) {
+                throw new IllegalArgumentException(name + " must be at least one second");
+            }
+            return duration;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.ForecastKey;
+import com.tybaenergy.client.model.ForecastSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Shared polling of most recent forecasts for in-process subscribers.
+ *
+ * Each distinct (object, product, forecast type, window) is polled once per interval no matter how many
+ * listeners subscribe to it. When the latest forecast time in the response has not moved, nothing is
+ * delivered; otherwise listeners receive only the points that are new or whose value changed. A new
+ * listener first receives the complete current forecast, if one has been fetched.
+ */
+public class ForecastWatcher implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ForecastWatcher.class);
+
+    /**
+     * Receives forecast updates. Updates for one watch are delivered one at a time, in order.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * @param key the watched series
+         * @param changed the new or changed points, or the complete forecast on the first delivery
+         */
+        void onUpdate(ForecastKey key, ForecastSeries changed);
+    }
+
+    private final TybaClient client;
+    private final Duration pollInterval;
+    private final ScheduledExecutorService scheduler;
+    private final Map<WatchKey, Watch> watches = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * @param client the client to poll with; requests run on its executor
+     * @param pollInterval time between polls of each watched forecast
+     */
+    public ForecastWatcher(TybaClient client, Duration pollInterval) {
+        if (pollInterval.isNegative() || pollInterval.isZero()) {
+            throw new IllegalArgumentException("pollInterval must be positive");
+        }
+        this.client = client;
+        this.pollInterval = pollInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tyba-forecast-watch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Subscribe to a forecast. The first subscriber to a series starts its polling.
+     *
+     * @param key the series to watch
+     * @param startTime start time of the forecast window (timezone-aware)
+     * @param endTime end time of the forecast window (timezone-aware)
+     * @param listener receives the updates; if the forecast has already been fetched, it is delivered in
+     *        full to this listener before this method returns
+     * @return subscription to close when updates are no longer wanted
+     * @throws IllegalStateException if the watcher has been closed
+     */
+    public Subscription subscribe(ForecastKey key, ZonedDateTime startTime, ZonedDateTime endTime, Listener listener) {
+        checkOpen();
+        WatchKey watchKey = new WatchKey(key, startTime, endTime);
+        while (true) {
+            Watch watch = watches.computeIfAbsent(watchKey, Watch::new);
+            synchronized (watch) {
+                if (closed) {
+                    // Closed since the check above; close() may have missed this watch
+                    watch.stopped = true;
+                    watches.remove(watchKey, watch);
+                    checkOpen();
+                }
+                if (watch.stopped) {
+                    continue;
+                }
+                watch.listeners.add(listener);
+                if (watch.current != null) {
+                    watch.deliver(listener, watch.current);
+                }
+                if (watch.schedule == null) {
+                    watch.schedule = scheduler.scheduleWithFixedDelay(watch::trigger, 0,
+                            pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                }
+            }
+            return new Subscription(watch, listener);
+        }
+    }
+
+    /**
+     * Number of series currently being polled
+     */
+    public int getWatchCount() {
+        return watches.size();
+    }
+
+    /**
+     * Stop all polling. Subscriptions receive no further updates, and later subscriptions are refused.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Watch watch : watches.values()) {
+            synchronized (watch) {
+                watch.stopped = true;
+                if (watch.schedule != null) {
+                    watch.schedule.cancel(false);
+                }
+            }
+        }
+        watches.clear();
+        scheduler.shutdownNow();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("ForecastWatcher is closed");
+        }
+    }
+
+    /**
+     * Points of {@code current} that are absent from {@code previous} or whose value differs. NaN values
+     * compare equal to each other.
+     */
+    static ForecastSeries diff(ForecastSeries previous, ForecastSeries current) {
+        Map<Long, Integer> previousRows = new HashMap<>(previous.size() * 2);
+        long[] previousTimes = previous.getDatetimes();
+        for (int i = 0; i < previousTimes.length; i++) {
+            previousRows.put(previousTimes[i], i);
+        }
+
+        long[] times = current.getDatetimes();
+        double[] values = current.getValues();
+        int[] changed = new int[times.length];
+        int size = 0;
+        for (int i = 0; i < times.length; i++) {
+            Integer row = previousRows.get(times[i]);
+            if (row == null || Double.compare(previous.getValues()[row], values[i]) != 0) {
+                changed[size++] = i;
+            }
+        }
+
+        long[] changedTimes = new long[size];
+        long[] changedVintages = new long[size];
+        double[] changedValues = new double[size];
+        String[] changedTypes = new String[size];
+        for (int i = 0; i < size; i++) {
+            int row = changed[i];
+            changedTimes[i] = times[row];
+            changedVintages[i] = current.getForecastedAt()[row];
+            changedValues[i] = values[row];
+            changedTypes[i] = current.getForecastTypes()[row];
+        }
+        return new ForecastSeries(changedTimes, changedVintages, changedValues, changedTypes);
+    }
+
+    /**
+     * Handle to a listener's subscription
+     */
+    public final class Subscription implements AutoCloseable {
+        private final Watch watch;
+        private final Listener listener;
+
+        private Subscription(Watch watch, Listener listener) {
+            this.watch = watch;
+            this.listener = listener;
+        }
+
+        /**
+         * Stop delivering updates to this listener. Polling stops once a series has no listeners left.
+         */
+        @Override
+        public void close() {
+            synchronized (watch) {
+                watch.listeners.remove(listener);
+                if (watch.listeners.isEmpty() && !watch.stopped) {
+                    watch.stopped = true;
+                    if (watch.schedule != null) {
+                        watch.schedule.cancel(false);
+                    }
+                    watches.remove(watch.key, watch);
+                }
+            }
+        }
+    }
+
+    private final class Watch {
+        private final WatchKey key;
+        private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean polling = new AtomicBoolean();
+        private ScheduledFuture<?> schedule;
+        private ForecastSeries current;
+        private boolean stopped;
+
+        Watch(WatchKey key) {
+            this.key = key;
+        }
+
+        /**
+         * Start a poll on the client's executor unless the previous one is still running
+         */
+        void trigger() {
+            if (!polling.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                client.executor().execute(() -> {
+                    try {
+                        poll();
+                    } finally {
+                        polling.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                polling.set(false);
+            }
+        }
+
+        private void poll() {
+            ForecastSeries fetched;
+            try {
+                ForecastKey series = key.series;
+                fetched = client.getForecast().getMostRecentSeries(series.getObjectName(), series.getProduct(),
+                        key.startTime, key.endTime, series.getForecastType(), null, null, null);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Polling forecast {} failed: {}", key.series, e.getMessage());
+                return;
+            }
+
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                ForecastSeries previous = current;
+                ForecastSeries update;
+                if (previous == null) {
+                    update = fetched;
+                } else {
+                    long vintage = fetched.getLatestForecastedAt();
+                    if (vintage != ForecastSeries.NO_TIME && vintage == previous.getLatestForecastedAt()) {
+                        return;
+                    }
+                    update = diff(previous, fetched);
+                }
+                current = fetched;
+                if (update.size() == 0) {
+                    return;
+                }
+                for (Listener listener : listeners) {
+                    deliver(listener, update);
+                }
+            }
+        }
+
+        void deliver(Listener listener, ForecastSeries update) {
+            try {
+                listener.onUpdate(key.series, update);
+            } catch (RuntimeException e) {
+                logger.warn("Forecast listener for {} failed", key.series, e);
+            }
+        }
+    }
+
+    private static final class WatchKey {
+        private final ForecastKey series;
+        private final ZonedDateTime startTime;
+        private final ZonedDateTime endTime;
+
+        WatchKey(ForecastKey series, ZonedDateTime startTime, ZonedDateTime endTime) {
+            this.series = series;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof WatchKey)) return false;
+            WatchKey other = (WatchKey) o;
+            return series.equals(other.series) && startTime.toInstant().equals(other.startTime.toInstant())
+                    && endTime.toInstant().equals(other.endTime.toInstant());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(series, startTime.toInstant(), endTime.toInstant());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.tybaenergy.client;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Request body that serializes a payload straight to the connection with a {@link JsonGenerator}, so a
+ * large payload is never held as a String or byte array. The payload is serialized again if OkHttp
+ * retries the request.
+ *
+ * Uncompressed payloads up to {@link #BUFFERED_LIMIT} bytes are buffered instead by {@link #create}, so
+ * they are sent with a {@code Content-Length} rather than chunked.
+ */
+final class JsonRequestBody extends RequestBody {
+    /**
+     * Largest uncompressed JSON body, in bytes, that is buffered and sent with a {@code Content-Length}
+     */
+    static final int BUFFERED_LIMIT = 64 * 1024;
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private final ObjectMapper objectMapper;
+    private final Object payload;
+    private final boolean gzip;
+
+    /**
+     * @param gzip whether to gzip the JSON; the request must then carry {@code Content-Encoding: gzip}
+     */
+    JsonRequestBody(ObjectMapper objectMapper, Object payload, boolean gzip) {
+        this.objectMapper = objectMapper;
+        this.payload = payload;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Body for a payload: buffered if it is not gzipped and serializes to at most {@link #BUFFERED_LIMIT}
+     * bytes, streamed otherwise
+     *
+     * @throws IOException if the payload cannot be serialized
+     */
+    static RequestBody create(ObjectMapper objectMapper, Object payload, boolean gzip) throws IOException {
+        if (!gzip) {
+            BoundedBuffer buffer = new BoundedBuffer();
+            try {
+                write(objectMapper, payload, buffer);
+                return RequestBody.create(buffer.buffer.readByteString(), JSON);
+            } catch (LimitExceededException e) {
+                // Too large to buffer, stream it instead
+            }
+        }
+        return new JsonRequestBody(objectMapper, payload, gzip);
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        if (!gzip) {
+            write(objectMapper, payload, sink.outputStream());
+            return;
+        }
+        try (GzipStream out = new GzipStream(sink.outputStream())) {
+            write(objectMapper, payload, out);
+        }
+    }
+
+    private static void write(ObjectMapper objectMapper, Object payload, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            objectMapper.writeValue(generator, payload);
+        }
+        out.flush();
+    }
+
+    /**
+     * Gzip stream whose close finishes the gzip trailer and ends the deflater, but leaves the
+     * connection's stream open for OkHttp
+     */
+    private static final class GzipStream extends GZIPOutputStream {
+        GzipStream(OutputStream out) throws IOException {
+            super(out, 8192);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+                out.flush();
+            } finally {
+                def.end();
+            }
+        }
+    }
+
+    /**
+     * Collects up to {@link #BUFFERED_LIMIT} bytes, failing with {@link LimitExceededException} beyond
+     */
+    private static final class BoundedBuffer extends OutputStream {
+        final Buffer buffer = new Buffer();
+
+        @Override
+        public void write(int b) throws IOException {
+            buffer.writeByte(b);
+            checkLimit();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            buffer.write(b, off, len);
+            checkLimit();
+        }
+
+        private void checkLimit() throws LimitExceededException {
+            if (buffer.size() > BUFFERED_LIMIT) {
+                throw new LimitExceededException();
+            }
+        }
+    }
+
+    private static final class LimitExceededException extends IOException {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -1,13 +1,11 @@
 package com.tybaenergy.client;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tybaenergy.client.model.Market;
 import com.tybaenergy.client.model.NodeData;
 import com.tybaenergy.client.model.NodeSearchData;
 import com.tybaenergy.client.model.PriceTimeSeries;
 import okhttp3.Response;
-import okhttp3.ResponseBody;
 
 import java.io.IOException;
 import java.util.List;
@@ -75,26 +73,15 @@ public class LMP {
         }
         
         Map<String, Object> params = TybaClient.params();
-        params.put("node_ids", String.join(",", nodeIds));  // Convert list to comma-separated string
+        params.put("node_ids", nodeIds);  // Sent comma-separated, see TybaClient.CollectionFormat
         params.put("market", market.getValue());
         params.put("start_year", startYear);
         params.put("end_year", endYear);
         
         Response response = get("prices", params);
-        
-        if (!response.isSuccessful()) {
-            throw new IOException("Request failed with code: " + response.code() + ", message: " + response.message());
-        }
-        
-        try (ResponseBody responseBody = response.body()) {
-            if (responseBody == null) {
-                throw new IOException("Empty response body");
-            }
-            
-            ObjectMapper mapper = new ObjectMapper();
-            TypeReference<Map<String, PriceTimeSeries>> typeRef = new TypeReference<Map<String, PriceTimeSeries>>() {};
-            return mapper.readValue(responseBody.string(), typeRef);
-        }
+        TypeReference<Map<String, PriceTimeSeries>> typeRef = new TypeReference<Map<String, PriceTimeSeries>>() {};
+        return services.client.readBody(response,
+                body -> services.client.objectMapper.readValue(body.byteStream(), typeRef));
     }
 
     /**
@@ -117,43 +104,32 @@ public class LMP {
         if (isoOverride != null) params.put("iso_override", isoOverride);
         
         Response response = get("search-nodes", params);
+        Map<String, Object> result = services.client.readBody(response,
+                body -> services.client.objectMapper.readValue(body.byteStream(), new TypeReference<Map<String, Object>>() {}));
         
-        if (!response.isSuccessful()) {
-            throw new IOException("Request failed with code: " + response.code() + ", message: " + response.message());
-        }
-        
-        try (ResponseBody responseBody = response.body()) {
-            if (responseBody == null) {
-                throw new IOException("Empty response body");
-            }
-            
-            ObjectMapper mapper = new ObjectMapper();
-            Map<String, Object> result = mapper.readValue(responseBody.string(), Map.class);
-            
-            if (result.containsKey("nodes")) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> nodesList = (List<Map<String, Object>>) result.get("nodes");
-                return nodesList.stream()
-                        .map(nodeMap -> {
-                            NodeSearchData node = new NodeSearchData();
-                            node.setNodeName((String) nodeMap.get("node/name"));
-                            node.setNodeId((String) nodeMap.get("node/id"));
-                            node.setNodeIso((String) nodeMap.get("node/iso"));
-                            if (nodeMap.get("node/lat") instanceof Number) {
-                                node.setNodeLatitude(((Number) nodeMap.get("node/lat")).doubleValue());
-                            }
-                            if (nodeMap.get("node/lng") instanceof Number) {
-                                node.setNodeLongitude(((Number) nodeMap.get("node/lng")).doubleValue());
-                            }
-                            if (nodeMap.get("node/distance-meters") instanceof Number) {
-                                node.setNodeDistanceMeters(((Number) nodeMap.get("node/distance-meters")).doubleValue());
-                            }
-                            return node;
-                        })
-                        .toList();
-            } else {
-                throw new IOException("No nodes found or error in response");
-            }
+        if (result.containsKey("nodes")) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> nodesList = (List<Map<String, Object>>) result.get("nodes");
+            return nodesList.stream()
+                    .map(nodeMap -> {
+                        NodeSearchData node = new NodeSearchData();
+                        node.setNodeName((String) nodeMap.get("node/name"));
+                        node.setNodeId((String) nodeMap.get("node/id"));
+                        node.setNodeIso((String) nodeMap.get("node/iso"));
+                        if (nodeMap.get("node/lat") instanceof Number) {
+                            node.setNodeLatitude(((Number) nodeMap.get("node/lat")).doubleValue());
+                        }
+                        if (nodeMap.get("node/lng") instanceof Number) {
+                            node.setNodeLongitude(((Number) nodeMap.get("node/lng")).doubleValue());
+                        }
+                        if (nodeMap.get("node/distance-meters") instanceof Number) {
+                            node.setNodeDistanceMeters(((Number) nodeMap.get("node/distance-meters")).doubleValue());
+                        }
+                        return node;
+                    })
+                    .toList();
+        } else {
+            throw new IOException("No nodes found or error in response");
         }
     }
 
@@ -1,22 +1,78 @@
 package com.tybaenergy.client;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.tybaenergy.client.model.Asset;
+import com.tybaenergy.client.model.BatchResult;
+import com.tybaenergy.client.model.DownloadResult;
+import com.tybaenergy.client.model.FleetReport;
+import com.tybaenergy.client.model.TimeSeriesFrame;
 import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Interface for accessing Tyba's operations data
  */
 public class Operations {
+    private static final Logger logger = LoggerFactory.getLogger(Operations.class);
+
     private final TybaClient client;
     private static final String ROUTE_BASE = "operations";
+    private static final String SCHEMA_KEY = "overrides_schema";
+
+    /**
+     * Receives each asset's performance report as soon as it completes
+     */
+    @FunctionalInterface
+    public interface ReportListener {
+        /**
+         * Called once per asset, in completion order, from the thread collecting the reports
+         */
+        void onReport(String assetName, BatchResult<JsonNode> report);
+    }
+
+    /**
+     * How long value shapes alone are checked after the overrides schema could not be fetched
+     */
+    static final Duration SCHEMA_RETRY = Duration.ofMinutes(5);
+
+    private final RefreshingCache<String, OverrideValidator> overrideValidator;
+    private final RefreshingCache.Loader<String, OverrideValidator> schemaLoader;
+    private final AtomicLong schemaRetryAtNanos;
+    private volatile boolean validateOverrides = true;
 
     public Operations(TybaClient client) {
+        this(client, null);
+    }
+
+    /**
+     * Operations of a client view, sharing the overrides schema cache and its retry backoff with the
+     * client it derives from. A schema the view has to fetch is fetched through the view.
+     */
+    Operations(TybaClient client, Operations shared) {
         this.client = client;
+        this.schemaLoader = key -> OverrideValidator.compile(getOverridesSchema());
+        this.overrideValidator = shared != null ? shared.overrideValidator
+                : new RefreshingCache<>(schemaLoader, Duration.ofHours(1), 0.8, 1, client.executor(), System::nanoTime);
+        this.schemaRetryAtNanos = shared != null ? shared.schemaRetryAtNanos : new AtomicLong(System.nanoTime());
     }
 
     /**
@@ -52,22 +108,102 @@ public class Operations {
      * @throws IllegalArgumentException if neither assetName nor displayName is provided
      */
     public String getPerformanceReport(LocalDate startDate, LocalDate endDate, String assetName, String displayName) throws IOException {
-        if (assetName == null && displayName == null) {
-            throw new IllegalArgumentException("Must provide either 'assetName' or 'displayName'.");
-        }
+        Map<String, Object> params = assetParams(startDate, endDate, assetName, displayName);
+        Response response = get("internal_api/performance_report", params);
+        return client.parseResponseString(response);
+    }
 
-        Map<String, Object> params = TybaClient.params();
-        params.put("start_date", startDate.toString());
-        params.put("end_date", endDate.toString());
+    /**
+     * Write the performance report for an asset to a file as it is received, without holding it in memory
+     *
+     * @see #getPerformanceReport(LocalDate, LocalDate, String, String)
+     * @param target file to write; it is replaced only once the whole report is received
+     * @param decompress whether to gunzip a report the server sends as gzip data
+     * @return the number of bytes written and their SHA-256
+     * @throws IOException if the request fails or the file cannot be written
+     */
+    public DownloadResult getPerformanceReport(LocalDate startDate, LocalDate endDate, String assetName, String displayName,
+                                               Path target, boolean decompress) throws IOException {
+        Response response = get("internal_api/performance_report", assetParams(startDate, endDate, assetName, displayName));
+        return client.writeResponse(response, target, decompress);
+    }
 
-        if (assetName != null) {
-            params.put("asset_name", assetName);
-        } else {
-            params.put("asset_display_name", displayName);
-        }
+    /**
+     * Write the performance report for an asset to a channel as it is received. The channel is not closed.
+     *
+     * @see #getPerformanceReport(LocalDate, LocalDate, String, String, Path, boolean)
+     */
+    public DownloadResult getPerformanceReport(LocalDate startDate, LocalDate endDate, String assetName, String displayName,
+                                               WritableByteChannel target, boolean decompress) throws IOException {
+        Response response = get("internal_api/performance_report", assetParams(startDate, endDate, assetName, displayName));
+        return client.writeResponse(response, target, decompress);
+    }
 
-        Response response = get("internal_api/performance_report", params);
-        return client.parseResponseString(response);
+    /**
+     * Get performance report for an asset as parsed JSON
+     *
+     * @see #getPerformanceReport(LocalDate, LocalDate, String, String)
+     * @return JsonNode containing the performance report
+     * @throws IOException if the request fails
+     */
+    public JsonNode getPerformanceReportJson(LocalDate startDate, LocalDate endDate, String assetName,
+                                             String displayName) throws IOException {
+        Response response = get("internal_api/performance_report",
+                assetParams(startDate, endDate, assetName, displayName));
+        return client.parseResponse(response, JsonNode.class);
+    }
+
+    /**
+     * Get the performance reports of many assets concurrently on the client's executor, so at most
+     * {@link TybaClient#setMaxConcurrentRequests} run at once. Duplicate names are fetched once. A failing
+     * asset is reported in its result and does not affect the others.
+     *
+     * @param assetNames the assets to report on
+     * @param startDate start date for the reports
+     * @param endDate end date for the reports
+     * @param listener optional listener receiving each report as it completes, or null
+     * @return the reports in the order the assets were first given, with fleet totals and rankings
+     * @throws IOException if the calling thread is interrupted while waiting
+     */
+    public FleetReport getFleetPerformanceReport(Collection<String> assetNames, LocalDate startDate, LocalDate endDate,
+                                                 ReportListener listener) throws IOException {
+        CompletionService<JsonNode> completions = new ExecutorCompletionService<>(client.executor());
+        Map<Future<JsonNode>, String> pending = new LinkedHashMap<>();
+        Map<String, BatchResult<JsonNode>> results = new LinkedHashMap<>();
+        try {
+            for (String assetName : assetNames) {
+                if (!results.containsKey(assetName)) {
+                    results.put(assetName, null);
+                    pending.put(completions.submit(() -> getPerformanceReportJson(startDate, endDate, assetName, null)),
+                            assetName);
+                }
+            }
+            while (!pending.isEmpty()) {
+                Future<JsonNode> done;
+                try {
+                    done = completions.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for reports");
+                }
+                String assetName = pending.remove(done);
+                BatchResult<JsonNode> result;
+                try {
+                    result = BatchResult.success(Parallel.await(done));
+                } catch (IOException | RuntimeException e) {
+                    result = BatchResult.failure(e);
+                }
+                results.put(assetName, result);
+                if (listener != null) {
+                    listener.onReport(assetName, result);
+                }
+            }
+            return new FleetReport(results);
+        } finally {
+            if (!pending.isEmpty()) {
+                Parallel.cancelAll(new ArrayList<>(pending.keySet()));
+            }
+        }
     }
 
     /**
@@ -82,24 +218,37 @@ public class Operations {
      * @throws IllegalArgumentException if neither assetName nor displayName is provided
      */
     public String getDaSnapshot(LocalDate startDate, LocalDate endDate, String assetName, String displayName) throws IOException {
-        if (assetName == null && displayName == null) {
-            throw new IllegalArgumentException("Must provide either 'assetName' or 'displayName'.");
-        }
-
-        Map<String, Object> params = TybaClient.params();
-        params.put("start_date", startDate.toString());
-        params.put("end_date", endDate.toString());
-
-        if (assetName != null) {
-            params.put("asset_name", assetName);
-        } else {
-            params.put("asset_display_name", displayName);
-        }
-
+        Map<String, Object> params = assetParams(startDate, endDate, assetName, displayName);
         Response response = get("internal_api/da_snapshot", params);
         return client.parseResponseString(response);
     }
 
+    /**
+     * Write the DA snapshot for an asset to a file as it is received, without holding it in memory
+     *
+     * @see #getDaSnapshot(LocalDate, LocalDate, String, String)
+     * @param target file to write; it is replaced only once the whole snapshot is received
+     * @param decompress whether to gunzip a snapshot the server sends as gzip data
+     * @return the number of bytes written and their SHA-256
+     * @throws IOException if the request fails or the file cannot be written
+     */
+    public DownloadResult getDaSnapshot(LocalDate startDate, LocalDate endDate, String assetName, String displayName,
+                                        Path target, boolean decompress) throws IOException {
+        Response response = get("internal_api/da_snapshot", assetParams(startDate, endDate, assetName, displayName));
+        return client.writeResponse(response, target, decompress);
+    }
+
+    /**
+     * Write the DA snapshot for an asset to a channel as it is received. The channel is not closed.
+     *
+     * @see #getDaSnapshot(LocalDate, LocalDate, String, String, Path, boolean)
+     */
+    public DownloadResult getDaSnapshot(LocalDate startDate, LocalDate endDate, String assetName, String displayName,
+                                        WritableByteChannel target, boolean decompress) throws IOException {
+        Response response = get("internal_api/da_snapshot", assetParams(startDate, endDate, assetName, displayName));
+        return client.writeResponse(response, target, decompress);
+    }
+
     /**
      * Get telemetry data for an asset
      *
@@ -116,6 +265,47 @@ public class Operations {
      */
     public String getTelemetry(LocalDate startDate, LocalDate endDate, String assetName, int intervalMins, 
                               List<String> metrics, boolean solarAssetTelemetry, String displayName) throws IOException {
+        Map<String, Object> params = telemetryParams(startDate, endDate, assetName, intervalMins, metrics,
+                solarAssetTelemetry, displayName);
+        Response response = get("internal_api/telemetry", params);
+        return client.parseResponseString(response);
+    }
+
+    /**
+     * Write telemetry data for an asset to a file as it is received, without holding it in memory
+     *
+     * @see #getTelemetry(LocalDate, LocalDate, String, int, List, boolean, String)
+     * @param target file to write; it is replaced only once all the data is received
+     * @param decompress whether to gunzip data the server sends as gzip
+     * @return the number of bytes written and their SHA-256
+     * @throws IOException if the request fails or the file cannot be written
+     */
+    public DownloadResult getTelemetry(LocalDate startDate, LocalDate endDate, String assetName, int intervalMins,
+                                       List<String> metrics, boolean solarAssetTelemetry, String displayName,
+                                       Path target, boolean decompress) throws IOException {
+        Response response = get("internal_api/telemetry", telemetryParams(startDate, endDate, assetName,
+                intervalMins, metrics, solarAssetTelemetry, displayName));
+        return client.writeResponse(response, target, decompress);
+    }
+
+    /**
+     * Write telemetry data for an asset to a channel as it is received. The channel is not closed.
+     *
+     * @see #getTelemetry(LocalDate, LocalDate, String, int, List, boolean, String, Path, boolean)
+     */
+    public DownloadResult getTelemetry(LocalDate startDate, LocalDate endDate, String assetName, int intervalMins,
+                                       List<String> metrics, boolean solarAssetTelemetry, String displayName,
+                                       WritableByteChannel target, boolean decompress) throws IOException {
+        Response response = get("internal_api/telemetry", telemetryParams(startDate, endDate, assetName,
+                intervalMins, metrics, solarAssetTelemetry, displayName));
+        return client.writeResponse(response, target, decompress);
+    }
+
+    /**
+     * Build the date range and asset parameters shared by the per-asset report endpoints
+     */
+    private static Map<String, Object> assetParams(LocalDate startDate, LocalDate endDate, String assetName,
+                                                   String displayName) {
         if (assetName == null && displayName == null) {
             throw new IllegalArgumentException("Must provide either 'assetName' or 'displayName'.");
         }
@@ -123,18 +313,74 @@ public class Operations {
         Map<String, Object> params = TybaClient.params();
         params.put("start_date", startDate.toString());
         params.put("end_date", endDate.toString());
-        params.put("interval_mins", intervalMins);
-        params.put("metrics", metrics);
-        params.put("solar_asset_telemetry", solarAssetTelemetry);
 
         if (assetName != null) {
             params.put("asset_name", assetName);
         } else {
             params.put("asset_display_name", displayName);
         }
+        return params;
+    }
 
+    /**
+     * Build the parameters for the telemetry endpoint
+     */
+    private static Map<String, Object> telemetryParams(LocalDate startDate, LocalDate endDate, String assetName,
+                                                       int intervalMins, List<String> metrics,
+                                                       boolean solarAssetTelemetry, String displayName) {
+        Map<String, Object> params = assetParams(startDate, endDate, assetName, displayName);
+        params.put("interval_mins", intervalMins);
+        params.put("metrics", metrics);
+        params.put("solar_asset_telemetry", solarAssetTelemetry);
+        return params;
+    }
+
+    /**
+     * Get telemetry data for an asset as a typed, columnar frame with one {@code double[]} column per
+     * metric
+     *
+     * @see #getTelemetry(LocalDate, LocalDate, String, int, List, boolean, String)
+     * @return TimeSeriesFrame containing the telemetry data
+     * @throws IOException if the request fails
+     */
+    public TimeSeriesFrame getTelemetryFrame(LocalDate startDate, LocalDate endDate, String assetName, int intervalMins,
+                                             List<String> metrics, boolean solarAssetTelemetry,
+                                             String displayName) throws IOException {
+        Map<String, Object> params = telemetryParams(startDate, endDate, assetName, intervalMins, metrics,
+                solarAssetTelemetry, displayName);
         Response response = get("internal_api/telemetry", params);
-        return client.parseResponseString(response);
+        return client.parseResponse(response, TimeSeriesFrame.class);
+    }
+
+    /**
+     * Get telemetry data for a long date range. The range is split into chunks of whole days that are
+     * fetched concurrently on the client's executor, parsed into frames and stitched in date order.
+     *
+     * @param startDate start date for the telemetry
+     * @param endDate end date for the telemetry, included in the last chunk
+     * @param chunk number of days per request, e.g. {@code Period.ofDays(1)} or {@code Period.ofWeeks(1)}
+     * @see #getTelemetry(LocalDate, LocalDate, String, int, List, boolean, String)
+     * @return TimeSeriesFrame containing the telemetry data
+     * @throws IOException if any chunk fails
+     */
+    public TimeSeriesFrame getTelemetryFrame(LocalDate startDate, LocalDate endDate, String assetName, int intervalMins,
+                                             List<String> metrics, boolean solarAssetTelemetry, String displayName,
+                                             Period chunk) throws IOException {
+        if (chunk.getDays() < 1 || chunk.getMonths() != 0 || chunk.getYears() != 0) {
+            throw new IllegalArgumentException("chunk must be a positive number of days");
+        }
+        if (assetName == null && displayName == null) {
+            throw new IllegalArgumentException("Must provide either 'assetName' or 'displayName'.");
+        }
+        Map<LocalDate, Callable<TimeSeriesFrame>> tasks = new LinkedHashMap<>();
+        for (LocalDate start = startDate; !start.isAfter(endDate); start = start.plus(chunk)) {
+            LocalDate chunkStart = start;
+            LocalDate last = start.plus(chunk).minusDays(1);
+            LocalDate chunkEnd = last.isBefore(endDate) ? last : endDate;
+            tasks.put(chunkStart, () -> getTelemetryFrame(chunkStart, chunkEnd, assetName, intervalMins, metrics,
+                    solarAssetTelemetry, displayName));
+        }
+        return TimeSeriesJoin.concat(List.copyOf(Parallel.invokeAll(client.executor(), tasks).values()));
     }
 
     /**
@@ -148,6 +394,24 @@ public class Operations {
      * @throws IllegalArgumentException if neither assetName nor displayName is provided
      */
     public String getAssetDetails(String assetName, LocalDate date, String displayName) throws IOException {
+        Map<String, Object> params = assetDetailsParams(assetName, date, displayName);
+        Response response = get("internal_api/asset_details", params);
+        return client.parseResponseString(response);
+    }
+
+    /**
+     * Get asset details as parsed JSON
+     *
+     * @see #getAssetDetails(String, LocalDate, String)
+     * @return JsonNode containing the asset details
+     * @throws IOException if the request fails
+     */
+    public JsonNode getAssetDetailsJson(String assetName, LocalDate date, String displayName) throws IOException {
+        Response response = get("internal_api/asset_details", assetDetailsParams(assetName, date, displayName));
+        return client.parseResponse(response, JsonNode.class);
+    }
+
+    private static Map<String, Object> assetDetailsParams(String assetName, LocalDate date, String displayName) {
         if (assetName == null && displayName == null) {
             throw new IllegalArgumentException("Must provide either 'assetName' or 'displayName'.");
         }
@@ -163,9 +427,7 @@ public class Operations {
         if (date != null) {
             params.put("date", date.toString());
         }
-
-        Response response = get("internal_api/asset_details", params);
-        return client.parseResponseString(response);
+        return params;
     }
 
     /**
@@ -186,6 +448,33 @@ public class Operations {
         return client.parseResponseString(response);
     }
 
+    /**
+     * Get list of assets as typed objects. Accepts either a JSON array of assets or an object holding
+     * them in an {@code assets} array.
+     *
+     * @see #getAssets(String, boolean)
+     * @return List of Asset objects
+     * @throws IOException if the request fails
+     */
+    public List<Asset> getAssetList(String orgId, boolean includeDisabled) throws IOException {
+        Map<String, Object> params = TybaClient.params("include_disabled", includeDisabled);
+        if (orgId != null) {
+            params.put("org_id", orgId);
+        }
+
+        Response response = get("internal_api/assets", params);
+        JsonNode root = client.parseResponse(response, JsonNode.class);
+        JsonNode items = root.isObject() && root.has("assets") ? root.get("assets") : root;
+        if (!items.isArray()) {
+            throw new IOException("Unexpected assets response: expected an array");
+        }
+        List<Asset> assets = new ArrayList<>(items.size());
+        for (JsonNode item : items) {
+            assets.add(client.objectMapper.treeToValue(item, Asset.class));
+        }
+        return assets;
+    }
+
     /**
      * Set asset overrides
      *
@@ -195,11 +484,82 @@ public class Operations {
      * @param values the values to set
      * @param service optional service name
      * @param date optional date (required for some aggregation types)
-     * @return JsonNode containing the result
+     * @return JsonNode containing the result, or the {@code status_code}, {@code reason} and the start of the
+     *         error body as {@code message} if the server rejected the overrides
      * @throws IOException if the request fails
+     * @throws IllegalArgumentException if the override does not match the aggregation or the overrides schema
      */
     public JsonNode setAssetOverrides(List<String> assetNames, String field, String aggregation, Object values, 
                                      String service, LocalDate date) throws IOException {
+        getOverrideValidator().validate(field, aggregation, values, service, date);
+        Map<String, Object> assumption = assumption(field, aggregation, values, service, date);
+        Response response = post("internal_api/assets/override/", overrideRequest(assetNames, assumption));
+        
+        if (!response.isSuccessful()) {
+            TybaApiException error = TybaApiException.fromResponse(response);
+            Map<String, Object> errorResponse = TybaClient.params();
+            errorResponse.put("status_code", error.getStatusCode());
+            errorResponse.put("reason", response.message());
+            errorResponse.put("message", error.getBodyExcerpt());
+            return client.objectMapper.valueToTree(errorResponse);
+        } else {
+            return client.parseResponse(response, JsonNode.class);
+        }
+    }
+
+    /**
+     * Validator for overrides, compiled from the overrides schema, which is cached for an hour and
+     * refreshed in the background. If validation is disabled, or the schema cannot be fetched, only the
+     * shape of the values is checked. After a failed fetch, the schema is not fetched again for five
+     * minutes.
+     *
+     * @throws InterruptedIOException if the schema fetch is cancelled or interrupted
+     */
+    public OverrideValidator getOverrideValidator() throws InterruptedIOException {
+        if (!validateOverrides) {
+            return OverrideValidator.shapeOnly();
+        }
+        if (System.nanoTime() - schemaRetryAtNanos.get() < 0) {
+            return OverrideValidator.shapeOnly();
+        }
+        try {
+            return overrideValidator.get(SCHEMA_KEY, schemaLoader);
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException e) {
+            schemaRetryAtNanos.set(System.nanoTime() + SCHEMA_RETRY.toNanos());
+            logger.warn("Overrides schema unavailable, checking value shapes only for {}: {}", SCHEMA_RETRY,
+                    e.getMessage());
+            return OverrideValidator.shapeOnly();
+        }
+    }
+
+    /**
+     * Whether overrides are checked against the overrides schema before they are sent
+     *
+     * @param validateOverrides false to check only the shape of the values (default true)
+     */
+    public void setValidateOverrides(boolean validateOverrides) {
+        this.validateOverrides = validateOverrides;
+    }
+
+    /**
+     * Post one override assumption for a list of assets, failing if the server rejects it
+     *
+     * @throws IOException if the request fails or is rejected
+     */
+    JsonNode postOverrides(List<String> assetNames, Map<String, Object> assumption) throws IOException {
+        Response response = post("internal_api/assets/override/", overrideRequest(assetNames, assumption));
+        return client.parseResponse(response, JsonNode.class);
+    }
+
+    /**
+     * Build the assumption payload of an override
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> assumption(String field, String aggregation, Object values, String service,
+                                          LocalDate date) {
+        OverrideValidator.checkShape(aggregation, values, date);
         Map<String, Object> assumption = TybaClient.params();
         assumption.put("field", field);
         
@@ -229,22 +589,14 @@ public class Operations {
         if (service != null) {
             assumption.put("service", service);
         }
-        
+        return assumption;
+    }
+
+    private static Map<String, Object> overrideRequest(List<String> assetNames, Map<String, Object> assumption) {
         Map<String, Object> requestData = TybaClient.params();
         requestData.put("asset_names", assetNames);
         requestData.put("assumption", assumption);
-
-        Response response = post("internal_api/assets/override/", requestData);
-        
-        if (!response.isSuccessful()) {
-            Map<String, Object> errorResponse = TybaClient.params();
-            errorResponse.put("status_code", response.code());
-            errorResponse.put("reason", response.message());
-            errorResponse.put("message", client.parseResponseString(response));
-            return client.objectMapper.valueToTree(errorResponse);
-        } else {
-            return client.parseResponse(response, JsonNode.class);
-        }
+        return requestData;
     }
 
     /**
@@ -271,6 +623,11 @@ public class Operations {
         return getTelemetry(startDate, endDate, assetName, intervalMins, metrics, false, null);
     }
 
+    public TimeSeriesFrame getTelemetryFrame(LocalDate startDate, LocalDate endDate, String assetName, int intervalMins,
+                                             List<String> metrics, Period chunk) throws IOException {
+        return getTelemetryFrame(startDate, endDate, assetName, intervalMins, metrics, false, null, chunk);
+    }
+
     public String getAssetDetails(String assetName) throws IOException {
         return getAssetDetails(assetName, null, null);
     }
@@ -0,0 +1,265 @@
+package com.tybaenergy.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.tybaenergy.client.model.AssetOverride;
+
+import java.lang.reflect.Array;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Local validation of asset overrides, so that payloads the server would reject fail before a request
+ * is sent.
+ *
+ * The shape of the values is always checked against the aggregation. Rules from the overrides schema
+ * are compiled once into per-field lookups: the known fields, and for each field the allowed
+ * aggregations and services and the value bounds, where the schema states them. Fields are only
+ * enforced when the schema has the {@code fields} layout; any other layout yields no field rules, so it
+ * never rejects a valid override.
+ */
+public final class OverrideValidator {
+    /**
+     * Aggregation types accepted by {@link Operations#setAssetOverrides}
+     */
+    public static final List<String> AGGREGATIONS = List.of("global", "single_day", "single_day_hourly", "12x24");
+
+    private final Map<String, FieldRule> fields;
+
+    private OverrideValidator(Map<String, FieldRule> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Validator that only checks value shapes
+     */
+    public static OverrideValidator shapeOnly() {
+        return new OverrideValidator(Map.of());
+    }
+
+    /**
+     * Compile the response of {@link Operations#getOverridesSchema()}. Field rules are read only from a
+     * top-level {@code fields} object of field definitions, or array of definitions named by {@code field}
+     * or {@code name}, in which at least one definition states a rule. Any other schema compiles to
+     * {@link #shapeOnly()}.
+     */
+    public static OverrideValidator compile(JsonNode schema) {
+        JsonNode fieldsNode = schema.get("fields");
+        if (fieldsNode == null) {
+            return shapeOnly();
+        }
+
+        Map<String, FieldRule> fields = new HashMap<>();
+        if (fieldsNode.isArray()) {
+            for (JsonNode entry : fieldsNode) {
+                JsonNode name = entry.has("field") ? entry.get("field") : entry.get("name");
+                if (name == null || !name.isTextual()) {
+                    // Not a list of field definitions
+                    return shapeOnly();
+                }
+                fields.put(name.asText(), FieldRule.of(entry));
+            }
+        } else if (fieldsNode.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> entries = fieldsNode.fields();
+            while (entries.hasNext()) {
+                Map.Entry<String, JsonNode> entry = entries.next();
+                if (!entry.getValue().isObject()) {
+                    // Not a map of field definitions
+                    return shapeOnly();
+                }
+                fields.put(entry.getKey(), FieldRule.of(entry.getValue()));
+            }
+        }
+        if (fields.values().stream().noneMatch(FieldRule::isStated)) {
+            // Field names alone do not identify the layout
+            return shapeOnly();
+        }
+        return new OverrideValidator(fields);
+    }
+
+    /**
+     * Fields known from the schema, empty if the schema stated none
+     */
+    public Set<String> getFields() {
+        return fields.keySet();
+    }
+
+    public void validate(AssetOverride override) {
+        validate(override.getField(), override.getAggregation(), override.getValues(), override.getService(),
+                override.getDate());
+    }
+
+    /**
+     * @throws IllegalArgumentException describing the first problem found
+     */
+    public void validate(String field, String aggregation, Object values, String service, LocalDate date) {
+        checkShape(aggregation, values, date);
+        if (fields.isEmpty()) {
+            return;
+        }
+        FieldRule rule = fields.get(field);
+        if (rule == null) {
+            throw new IllegalArgumentException("Unknown override field '" + field + "'");
+        }
+        if (rule.aggregations != null && !rule.aggregations.contains(aggregation)) {
+            throw new IllegalArgumentException("Field '" + field + "' does not allow aggregation '" + aggregation
+                    + "', expected one of " + rule.aggregations);
+        }
+        if (rule.services != null && service != null && !rule.services.contains(service)) {
+            throw new IllegalArgumentException("Field '" + field + "' does not allow service '" + service
+                    + "', expected one of " + rule.services);
+        }
+        if (rule.minimum != null || rule.maximum != null) {
+            checkBounds(field, values, rule);
+        }
+    }
+
+    /**
+     * Check that the values have the shape the aggregation requires
+     *
+     * @throws IllegalArgumentException if the aggregation is unknown or the values do not fit it
+     */
+    static void checkShape(String aggregation, Object values, LocalDate date) {
+        if (aggregation == null || !AGGREGATIONS.contains(aggregation)) {
+            throw new IllegalArgumentException("Unknown aggregation '" + aggregation + "', expected one of "
+                    + AGGREGATIONS);
+        }
+        switch (aggregation) {
+            case "global":
+                if (values == null || isSequence(values) || values instanceof Map) {
+                    throw new IllegalArgumentException("Aggregation 'global' requires a single value");
+                }
+                break;
+            case "single_day":
+                requireDate(aggregation, date);
+                if (values == null) {
+                    throw new IllegalArgumentException("Aggregation 'single_day' requires values");
+                }
+                break;
+            case "single_day_hourly":
+                requireDate(aggregation, date);
+                int hours = isSequence(values) ? length(values) : -1;
+                // 23 and 25 hours on days with a daylight saving change
+                if (hours < 23 || hours > 25) {
+                    throw new IllegalArgumentException("Aggregation 'single_day_hourly' requires 24 hourly values, got "
+                            + (hours < 0 ? "a single value" : hours));
+                }
+                break;
+            case "12x24":
+                if (!(values instanceof Map)) {
+                    throw new IllegalArgumentException("Aggregation '12x24' requires a map of fields to 12x24 arrays");
+                }
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) values).entrySet()) {
+                    if (isSequence(entry.getValue())) {
+                        checkMatrix(String.valueOf(entry.getKey()), entry.getValue());
+                    }
+                }
+                break;
+        }
+    }
+
+    private static void checkMatrix(String name, Object matrix) {
+        int months = length(matrix);
+        if (months != 12) {
+            throw new IllegalArgumentException("12x24 '" + name + "' must have 12 monthly rows, got " + months);
+        }
+        for (int m = 0; m < months; m++) {
+            Object row = element(matrix, m);
+            int hours = isSequence(row) ? length(row) : -1;
+            if (hours != 24) {
+                throw new IllegalArgumentException("12x24 '" + name + "' row " + m + " must have 24 hourly values, got "
+                        + (hours < 0 ? "a single value" : hours));
+            }
+        }
+    }
+
+    private static void requireDate(String aggregation, LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Aggregation '" + aggregation + "' requires a date");
+        }
+    }
+
+    private static void checkBounds(String field, Object values, FieldRule rule) {
+        if (values instanceof Number) {
+            double value = ((Number) values).doubleValue();
+            if ((rule.minimum != null && value < rule.minimum) || (rule.maximum != null && value > rule.maximum)) {
+                throw new IllegalArgumentException("Value " + values + " of field '" + field + "' is outside ["
+                        + rule.minimum + ", " + rule.maximum + "]");
+            }
+        } else if (values instanceof Map) {
+            for (Object value : ((Map<?, ?>) values).values()) {
+                checkBounds(field, value, rule);
+            }
+        } else if (isSequence(values)) {
+            for (int i = 0; i < length(values); i++) {
+                checkBounds(field, element(values, i), rule);
+            }
+        }
+    }
+
+    private static boolean isSequence(Object values) {
+        return values instanceof Collection || (values != null && values.getClass().isArray());
+    }
+
+    private static int length(Object sequence) {
+        return sequence instanceof Collection ? ((Collection<?>) sequence).size() : Array.getLength(sequence);
+    }
+
+    private static Object element(Object sequence, int index) {
+        if (sequence instanceof List) {
+            return ((List<?>) sequence).get(index);
+        } else if (sequence instanceof Collection) {
+            return ((Collection<?>) sequence).stream().skip(index).findFirst().orElse(null);
+        }
+        return Array.get(sequence, index);
+    }
+
+    /**
+     * What the schema states about one field; null members are unconstrained
+     */
+    private static final class FieldRule {
+        private final Set<String> aggregations;
+        private final Set<String> services;
+        private final Double minimum;
+        private final Double maximum;
+
+        private FieldRule(Set<String> aggregations, Set<String> services, Double minimum, Double maximum) {
+            this.aggregations = aggregations;
+            this.services = services;
+            this.minimum = minimum;
+            this.maximum = maximum;
+        }
+
+        boolean isStated() {
+            return aggregations != null || services != null || minimum != null || maximum != null;
+        }
+
+        static FieldRule of(JsonNode node) {
+            return new FieldRule(strings(node, "aggregations", "allowed_aggregations"),
+                    strings(node, "services", "allowed_services"),
+                    number(node, "minimum"), number(node, "maximum"));
+        }
+
+        private static Set<String> strings(JsonNode node, String... names) {
+            for (String name : names) {
+                JsonNode values = node.get(name);
+                if (values != null && values.isArray()) {
+                    Set<String> result = new HashSet<>();
+                    values.forEach(value -> result.add(value.asText()));
+                    return result;
+                }
+            }
+            return null;
+        }
+
+        private static Double number(JsonNode node, String name) {
+            JsonNode value = node.get(name);
+            return value != null && value.isNumber() ? value.asDouble() : null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.tybaenergy.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Helpers for running independent API calls on the client's executor.
+ *
+ * These must be called from outside the executor: a task that waits on other tasks submitted to the
+ * same bounded pool can deadlock once the pool is full.
+ */
+final class Parallel {
+    private Parallel() {}
+
+    /**
+     * Run all tasks and collect their results in the iteration order of the task map. If any task
+     * fails, the remaining tasks are cancelled and the first failure is rethrown.
+     */
+    static <K, V> Map<K, V> invokeAll(ExecutorService executor, Map<K, ? extends Callable<V>> tasks) throws IOException {
+        Map<K, Future<V>> futures = new LinkedHashMap<>();
+        for (Map.Entry<K, ? extends Callable<V>> entry : tasks.entrySet()) {
+            futures.put(entry.getKey(), executor.submit(entry.getValue()));
+        }
+
+        Map<K, V> results = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<K, Future<V>> entry : futures.entrySet()) {
+                results.put(entry.getKey(), await(entry.getValue()));
+            }
+            return results;
+        } finally {
+            if (results.size() < futures.size()) {
+                cancelAll(new ArrayList<>(futures.values()));
+            }
+        }
+    }
+
+    /**
+     * Wait for a task and translate its failure into the exception the caller would have seen had
+     * it run the task itself
+     */
+    static <V> V await(Future<V> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new InterruptedIOException("Interrupted while waiting for request");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    static void cancelAll(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.ForecastKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prefetches forecasts and DA snapshots ahead of daily market deadlines, so that the requests made right
+ * after a deadline are answered from the {@link ForecastCache} and {@link DaSnapshotCache}.
+ *
+ * Each {@link MarketDeadline} is a local time in its ISO's time zone. A configured lead time before every
+ * occurrence, the deadline's requests for the following operating day are started, each delayed by a
+ * random jitter so that a large set of objects and assets does not hit the API at the same instant.
+ * Forecasts are warmed for the whole operating day (midnight to midnight in the ISO's zone), and DA
+ * snapshots for the operating day's date. The requests also warm the client's connection pool.
+ *
+ * Prefetched entries are kept until the deadline plus the deadline's window, regardless of the caches'
+ * TTLs, so the requests made right after the deadline hit them even when the lead time is longer than
+ * the TTL.
+ */
+public class PrefetchScheduler implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PrefetchScheduler.class);
+
+    private final TybaClient client;
+    private final ForecastCache forecastCache;
+    private final DaSnapshotCache daSnapshotCache;
+    private final Clock clock;
+    private final Random random;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param client the client whose executor runs the prefetch requests
+     * @param forecastCache cache to warm with forecasts
+     * @param daSnapshotCache cache to warm with DA snapshots
+     */
+    public PrefetchScheduler(TybaClient client, ForecastCache forecastCache, DaSnapshotCache daSnapshotCache) {
+        this(client, forecastCache, daSnapshotCache, Clock.systemUTC(), new Random());
+    }
+
+    PrefetchScheduler(TybaClient client, ForecastCache forecastCache, DaSnapshotCache daSnapshotCache,
+                      Clock clock, Random random) {
+        this.client = client;
+        this.forecastCache = forecastCache;
+        this.daSnapshotCache = daSnapshotCache;
+        this.clock = clock;
+        this.random = random;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tyba-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Prefetch ahead of every future occurrence of a deadline, starting with the next one
+     */
+    public void schedule(MarketDeadline deadline) {
+        scheduleOccurrence(deadline, nextDeadline(deadline, ZonedDateTime.now(clock)));
+    }
+
+    /**
+     * Prefetch everything for the operating day of the next occurrence of a deadline and wait for it.
+     * Failures are logged rather than thrown, as for scheduled prefetches.
+     *
+     * @return number of requests that succeeded
+     * @throws IOException if interrupted while waiting
+     */
+    public int prefetchNow(MarketDeadline deadline) throws IOException {
+        ZonedDateTime occurrence = nextDeadline(deadline, ZonedDateTime.now(clock));
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Callable<Void> task : tasks(deadline, occurrence)) {
+            futures.add(client.executor().submit(task));
+        }
+        int succeeded = 0;
+        for (Future<Void> future : futures) {
+            try {
+                Parallel.await(future);
+                succeeded++;
+            } catch (IOException | RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    Parallel.cancelAll(futures);
+                    throw e;
+                }
+                logger.warn("Prefetch for {} failed: {}", deadline.getName(), e.getMessage());
+            }
+        }
+        return succeeded;
+    }
+
+    /**
+     * Stop scheduling prefetches. Requests already handed to the client's executor still complete.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * The first occurrence of the deadline after {@code now}, in the deadline's zone
+     */
+    static ZonedDateTime nextDeadline(MarketDeadline deadline, ZonedDateTime now) {
+        ZonedDateTime local = now.withZoneSameInstant(deadline.getZone());
+        ZonedDateTime next = local.toLocalDate().atTime(deadline.getTime()).atZone(deadline.getZone());
+        return next.isAfter(local) ? next : next.toLocalDate().plusDays(1).atTime(deadline.getTime())
+                .atZone(deadline.getZone());
+    }
+
+    private void scheduleOccurrence(MarketDeadline deadline, ZonedDateTime occurrence) {
+        long startMillis = occurrence.minus(deadline.getLeadTime()).toInstant().toEpochMilli();
+        long delay = Math.max(0, startMillis - clock.millis());
+        try {
+            scheduler.schedule(() -> fire(deadline, occurrence), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Prefetch scheduler closed, not scheduling {}", deadline.getName());
+        }
+    }
+
+    /**
+     * Stagger this occurrence's requests over the jitter window and schedule the next occurrence
+     */
+    private void fire(MarketDeadline deadline, ZonedDateTime occurrence) {
+        long jitterMillis = deadline.getJitter().toMillis();
+        for (Callable<Void> task : tasks(deadline, occurrence)) {
+            long delay = jitterMillis > 0 ? (long) (random.nextDouble() * jitterMillis) : 0;
+            scheduler.schedule(() -> {
+                try {
+                    client.executor().execute(() -> {
+                        try {
+                            task.call();
+                        } catch (Exception e) {
+                            logger.warn("Prefetch for {} failed: {}", deadline.getName(), e.getMessage());
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    logger.debug("Client closed, skipping prefetch for {}", deadline.getName());
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+        scheduleOccurrence(deadline, nextDeadline(deadline, occurrence));
+    }
+
+    private List<Callable<Void>> tasks(MarketDeadline deadline, ZonedDateTime occurrence) {
+        LocalDate operatingDay = occurrence.toLocalDate().plusDays(1);
+        ZonedDateTime start = operatingDay.atStartOfDay(deadline.getZone());
+        ZonedDateTime end = operatingDay.plusDays(1).atStartOfDay(deadline.getZone());
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (ForecastKey key : deadline.getForecasts()) {
+            tasks.add(() -> {
+                forecastCache.prefetchMostRecent(key.getObjectName(), key.getProduct(), start, end,
+                        key.getForecastType(), null, null, null, keepFor(deadline, occurrence));
+                return null;
+            });
+        }
+        for (String assetName : deadline.getDaSnapshotAssets()) {
+            tasks.add(() -> {
+                daSnapshotCache.refresh(operatingDay, operatingDay, assetName, keepFor(deadline, occurrence));
+                return null;
+            });
+        }
+        return tasks;
+    }
+
+    /**
+     * Time from now until the deadline's window after {@code occurrence} has passed
+     */
+    private Duration keepFor(MarketDeadline deadline, ZonedDateTime occurrence) {
+        Duration untilDeadline = Duration.between(clock.instant(), occurrence.toInstant());
+        return (untilDeadline.isNegative() ? Duration.ZERO : untilDeadline).plus(deadline.getWindow());
+    }
+
+    /**
+     * A daily market deadline and what to prefetch before it
+     */
+    public static final class MarketDeadline {
+        private final String name;
+        private final LocalTime time;
+        private final ZoneId zone;
+        private final Duration leadTime;
+        private final Duration jitter;
+        private final Duration window;
+        private final List<ForecastKey> forecasts;
+        private final List<String> daSnapshotAssets;
+
+        private MarketDeadline(Builder builder) {
+            this.name = builder.name;
+            this.time = builder.time;
+            this.zone = builder.zone;
+            this.leadTime = builder.leadTime;
+            this.jitter = builder.jitter;
+            this.window = builder.window;
+            this.forecasts = List.copyOf(builder.forecasts);
+            this.daSnapshotAssets = List.copyOf(builder.daSnapshotAssets);
+        }
+
+        /**
+         * @param name label for logging, e.g. "ERCOT DA"
+         * @param time local time of the deadline
+         * @param zone the ISO's time zone, e.g. America/Chicago for ERCOT
+         */
+        public static Builder builder(String name, LocalTime time, ZoneId zone) {
+            return new Builder(name, time, zone);
+        }
+
+        public String getName() { return name; }
+        public LocalTime getTime() { return time; }
+        public ZoneId getZone() { return zone; }
+        public Duration getLeadTime() { return leadTime; }
+        public Duration getJitter() { return jitter; }
+        public Duration getWindow() { return window; }
+        public List<ForecastKey> getForecasts() { return forecasts; }
+        public List<String> getDaSnapshotAssets() { return daSnapshotAssets; }
+
+        /**
+         * Builder for {@link MarketDeadline}
+         */
+        public static final class Builder {
+            private final String name;
+            private final LocalTime time;
+            private final ZoneId zone;
+            private Duration leadTime = Duration.ofMinutes(15);
+            private Duration jitter = Duration.ofMinutes(5);
+            private Duration window = Duration.ofMinutes(15);
+            private final List<ForecastKey> forecasts = new ArrayList<>();
+            private final List<String> daSnapshotAssets = new ArrayList<>();
+
+            private Builder(String name, LocalTime time, ZoneId zone) {
+                this.name = Objects.requireNonNull(name, "name");
+                this.time = Objects.requireNonNull(time, "time");
+                this.zone = Objects.requireNonNull(zone, "zone");
+            }
+
+            /**
+             * How long before the deadline prefetching starts, 15 minutes by default
+             */
+            public Builder leadTime(Duration leadTime) {
+                if (leadTime.isNegative()) {
+                    throw new IllegalArgumentException("leadTime must not be negative");
+                }
+                this.leadTime = leadTime;
+                return this;
+            }
+
+            /**
+             * Window over which the individual requests are spread, 5 minutes by default. It should be
+             * shorter than the lead time.
+             */
+            public Builder jitter(Duration jitter) {
+                if (jitter.isNegative()) {
+                    throw new IllegalArgumentException("jitter must not be negative");
+                }
+                this.jitter = jitter;
+                return this;
+            }
+
+            /**
+             * How long after the deadline prefetched entries are still served, 15 minutes by default
+             */
+            public Builder window(Duration window) {
+                if (window.isNegative()) {
+                    throw new IllegalArgumentException("window must not be negative");
+                }
+                this.window = window;
+                return this;
+            }
+
+            /**
+             * Most recent forecasts to warm for the operating day
+             */
+            public Builder forecasts(List<ForecastKey> keys) {
+                forecasts.addAll(keys);
+                return this;
+            }
+
+            /**
+             * Assets whose DA snapshot for the operating day is warmed
+             */
+            public Builder daSnapshotAssets(List<String> assetNames) {
+                daSnapshotAssets.addAll(assetNames);
+                return this;
+            }
+
+            public MarketDeadline build() {
+                return new MarketDeadline(this);
+            }
+        }
+    }
+}
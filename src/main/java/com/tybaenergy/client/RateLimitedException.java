@@ -0,0 +1,49 @@
+package com.tybaenergy.client;
+
+import okhttp3.Response;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * The API rejected a request because too many were made (HTTP 429). Always retryable, after
+ * {@link #getRetryAfter()} if the server stated it.
+ */
+public class RateLimitedException extends TybaApiException {
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public RateLimitedException(String message, String bodyExcerpt, Duration retryAfter) {
+        super(message, 429, bodyExcerpt, true, null);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Time to wait before retrying from the {@code Retry-After} header, or null if it was absent
+     */
+    public Duration getRetryAfter() { return retryAfter; }
+
+    /**
+     * Parse {@code Retry-After}, given either as seconds or as an HTTP date
+     */
+    static Duration retryAfter(Response response) {
+        String value = response.header("Retry-After");
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration wait = Duration.between(ZonedDateTime.now(at.getZone()), at);
+                return wait.isNegative() ? Duration.ZERO : wait;
+            } catch (DateTimeParseException unparseable) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.AncillaryRegionData;
+import com.tybaenergy.client.model.AncillaryService;
+import com.tybaenergy.client.model.CatalogSnapshot;
+import com.tybaenergy.client.model.Market;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Locally persisted catalog of Tyba's reference data (ISOs, nodes and ancillary pricing regions).
+ *
+ * The catalog is loaded from a snapshot file at startup and can be refreshed from the API in the
+ * background. A refreshed snapshot is written to disk and swapped in atomically, so readers always
+ * see either the old or the new catalog in full.
+ */
+public class ReferenceCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceCatalog.class);
+
+    private final Services services;
+    private final Path snapshotPath;
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<CatalogSnapshot>> pendingRefresh = new AtomicReference<>();
+
+    /**
+     * Create a catalog backed by the given snapshot file. Nothing is read until {@link #load()} or
+     * {@link #refresh()} is called.
+     *
+     * @param services the services interface used to fetch reference data
+     * @param snapshotPath location of the snapshot file
+     */
+    public ReferenceCatalog(Services services, Path snapshotPath) {
+        this.services = services;
+        this.snapshotPath = snapshotPath;
+    }
+
+    /**
+     * Load the snapshot file, if present. A missing, corrupt or outdated file is not an error; the
+     * catalog simply stays empty until it is refreshed.
+     *
+     * @return true if a snapshot was loaded
+     */
+    public boolean load() {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return false;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(snapshotPath))) {
+            snapshot.set(CatalogSnapshot.readFrom(in));
+            return true;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable catalog snapshot {}: {}", snapshotPath, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Get the current snapshot, fetching it from the API if none has been loaded yet
+     *
+     * @return the current snapshot
+     * @throws IOException if no snapshot is loaded and fetching one fails
+     */
+    public CatalogSnapshot getSnapshot() throws IOException {
+        CatalogSnapshot current = snapshot.get();
+        return current != null ? current : refresh();
+    }
+
+    /**
+     * Get the current snapshot without fetching
+     *
+     * @return the current snapshot, or null if none has been loaded
+     */
+    public CatalogSnapshot peekSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Fetch the reference data from the API, persist it and make it the current snapshot
+     *
+     * @return the new snapshot
+     * @throws IOException if fetching or writing the snapshot fails
+     */
+    public CatalogSnapshot refresh() throws IOException {
+        CatalogSnapshot fetched = fetch();
+        write(fetched);
+        snapshot.set(fetched);
+        return fetched;
+    }
+
+    /**
+     * Refresh the catalog on the client's executor. Concurrent calls share the same refresh; the
+     * current snapshot keeps being served until the new one has been fetched and written.
+     *
+     * @return future completing with the new snapshot
+     */
+    public CompletableFuture<CatalogSnapshot> refreshInBackground() {
+        CompletableFuture<CatalogSnapshot> future = new CompletableFuture<>();
+        CompletableFuture<CatalogSnapshot> existing = pendingRefresh.compareAndExchange(null, future);
+        if (existing != null) {
+            return existing;
+        }
+        services.client.executor().execute(() -> {
+            try {
+                future.complete(refresh());
+            } catch (IOException e) {
+                logger.warn("Background catalog refresh failed: {}", e.getMessage());
+                future.completeExceptionally(new UncheckedIOException(e));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                pendingRefresh.compareAndSet(future, null);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Fetch all reference data from the API without touching the current snapshot.
+     *
+     * ISO/service/market combinations the API reports as not found or not offered are left out of the
+     * snapshot. Any other failure fails the fetch, so an incomplete catalog is never built.
+     *
+     * @return a freshly fetched snapshot
+     * @throws IOException if a request fails
+     */
+    public CatalogSnapshot fetch() throws IOException {
+        Instant createdAt = Instant.now();
+        List<String> isos = services.getAllIsos();
+        CatalogSnapshot.Builder builder = CatalogSnapshot.builder().createdAt(createdAt).isos(isos);
+
+        for (String iso : isos) {
+            builder.nodes(iso, services.getLmp().getAllNodes(iso));
+            for (AncillaryService service : AncillaryService.values()) {
+                for (Market market : Market.values()) {
+                    try {
+                        List<AncillaryRegionData> regions = services.getAncillary().getPricingRegions(iso, service, market);
+                        builder.pricingRegions(iso, service, market, regions);
+                    } catch (IOException e) {
+                        if (!ClientErrorException.isNoData(e)) {
+                            throw e;
+                        }
+                        logger.debug("No pricing regions for {} {} {}: {}", iso, service, market, e.getMessage());
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Write the snapshot to a temporary file next to the snapshot path and move it into place, so a
+     * crash mid-write never leaves a truncated snapshot behind.
+     */
+    private void write(CatalogSnapshot catalog) throws IOException {
+        Path parent = snapshotPath.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            catalog.writeTo(out);
+        }
+        try {
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.AncillaryRegionData;
+import com.tybaenergy.client.model.AncillaryService;
+import com.tybaenergy.client.model.CatalogSnapshot;
+import com.tybaenergy.client.model.Market;
+import com.tybaenergy.client.model.NodeData;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory cache for Tyba's slowly changing reference data: ISOs, nodes and ancillary pricing regions.
+ *
+ * Entries are reloaded in the background once they pass the refresh-ahead point of their TTL. Expired
+ * entries keep being served while they are reloaded, so only the first lookup of a key waits on the API.
+ */
+public class ReferenceDataCache {
+    /**
+     * Default time after which a cached entry is considered expired
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+
+    /**
+     * Default fraction of the TTL after which an entry is refreshed in the background
+     */
+    public static final double DEFAULT_REFRESH_AHEAD = 0.8;
+
+    /**
+     * Default maximum number of node lists and region lists kept
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 512;
+
+    private static final String ISOS_KEY = "isos";
+
+    private final RefreshingCache<String, List<String>> isos;
+    private final RefreshingCache<String, List<NodeData>> nodes;
+    private final RefreshingCache<RegionKey, List<AncillaryRegionData>> regions;
+    private final RefreshingCache.Loader<String, List<String>> isoLoader;
+    private final RefreshingCache.Loader<String, List<NodeData>> nodeLoader;
+    private final RefreshingCache.Loader<RegionKey, List<AncillaryRegionData>> regionLoader;
+
+    /**
+     * Create a cache with the default TTL, refresh-ahead and size bound
+     *
+     * @param services the services interface used to load reference data
+     */
+    public ReferenceDataCache(Services services) {
+        this(services, DEFAULT_TTL, DEFAULT_REFRESH_AHEAD, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Create a cache with a custom TTL, refresh-ahead and size bound
+     *
+     * @param services the services interface used to load reference data
+     * @param ttl time after which a cached entry is considered expired
+     * @param refreshAhead fraction of the TTL, in (0, 1], after which an entry is refreshed in the background
+     * @param maxEntries maximum number of node lists and, separately, region lists kept
+     */
+    public ReferenceDataCache(Services services, Duration ttl, double refreshAhead, int maxEntries) {
+        this(services, ttl, refreshAhead, maxEntries, System::nanoTime);
+    }
+
+    ReferenceDataCache(Services services, Duration ttl, double refreshAhead, int maxEntries, LongSupplier ticker) {
+        this.isoLoader = key -> services.getAllIsos();
+        this.nodeLoader = iso -> services.getLmp().getAllNodes(iso);
+        this.regionLoader = key -> services.getAncillary().getPricingRegions(key.iso, key.service, key.market);
+        this.isos = new RefreshingCache<>(isoLoader, ttl, refreshAhead, 1, services.client.executor(), ticker);
+        this.nodes = new RefreshingCache<>(nodeLoader, ttl, refreshAhead, maxEntries, services.client.executor(),
+                ticker);
+        this.regions = new RefreshingCache<>(regionLoader, ttl, refreshAhead, maxEntries, services.client.executor(),
+                ticker);
+    }
+
+    /**
+     * Cache of a client view: it shares the cached entries of the cache it derives from, but loads and
+     * refreshes the entries it misses through the view, so the view's deadlines and cancellation apply
+     */
+    ReferenceDataCache(Services services, ReferenceDataCache shared) {
+        this.isoLoader = key -> services.getAllIsos();
+        this.nodeLoader = iso -> services.getLmp().getAllNodes(iso);
+        this.regionLoader = key -> services.getAncillary().getPricingRegions(key.iso, key.service, key.market);
+        this.isos = shared.isos;
+        this.nodes = shared.nodes;
+        this.regions = shared.regions;
+    }
+
+    /**
+     * Cached equivalent of {@link Services#getAllIsos()}
+     */
+    public List<String> getAllIsos() throws IOException {
+        return isos.get(ISOS_KEY, isoLoader);
+    }
+
+    /**
+     * Cached equivalent of {@link LMP#getAllNodes(String)}
+     */
+    public List<NodeData> getAllNodes(String iso) throws IOException {
+        return nodes.get(iso, nodeLoader);
+    }
+
+    /**
+     * Cached equivalent of {@link Ancillary#getPricingRegions(String, AncillaryService, Market)}
+     */
+    public List<AncillaryRegionData> getPricingRegions(String iso, AncillaryService service, Market market) throws IOException {
+        return regions.get(new RegionKey(iso, service, market), regionLoader);
+    }
+
+    /**
+     * Populate the cache from a catalog snapshot. Entries are aged by the snapshot's creation time, so
+     * an old snapshot is served immediately and refreshed in the background on first use.
+     *
+     * @param snapshot snapshot to seed the cache with
+     */
+    public void seed(CatalogSnapshot snapshot) {
+        Duration age = Duration.between(snapshot.getCreatedAt(), Instant.now());
+        if (age.isNegative()) {
+            age = Duration.ZERO;
+        }
+        isos.put(ISOS_KEY, snapshot.getIsos(), age);
+        for (String iso : snapshot.getIsos()) {
+            nodes.put(iso, snapshot.getNodes(iso), age);
+            for (AncillaryService service : AncillaryService.values()) {
+                for (Market market : Market.values()) {
+                    List<AncillaryRegionData> cached = snapshot.getPricingRegions(iso, service, market);
+                    if (cached != null) {
+                        regions.put(new RegionKey(iso, service, market), cached, age);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop all cached entries
+     */
+    public void invalidateAll() {
+        isos.invalidateAll();
+        nodes.invalidateAll();
+        regions.invalidateAll();
+    }
+
+    /**
+     * Combined hit, miss and refresh counters for all reference data
+     */
+    public CacheStats getStats() {
+        return isos.stats().plus(nodes.stats()).plus(regions.stats());
+    }
+
+    private static final class RegionKey {
+        final String iso;
+        final AncillaryService service;
+        final Market market;
+
+        RegionKey(String iso, AncillaryService service, Market market) {
+            this.iso = iso;
+            this.service = service;
+            this.market = market;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RegionKey)) return false;
+            RegionKey other = (RegionKey) o;
+            return iso.equals(other.iso) && service == other.service && market == other.market;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(iso, service, market);
+        }
+
+        @Override
+        public String toString() {
+            return iso + "/" + service + "/" + market;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.tybaenergy.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, least-recently-used cache with per-entry time-to-live and refresh-ahead.
+ *
+ * Entries older than the refresh-ahead point are reloaded in the background while the cached value
+ * keeps being served. Expired entries are also served (and reloaded) as long as a previous value
+ * exists, so callers only ever block on keys that have never been loaded.
+ */
+final class RefreshingCache<K, V> {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshingCache.class);
+
+    /**
+     * Loads the value for a key from its source
+     */
+    interface Loader<K, V> {
+        V load(K key) throws IOException;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long loadedAtNanos;
+
+        Entry(V value, long loadedAtNanos) {
+            this.value = value;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+
+    private final Loader<K, V> loader;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final int maxEntries;
+    private final Executor executor;
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param loader source of values, unless a call supplies its own
+     * @param ttl age after which an entry is considered expired
+     * @param refreshAhead fraction of the TTL after which an entry is reloaded in the background
+     * @param maxEntries maximum number of entries kept
+     * @param executor executor for background reloads
+     * @param ticker nanosecond time source
+     */
+    RefreshingCache(Loader<K, V> loader, Duration ttl, double refreshAhead, int maxEntries,
+                    Executor executor, LongSupplier ticker) {
+        if (refreshAhead <= 0 || refreshAhead > 1) {
+            throw new IllegalArgumentException("refreshAhead must be in (0, 1]");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.loader = loader;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAfterNanos = (long) (ttlNanos * refreshAhead);
+        this.maxEntries = maxEntries;
+        this.executor = executor;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Get the value for a key, loading it on the calling thread only if no value has been cached yet
+     */
+    V get(K key) throws IOException {
+        return get(key, loader);
+    }
+
+    /**
+     * Get the value for a key like {@link #get(Object)}, but run any load or refresh it triggers through
+     * the given loader, e.g. one bound to the caller's client view
+     */
+    V get(K key, Loader<K, V> loader) throws IOException {
+        Entry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+
+        if (entry != null) {
+            long age = ticker.getAsLong() - entry.loadedAtNanos;
+            if (age < refreshAfterNanos) {
+                hits.increment();
+            } else if (age < ttlNanos) {
+                hits.increment();
+                refreshInBackground(key, loader);
+            } else {
+                staleHits.increment();
+                refreshInBackground(key, loader);
+            }
+            return entry.value;
+        }
+
+        misses.increment();
+        return loadShared(key, loader);
+    }
+
+    /**
+     * Get the value for a key like {@link #get(Object)}, but load it on the calling thread rather than
+     * serve it once it is past its TTL
+     */
+    V getUnexpired(K key) throws IOException {
+        Entry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && ticker.getAsLong() - entry.loadedAtNanos >= ttlNanos) {
+            misses.increment();
+            return loadShared(key, loader);
+        }
+        return get(key);
+    }
+
+    /**
+     * Get the cached value for a key without loading, regardless of its age
+     */
+    V getIfPresent(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            return entry != null ? entry.value : null;
+        }
+    }
+
+    /**
+     * Insert a value that was loaded the given amount of time ago
+     */
+    void put(K key, V value, Duration age) {
+        store(key, value, ticker.getAsLong() - age.toNanos());
+    }
+
+    void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    CacheStats stats() {
+        return new CacheStats(hits.sum(), staleHits.sum(), misses.sum(), refreshes.sum(),
+                refreshFailures.sum(), evictions.sum());
+    }
+
+    /**
+     * Load a key on the calling thread, sharing the result with any concurrent callers for the same key
+     */
+    private V loadShared(K key, Loader<K, V> loader) throws IOException {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                // Loads on the calling thread wrap their failure, background refreshes do not
+                Throwable cause = e.getCause();
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw e;
+            } catch (CancellationException e) {
+                // A background refresh the executor rejected; load here instead
+                return loadShared(key, loader);
+            }
+        }
+
+        try {
+            V value = loader.load(key);
+            store(key, value, ticker.getAsLong());
+            future.complete(value);
+            return value;
+        } catch (IOException e) {
+            future.completeExceptionally(new UncheckedIOException(e));
+            throw e;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    private void refreshInBackground(K key, Loader<K, V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        if (loading.putIfAbsent(key, future) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    V value = loader.load(key);
+                    store(key, value, ticker.getAsLong());
+                    refreshes.increment();
+                    future.complete(value);
+                } catch (IOException | RuntimeException e) {
+                    refreshFailures.increment();
+                    logger.warn("Background refresh of {} failed: {}", key, e.getMessage());
+                    future.completeExceptionally(e);
+                } finally {
+                    loading.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(key, future);
+            future.cancel(false);
+        }
+    }
+
+    private void store(K key, V value, long loadedAtNanos) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, loadedAtNanos));
+            Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tybaenergy.client;
+
+import java.io.InterruptedIOException;
+
+/**
+ * A request was aborted through its {@link Cancellation}. Like an interruption, it is not retried.
+ */
+public class RequestCancelledException extends InterruptedIOException {
+    private static final long serialVersionUID = 1L;
+
+    public RequestCancelledException(String message) {
+        super(message);
+    }
+}
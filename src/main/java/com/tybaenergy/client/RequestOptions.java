@@ -0,0 +1,117 @@
+package com.tybaenergy.client;
+
+import java.time.Duration;
+
+/**
+ * Deadlines and cancellation for the requests made through a {@link TybaClient#withOptions} view.
+ *
+ * The call timeout bounds a whole request: connecting, sending, waiting for the server and reading the
+ * entire response body. The connect and read timeouts bound each individual step. Unset values are
+ * taken from the client the view is derived from; a new client has no call timeout, a 30 second connect
+ * timeout and a 60 second read timeout.
+ */
+public final class RequestOptions {
+    private final Duration callTimeout;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final Cancellation cancellation;
+
+    private RequestOptions(Duration callTimeout, Duration connectTimeout, Duration readTimeout,
+                           Cancellation cancellation) {
+        this.callTimeout = callTimeout;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.cancellation = cancellation;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Options with only a call timeout
+     */
+    public static RequestOptions deadline(Duration callTimeout) {
+        return builder().callTimeout(callTimeout).build();
+    }
+
+    public Duration getCallTimeout() { return callTimeout; }
+    public Duration getConnectTimeout() { return connectTimeout; }
+    public Duration getReadTimeout() { return readTimeout; }
+    public Cancellation getCancellation() { return cancellation; }
+
+    /**
+     * These options, with unset values taken from {@code defaults}
+     */
+    RequestOptions orElse(RequestOptions defaults) {
+        if (defaults == null) {
+            return this;
+        }
+        return new RequestOptions(callTimeout != null ? callTimeout : defaults.callTimeout,
+                connectTimeout != null ? connectTimeout : defaults.connectTimeout,
+                readTimeout != null ? readTimeout : defaults.readTimeout,
+                cancellation != null ? cancellation : defaults.cancellation);
+    }
+
+    @Override
+    public String toString() {
+        return "RequestOptions[callTimeout=" + callTimeout + ", connectTimeout=" + connectTimeout
+                + ", readTimeout=" + readTimeout + (cancellation != null ? ", cancellable" : "") + "]";
+    }
+
+    /**
+     * Builder for {@link RequestOptions}
+     */
+    public static final class Builder {
+        private Duration callTimeout;
+        private Duration connectTimeout;
+        private Duration readTimeout;
+        private Cancellation cancellation;
+
+        private Builder() {
+        }
+
+        /**
+         * Deadline for each whole request, including reading its response body
+         */
+        public Builder callTimeout(Duration callTimeout) {
+            this.callTimeout = positive(callTimeout, "callTimeout");
+            return this;
+        }
+
+        /**
+         * Deadline for establishing each connection
+         */
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = positive(connectTimeout, "connectTimeout");
+            return this;
+        }
+
+        /**
+         * Longest wait for the server between two reads, including for the first byte of the response
+         */
+        public Builder readTimeout(Duration readTimeout) {
+            this.readTimeout = positive(readTimeout, "readTimeout");
+            return this;
+        }
+
+        /**
+         * Handle through which all requests made with these options can be cancelled
+         */
+        public Builder cancellation(Cancellation cancellation) {
+            this.cancellation = cancellation;
+            return this;
+        }
+
+        public RequestOptions build() {
+            return new RequestOptions(callTimeout, connectTimeout, readTimeout, cancellation);
+        }
+
+        private static Duration positive(Duration duration, String name) {
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return duration;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.AncillaryRegionData;
+import com.tybaenergy.client.model.AncillaryService;
+import com.tybaenergy.client.model.Market;
+import com.tybaenergy.client.model.NodeData;
+import com.tybaenergy.client.model.PriceTimeSeries;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Plans historical price requests against the data ranges the API advertises, so that requests which
+ * can only come back empty are never sent.
+ *
+ * Year ranges are clamped to each node's DA/RT range or each region's range, node IDs sharing the same
+ * clamped range are batched up to the 8-ID limit of {@link LMP#getPrices}, and years that have already
+ * come back empty are remembered in a negative cache and trimmed from later plans. Each entry of the
+ * negative cache is forgotten after a TTL, and the least recently used entries are evicted beyond a size
+ * bound. The current and future years are never recorded, since their data may still be published.
+ */
+public class RequestPlanner {
+    /**
+     * Maximum number of node IDs accepted by a single LMP price request
+     */
+    public static final int MAX_NODES_PER_REQUEST = 8;
+
+    /**
+     * Default time after which a year known to be empty is requested again, the same as the reference
+     * data TTL
+     */
+    public static final Duration DEFAULT_KNOWN_EMPTY_TTL = ReferenceDataCache.DEFAULT_TTL;
+
+    /**
+     * Default maximum number of (series, year) combinations remembered as empty
+     */
+    public static final int DEFAULT_MAX_KNOWN_EMPTY = 65536;
+
+    private final Services services;
+    private final KnownEmpty knownEmpty;
+    private final Clock clock;
+
+    public RequestPlanner(Services services) {
+        this(services, DEFAULT_KNOWN_EMPTY_TTL, DEFAULT_MAX_KNOWN_EMPTY);
+    }
+
+    /**
+     * @param services the services interface used to fetch prices
+     * @param knownEmptyTtl time after which a year known to be empty is requested again
+     * @param maxKnownEmpty maximum number of (series, year) combinations remembered as empty
+     */
+    public RequestPlanner(Services services, Duration knownEmptyTtl, int maxKnownEmpty) {
+        this(services, new KnownEmpty(knownEmptyTtl, maxKnownEmpty, System::nanoTime), Clock.systemUTC());
+    }
+
+    /**
+     * Planner of a client view, requesting through the view but sharing the negative cache of the
+     * planner it derives from
+     */
+    RequestPlanner(Services services, RequestPlanner shared) {
+        this(services, shared != null ? shared.knownEmpty
+                : new KnownEmpty(DEFAULT_KNOWN_EMPTY_TTL, DEFAULT_MAX_KNOWN_EMPTY, System::nanoTime),
+                shared != null ? shared.clock : Clock.systemUTC());
+    }
+
+    RequestPlanner(Services services, Duration knownEmptyTtl, int maxKnownEmpty, LongSupplier ticker, Clock clock) {
+        this(services, new KnownEmpty(knownEmptyTtl, maxKnownEmpty, ticker), clock);
+    }
+
+    private RequestPlanner(Services services, KnownEmpty knownEmpty, Clock clock) {
+        this.services = services;
+        this.knownEmpty = knownEmpty;
+        this.clock = clock;
+    }
+
+    /**
+     * Plan LMP price requests for the given nodes. Nodes without any data in the requested range are
+     * dropped; the remaining nodes are grouped by their clamped year range into batches of up to 8.
+     *
+     * @param nodes node metadata, as returned by {@link LMP#getAllNodes(String)}
+     * @param market market to pull prices for
+     * @param startYear first year requested
+     * @param endYear last year requested
+     * @return batches to request, ordered by year range
+     */
+    public List<LmpBatch> planLmpPrices(Collection<NodeData> nodes, Market market, int startYear, int endYear) {
+        Map<YearRange, List<String>> idsByRange = new TreeMap<>();
+        for (NodeData node : nodes) {
+            YearRange available = availableYears(node, market);
+            YearRange range = new YearRange(startYear, endYear).intersect(available);
+            if (range != null) {
+                range = trimKnownEmpty(range, year -> lmpKey(node.getId(), market, year));
+            }
+            if (range != null) {
+                idsByRange.computeIfAbsent(range, r -> new ArrayList<>()).add(node.getId());
+            }
+        }
+
+        List<LmpBatch> batches = new ArrayList<>();
+        for (Map.Entry<YearRange, List<String>> entry : idsByRange.entrySet()) {
+            List<String> ids = entry.getValue();
+            for (int i = 0; i < ids.size(); i += MAX_NODES_PER_REQUEST) {
+                List<String> batchIds = ids.subList(i, Math.min(ids.size(), i + MAX_NODES_PER_REQUEST));
+                batches.add(new LmpBatch(List.copyOf(batchIds), market, entry.getKey()));
+            }
+        }
+        return batches;
+    }
+
+    /**
+     * Plan LMP price requests for node IDs within an ISO, using cached node metadata. IDs that are not
+     * found in the ISO's metadata are requested over the full range.
+     */
+    public List<LmpBatch> planLmpPrices(String iso, Collection<String> nodeIds, Market market,
+                                        int startYear, int endYear) throws IOException {
+        Map<String, NodeData> byId = new HashMap<>();
+        for (NodeData node : services.getReferenceDataCache().getAllNodes(iso)) {
+            byId.put(node.getId(), node);
+        }
+        List<NodeData> nodes = new ArrayList<>(nodeIds.size());
+        for (String id : nodeIds) {
+            NodeData node = byId.get(id);
+            if (node == null) {
+                node = new NodeData();
+                node.setId(id);
+            }
+            nodes.add(node);
+        }
+        return planLmpPrices(nodes, market, startYear, endYear);
+    }
+
+    /**
+     * Fetch LMP prices for the given nodes according to {@link #planLmpPrices(Collection, Market, int, int)}.
+     * Nodes that are dropped by the plan are absent from the result.
+     *
+     * @return map where keys are node IDs and values are PriceTimeSeries objects
+     * @throws IOException if a request fails
+     */
+    public Map<String, PriceTimeSeries> getLmpPrices(Collection<NodeData> nodes, Market market,
+                                                     int startYear, int endYear) throws IOException {
+        Map<String, PriceTimeSeries> result = new LinkedHashMap<>();
+        for (LmpBatch batch : planLmpPrices(nodes, market, startYear, endYear)) {
+            result.putAll(fetch(batch));
+        }
+        return result;
+    }
+
+    /**
+     * Fetch a single planned batch and record nodes that came back without prices
+     */
+    Map<String, PriceTimeSeries> fetch(LmpBatch batch) throws IOException {
+        YearRange years = batch.getYears();
+        Map<String, PriceTimeSeries> prices = services.getLmp().getPrices(
+                batch.getNodeIds(), batch.getMarket(), years.getStartYear(), years.getEndYear());
+        for (String id : batch.getNodeIds()) {
+            if (isEmpty(prices.get(id))) {
+                markEmpty(years, year -> lmpKey(id, batch.getMarket(), year));
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Plan an ancillary price request for a region, clamped to the region's advertised year range
+     *
+     * @return the year range to request, or null if the region has no data in the requested range
+     */
+    public YearRange planAncillaryPrices(String iso, AncillaryService service, Market market,
+                                         AncillaryRegionData region, int startYear, int endYear) {
+        YearRange available = new YearRange(
+                region.getStartYear() != null ? region.getStartYear() : Integer.MIN_VALUE,
+                region.getEndYear() != null ? region.getEndYear() : Integer.MAX_VALUE);
+        YearRange range = new YearRange(startYear, endYear).intersect(available);
+        return range == null ? null
+                : trimKnownEmpty(range, year -> ancillaryKey(iso, service, market, region.getRegion(), year));
+    }
+
+    /**
+     * Fetch ancillary prices for a region according to
+     * {@link #planAncillaryPrices(String, AncillaryService, Market, AncillaryRegionData, int, int)}
+     *
+     * @return the region's prices, or an empty series if no request was needed
+     * @throws IOException if the request fails
+     */
+    public PriceTimeSeries getAncillaryPrices(String iso, AncillaryService service, Market market,
+                                              AncillaryRegionData region, int startYear, int endYear) throws IOException {
+        YearRange range = planAncillaryPrices(iso, service, market, region, startYear, endYear);
+        if (range == null) {
+            return new PriceTimeSeries(Collections.emptyList(), Collections.emptyList());
+        }
+        return fetch(iso, service, market, region.getRegion(), range);
+    }
+
+    /**
+     * Fetch ancillary prices for a planned range and record it if it came back empty
+     */
+    PriceTimeSeries fetch(String iso, AncillaryService service, Market market, String region,
+                          YearRange range) throws IOException {
+        PriceTimeSeries prices = services.getAncillary().getPrices(
+                iso, service, market, region, range.getStartYear(), range.getEndYear());
+        if (isEmpty(prices)) {
+            markEmpty(range, year -> ancillaryKey(iso, service, market, region, year));
+        }
+        return prices;
+    }
+
+    /**
+     * Number of (series, year) combinations currently known to be empty, excluding expired ones
+     */
+    public int getKnownEmptyCount() {
+        return knownEmpty.size();
+    }
+
+    /**
+     * Forget all combinations known to be empty
+     */
+    public void clearKnownEmpty() {
+        knownEmpty.clear();
+    }
+
+    private static YearRange availableYears(NodeData node, Market market) {
+        Number start;
+        Number end;
+        if (market == Market.DAYAHEAD) {
+            start = node.getDaStartYear();
+            end = node.getDaEndYear();
+        } else {
+            start = node.getRtStartYear();
+            end = node.getRtEndYear();
+        }
+        return new YearRange(
+                start != null ? start.intValue() : Integer.MIN_VALUE,
+                end != null ? end.intValue() : Integer.MAX_VALUE);
+    }
+
+    private YearRange trimKnownEmpty(YearRange range, IntFunction<String> key) {
+        int start = range.getStartYear();
+        int end = range.getEndYear();
+        while (start <= end && knownEmpty.contains(key.apply(start))) {
+            start++;
+        }
+        while (end >= start && knownEmpty.contains(key.apply(end))) {
+            end--;
+        }
+        return start <= end ? new YearRange(start, end) : null;
+    }
+
+    private void markEmpty(YearRange range, IntFunction<String> key) {
+        // The current and later years may still be published, so only earlier years are recorded
+        int end = Math.min(range.getEndYear(), Year.now(clock).getValue() - 1);
+        for (int year = range.getStartYear(); year <= end; year++) {
+            knownEmpty.add(key.apply(year));
+        }
+    }
+
+    private static boolean isEmpty(PriceTimeSeries series) {
+        return series == null || series.getPrices() == null || series.getPrices().isEmpty();
+    }
+
+    private static String lmpKey(String nodeId, Market market, int year) {
+        return "lmp|" + market.getValue() + "|" + nodeId + "|" + year;
+    }
+
+    private static String ancillaryKey(String iso, AncillaryService service, Market market, String region, int year) {
+        return "ancillary|" + iso + "|" + service.getValue() + "|" + market.getValue() + "|" + region + "|" + year;
+    }
+
+    /**
+     * Keys known to be empty with the time they were marked. Entries older than the TTL are ignored and
+     * dropped; beyond the size bound the least recently used are evicted.
+     */
+    private static final class KnownEmpty {
+        private final long ttlNanos;
+        private final int maxEntries;
+        private final LongSupplier ticker;
+        private final LinkedHashMap<String, Long> markedAt = new LinkedHashMap<>(16, 0.75f, true);
+
+        KnownEmpty(Duration ttl, int maxEntries, LongSupplier ticker) {
+            if (ttl.isNegative() || ttl.isZero()) {
+                throw new IllegalArgumentException("knownEmptyTtl must be positive");
+            }
+            if (maxEntries < 1) {
+                throw new IllegalArgumentException("maxKnownEmpty must be positive");
+            }
+            this.ttlNanos = ttl.toNanos();
+            this.maxEntries = maxEntries;
+            this.ticker = ticker;
+        }
+
+        synchronized boolean contains(String key) {
+            Long at = markedAt.get(key);
+            if (at == null) {
+                return false;
+            }
+            if (ticker.getAsLong() - at >= ttlNanos) {
+                markedAt.remove(key);
+                return false;
+            }
+            return true;
+        }
+
+        synchronized void add(String key) {
+            markedAt.put(key, ticker.getAsLong());
+            Iterator<String> eldest = markedAt.keySet().iterator();
+            while (markedAt.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+
+        synchronized int size() {
+            long now = ticker.getAsLong();
+            markedAt.values().removeIf(at -> now - at >= ttlNanos);
+            return markedAt.size();
+        }
+
+        synchronized void clear() {
+            markedAt.clear();
+        }
+    }
+
+    /**
+     * Inclusive range of years
+     */
+    public static final class YearRange implements Comparable<YearRange> {
+        private final int startYear;
+        private final int endYear;
+
+        public YearRange(int startYear, int endYear) {
+            this.startYear = startYear;
+            this.endYear = endYear;
+        }
+
+        public int getStartYear() { return startYear; }
+        public int getEndYear() { return endYear; }
+
+        /**
+         * Overlap of this range with another, or null if they do not overlap
+         */
+        public YearRange intersect(YearRange other) {
+            int start = Math.max(startYear, other.startYear);
+            int end = Math.min(endYear, other.endYear);
+            return start <= end ? new YearRange(start, end) : null;
+        }
+
+        @Override
+        public int compareTo(YearRange other) {
+            int byStart = Integer.compare(startYear, other.startYear);
+            return byStart != 0 ? byStart : Integer.compare(endYear, other.endYear);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof YearRange)) return false;
+            YearRange other = (YearRange) o;
+            return startYear == other.startYear && endYear == other.endYear;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(startYear, endYear);
+        }
+
+        @Override
+        public String toString() {
+            return startYear + "-" + endYear;
+        }
+    }
+
+    /**
+     * A single planned {@link LMP#getPrices} request
+     */
+    public static final class LmpBatch {
+        private final List<String> nodeIds;
+        private final Market market;
+        private final YearRange years;
+
+        LmpBatch(List<String> nodeIds, Market market, YearRange years) {
+            this.nodeIds = nodeIds;
+            this.market = market;
+            this.years = years;
+        }
+
+        public List<String> getNodeIds() { return nodeIds; }
+        public Market getMarket() { return market; }
+        public YearRange getYears() { return years; }
+    }
+}
@@ -0,0 +1,15 @@
+package com.tybaenergy.client;
+
+/**
+ * A request did not complete in time: the connection, a read or the whole call timed out, or the server
+ * answered HTTP 408. A timed-out request may still have been processed, so it is retryable only if it is
+ * idempotent, or if the server answered 408.
+ */
+public class RequestTimeoutException extends TybaApiException {
+    private static final long serialVersionUID = 1L;
+
+    public RequestTimeoutException(String message, int statusCode, String bodyExcerpt, boolean retryable,
+                                   Throwable cause) {
+        super(message, statusCode, bodyExcerpt, retryable, cause);
+    }
+}
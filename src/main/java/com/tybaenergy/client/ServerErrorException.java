@@ -0,0 +1,13 @@
+package com.tybaenergy.client;
+
+/**
+ * The API failed to handle a request (HTTP 5xx). Retryable for idempotent requests, and for any request
+ * answered with 502, 503 or 504, which the server did not act on.
+ */
+public class ServerErrorException extends TybaApiException {
+    private static final long serialVersionUID = 1L;
+
+    public ServerErrorException(String message, int statusCode, String bodyExcerpt, boolean retryable) {
+        super(message, statusCode, bodyExcerpt, retryable, null);
+    }
+}
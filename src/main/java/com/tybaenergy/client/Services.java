@@ -12,12 +12,25 @@ public class Services {
     final TybaClient client;
     private final Ancillary ancillary;
     private final LMP lmp;
+    private final ReferenceDataCache referenceDataCache;
+    private final RequestPlanner requestPlanner;
     private static final String ROUTE_BASE = "services";
 
     public Services(TybaClient client) {
+        this(client, null);
+    }
+
+    /**
+     * Services of a client view, sharing the cached reference data and the request planner's negative
+     * cache of the client it derives from. Reference data the view misses is loaded through the view.
+     */
+    Services(TybaClient client, Services shared) {
         this.client = client;
         this.ancillary = new Ancillary(this);
         this.lmp = new LMP(this);
+        this.referenceDataCache = shared != null ? new ReferenceDataCache(this, shared.referenceDataCache)
+                : new ReferenceDataCache(this);
+        this.requestPlanner = new RequestPlanner(this, shared != null ? shared.requestPlanner : null);
     }
 
     /**
@@ -34,6 +47,21 @@ public class Services {
         return lmp;
     }
 
+    /**
+     * Cache of ISOs, nodes and pricing regions shared by everything that uses this client
+     */
+    public ReferenceDataCache getReferenceDataCache() {
+        return referenceDataCache;
+    }
+
+    /**
+     * Planner that skips price requests outside the advertised data ranges, shared by everything that
+     * uses this client so its negative cache is shared too
+     */
+    public RequestPlanner getRequestPlanner() {
+        return requestPlanner;
+    }
+
     /**
      * Make a GET request to a services endpoint
      */
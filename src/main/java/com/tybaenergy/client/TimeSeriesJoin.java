@@ -0,0 +1,356 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.TimeSeriesFrame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+
+/**
+ * Timestamp alignment of {@link TimeSeriesFrame}s: exact merge joins, as-of joins and resampling to a
+ * common interval. All operations walk the sorted epoch arrays directly and produce new frames.
+ */
+public final class TimeSeriesJoin {
+    private TimeSeriesJoin() {}
+
+    /**
+     * How values falling in the same resampling bucket are combined
+     */
+    public enum Aggregation {
+        MEAN, SUM, MIN, MAX, FIRST, LAST
+    }
+
+    /**
+     * Join two frames on identical timestamps, keeping only times present in both
+     */
+    public static TimeSeriesFrame innerJoin(TimeSeriesFrame left, TimeSeriesFrame right) {
+        long[] a = left.getEpochSeconds();
+        long[] b = right.getEpochSeconds();
+        int[] leftRows = new int[Math.min(a.length, b.length)];
+        int[] rightRows = new int[leftRows.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                leftRows[size] = i++;
+                rightRows[size] = j++;
+                size++;
+            }
+        }
+
+        long[] times = new long[size];
+        for (int row = 0; row < size; row++) {
+            times[row] = a[leftRows[row]];
+        }
+        return combine(times, left, leftRows, right, rightRows, size);
+    }
+
+    /**
+     * Join two frames on the union of their timestamps, filling missing values with NaN
+     */
+    public static TimeSeriesFrame outerJoin(TimeSeriesFrame left, TimeSeriesFrame right) {
+        long[] a = left.getEpochSeconds();
+        long[] b = right.getEpochSeconds();
+        int capacity = a.length + b.length;
+        long[] times = new long[capacity];
+        int[] leftRows = new int[capacity];
+        int[] rightRows = new int[capacity];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                times[size] = a[i];
+                leftRows[size] = i++;
+                rightRows[size] = -1;
+            } else if (i >= a.length || b[j] < a[i]) {
+                times[size] = b[j];
+                leftRows[size] = -1;
+                rightRows[size] = j++;
+            } else {
+                times[size] = a[i];
+                leftRows[size] = i++;
+                rightRows[size] = j++;
+            }
+            size++;
+        }
+        return combine(Arrays.copyOf(times, size), left, leftRows, right, rightRows, size);
+    }
+
+    /**
+     * For every row of the left frame, attach the most recent right row at or before it, as long as it is
+     * no older than the tolerance. Rows without a match get NaN.
+     *
+     * @param toleranceSeconds maximum age of the matched right row, or a negative value for no limit
+     */
+    public static TimeSeriesFrame asOfJoin(TimeSeriesFrame left, TimeSeriesFrame right, long toleranceSeconds) {
+        long[] a = left.getEpochSeconds();
+        long[] b = right.getEpochSeconds();
+        int[] leftRows = new int[a.length];
+        int[] rightRows = new int[a.length];
+        int j = -1;
+        for (int i = 0; i < a.length; i++) {
+            while (j + 1 < b.length && b[j + 1] <= a[i]) {
+                j++;
+            }
+            leftRows[i] = i;
+            rightRows[i] = j >= 0 && (toleranceSeconds < 0 || a[i] - b[j] <= toleranceSeconds) ? j : -1;
+        }
+        return combine(a, left, leftRows, right, rightRows, a.length);
+    }
+
+    /**
+     * Resample a frame to a fixed interval. Each output time is the start of a bucket aligned to the epoch,
+     * and only buckets containing at least one row are emitted. NaN values are ignored by the aggregation.
+     *
+     * @param intervalSeconds bucket width
+     * @param aggregation how values within a bucket are combined
+     */
+    public static TimeSeriesFrame resample(TimeSeriesFrame frame, long intervalSeconds, Aggregation aggregation) {
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException("intervalSeconds must be positive");
+        }
+        long[] source = frame.getEpochSeconds();
+        long[] buckets = new long[source.length];
+        int[] bucketStarts = new int[source.length + 1];
+        int size = 0;
+        for (int i = 0; i < source.length; i++) {
+            long bucket = Math.floorDiv(source[i], intervalSeconds) * intervalSeconds;
+            if (size == 0 || buckets[size - 1] != bucket) {
+                buckets[size] = bucket;
+                bucketStarts[size] = i;
+                size++;
+            }
+        }
+        bucketStarts[size] = source.length;
+
+        double[][] columns = new double[frame.getColumnCount()][];
+        for (int c = 0; c < columns.length; c++) {
+            double[] values = frame.getColumn(c);
+            double[] out = new double[size];
+            for (int bucket = 0; bucket < size; bucket++) {
+                out[bucket] = aggregate(values, bucketStarts[bucket], bucketStarts[bucket + 1], aggregation);
+            }
+            columns[c] = out;
+        }
+        return new TimeSeriesFrame(Arrays.copyOf(buckets, size), frame.getColumnNames(), columns);
+    }
+
+    /**
+     * Place a frame on a fixed-interval grid covering its own time span. Coarser data is carried forward
+     * onto the grid (as-of), finer data is aggregated into each grid bucket, so series with different
+     * native intervals can then be merge-joined exactly.
+     *
+     * @param intervalSeconds grid interval
+     * @param aggregation how finer values within a grid bucket are combined
+     */
+    public static TimeSeriesFrame toInterval(TimeSeriesFrame frame, long intervalSeconds, Aggregation aggregation) {
+        TimeSeriesFrame bucketed = resample(frame, intervalSeconds, aggregation);
+        long[] times = bucketed.getEpochSeconds();
+        if (times.length == 0) {
+            return bucketed;
+        }
+        int points = (int) ((times[times.length - 1] - times[0]) / intervalSeconds) + 1;
+        long[] grid = new long[points];
+        for (int i = 0; i < points; i++) {
+            grid[i] = times[0] + i * intervalSeconds;
+        }
+        long nativeInterval = medianStep(frame.getEpochSeconds());
+        TimeSeriesFrame axis = new TimeSeriesFrame(grid, List.of(), new double[0][]);
+        return asOfJoin(axis, bucketed, Math.max(nativeInterval, intervalSeconds) - 1);
+    }
+
+    /**
+     * Apply a join to every key present in both maps, in parallel on the common fork-join pool
+     *
+     * @param lefts left frames by key, e.g. by node ID
+     * @param rights right frames by key
+     * @param join the join to apply, e.g. {@code TimeSeriesJoin::innerJoin}
+     * @return joined frames for the keys present in both maps, in the iteration order of {@code lefts}
+     */
+    public static <K> Map<K, TimeSeriesFrame> joinAll(Map<K, TimeSeriesFrame> lefts, Map<K, TimeSeriesFrame> rights,
+                                                      BiFunction<TimeSeriesFrame, TimeSeriesFrame, TimeSeriesFrame> join) {
+        List<K> keys = new ArrayList<>();
+        for (K key : lefts.keySet()) {
+            if (rights.containsKey(key)) {
+                keys.add(key);
+            }
+        }
+        TimeSeriesFrame[] results = new TimeSeriesFrame[keys.size()];
+        ForkJoinPool.commonPool().invoke(new JoinTask<>(keys, lefts, rights, join, results, 0, keys.size()));
+
+        Map<K, TimeSeriesFrame> joined = new LinkedHashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            joined.put(keys.get(i), results[i]);
+        }
+        return joined;
+    }
+
+    /**
+     * Stitch consecutive frames, e.g. the chunks of a long download, into one. Columns are the union of
+     * all frames' columns in order of first appearance, NaN where a frame lacks one. Rows of a frame at or
+     * before the last time already taken are dropped, so overlapping chunk edges appear once.
+     */
+    public static TimeSeriesFrame concat(List<TimeSeriesFrame> frames) {
+        List<String> names = new ArrayList<>();
+        int capacity = 0;
+        for (TimeSeriesFrame frame : frames) {
+            for (String name : frame.getColumnNames()) {
+                if (!names.contains(name)) {
+                    names.add(name);
+                }
+            }
+            capacity += frame.getRowCount();
+        }
+
+        long[] times = new long[capacity];
+        double[][] columns = new double[names.size()][capacity];
+        for (double[] column : columns) {
+            Arrays.fill(column, Double.NaN);
+        }
+        int size = 0;
+        for (TimeSeriesFrame frame : frames) {
+            long[] frameTimes = frame.getEpochSeconds();
+            int first = 0;
+            if (size > 0) {
+                first = Arrays.binarySearch(frameTimes, times[size - 1]);
+                first = first >= 0 ? first + 1 : -first - 1;
+            }
+            int rows = frameTimes.length - first;
+            if (rows <= 0) {
+                continue;
+            }
+            System.arraycopy(frameTimes, first, times, size, rows);
+            for (int c = 0; c < frame.getColumnCount(); c++) {
+                int target = names.indexOf(frame.getColumnNames().get(c));
+                System.arraycopy(frame.getColumn(c), first, columns[target], size, rows);
+            }
+            size += rows;
+        }
+
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = Arrays.copyOf(columns[c], size);
+        }
+        return new TimeSeriesFrame(Arrays.copyOf(times, size), names, columns);
+    }
+
+    private static final class JoinTask<K> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<K> keys;
+        private final Map<K, TimeSeriesFrame> lefts;
+        private final Map<K, TimeSeriesFrame> rights;
+        private final BiFunction<TimeSeriesFrame, TimeSeriesFrame, TimeSeriesFrame> join;
+        private final TimeSeriesFrame[] results;
+        private final int from;
+        private final int to;
+
+        JoinTask(List<K> keys, Map<K, TimeSeriesFrame> lefts, Map<K, TimeSeriesFrame> rights,
+                 BiFunction<TimeSeriesFrame, TimeSeriesFrame, TimeSeriesFrame> join,
+                 TimeSeriesFrame[] results, int from, int to) {
+            this.keys = keys;
+            this.lefts = lefts;
+            this.rights = rights;
+            this.join = join;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    K key = keys.get(from);
+                    results[from] = join.apply(lefts.get(key), rights.get(key));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new JoinTask<>(keys, lefts, rights, join, results, from, middle),
+                    new JoinTask<>(keys, lefts, rights, join, results, middle, to));
+        }
+    }
+
+    /**
+     * Build a frame from the columns of both inputs using row index mappings, where -1 means missing
+     */
+    private static TimeSeriesFrame combine(long[] times, TimeSeriesFrame left, int[] leftRows,
+                                           TimeSeriesFrame right, int[] rightRows, int size) {
+        List<String> names = new ArrayList<>(left.getColumnNames());
+        names.addAll(right.getColumnNames());
+        double[][] columns = new double[names.size()][];
+        int c = 0;
+        for (int i = 0; i < left.getColumnCount(); i++) {
+            columns[c++] = gather(left.getColumn(i), leftRows, size);
+        }
+        for (int i = 0; i < right.getColumnCount(); i++) {
+            columns[c++] = gather(right.getColumn(i), rightRows, size);
+        }
+        return new TimeSeriesFrame(times, names, columns);
+    }
+
+    private static double[] gather(double[] values, int[] rows, int size) {
+        double[] out = new double[size];
+        for (int i = 0; i < size; i++) {
+            out[i] = rows[i] >= 0 ? values[rows[i]] : Double.NaN;
+        }
+        return out;
+    }
+
+    private static double aggregate(double[] values, int from, int to, Aggregation aggregation) {
+        double result = Double.NaN;
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            double value = values[i];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            if (count == 0) {
+                result = value;
+            } else {
+                switch (aggregation) {
+                    case MEAN:
+                    case SUM:
+                        result += value;
+                        break;
+                    case MIN:
+                        result = Math.min(result, value);
+                        break;
+                    case MAX:
+                        result = Math.max(result, value);
+                        break;
+                    case FIRST:
+                        break;
+                    case LAST:
+                        result = value;
+                        break;
+                }
+            }
+            count++;
+        }
+        return aggregation == Aggregation.MEAN && count > 0 ? result / count : result;
+    }
+
+    private static long medianStep(long[] times) {
+        if (times.length < 2) {
+            return 1;
+        }
+        long[] steps = new long[times.length - 1];
+        for (int i = 1; i < times.length; i++) {
+            steps[i - 1] = times[i] - times[i - 1];
+        }
+        Arrays.sort(steps);
+        return steps[steps.length / 2];
+    }
+}
@@ -0,0 +1,86 @@
+package com.tybaenergy.client;
+
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * A request that the API answered with an error, or that did not complete in time.
+ *
+ * Subclasses distinguish rate limiting ({@link RateLimitedException}), server errors
+ * ({@link ServerErrorException}), client errors ({@link ClientErrorException}) and timeouts
+ * ({@link RequestTimeoutException}). {@link #isRetryable()} tells whether sending the same request again
+ * is safe: either the server certainly did not act on it, or the request is idempotent.
+ */
+public class TybaApiException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Maximum number of bytes of an error body kept as its excerpt
+     */
+    static final long EXCERPT_BYTES = 1024;
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+
+    private final int statusCode;
+    private final String bodyExcerpt;
+    private final boolean retryable;
+
+    public TybaApiException(String message, int statusCode, String bodyExcerpt, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.statusCode = statusCode;
+        this.bodyExcerpt = bodyExcerpt;
+        this.retryable = retryable;
+    }
+
+    /**
+     * HTTP status of the response, or 0 if there was none
+     */
+    public int getStatusCode() { return statusCode; }
+
+    /**
+     * Up to the first kilobyte of the error body, empty if there was none
+     */
+    public String getBodyExcerpt() { return bodyExcerpt; }
+
+    /**
+     * Whether the same request can safely be sent again
+     */
+    public boolean isRetryable() { return retryable; }
+
+    /**
+     * Classify an unsuccessful response. The response is closed, so its connection returns to the pool.
+     */
+    static TybaApiException fromResponse(Response response) {
+        String excerpt;
+        try {
+            excerpt = response.peekBody(EXCERPT_BYTES).string();
+        } catch (IOException | RuntimeException e) {
+            excerpt = "";
+        } finally {
+            response.close();
+        }
+
+        int code = response.code();
+        String message = "Request failed with code: " + code + ", message: " + response.message();
+        boolean idempotent = isIdempotent(response.request());
+        if (code == 429) {
+            return new RateLimitedException(message, excerpt, RateLimitedException.retryAfter(response));
+        } else if (code == 408) {
+            return new RequestTimeoutException(message, code, excerpt, true, null);
+        } else if (code >= 500) {
+            // The server did not act on the request if it was unavailable or a gateway failed
+            boolean retryable = idempotent || code == 502 || code == 503 || code == 504;
+            return new ServerErrorException(message, code, excerpt, retryable);
+        } else if (code >= 400) {
+            return new ClientErrorException(message, code, excerpt);
+        }
+        return new TybaApiException(message, code, excerpt, false, null);
+    }
+
+    static boolean isIdempotent(Request request) {
+        return IDEMPOTENT_METHODS.contains(request.method());
+    }
+}
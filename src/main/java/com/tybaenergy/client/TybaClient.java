@@ -4,15 +4,39 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.CollectionType;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tybaenergy.client.model.DownloadResult;
 import okhttp3.*;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.GzipSource;
+import okio.HashingSink;
+import okio.Okio;
+import okio.Sink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * High level interface for interacting with Tyba's API.
@@ -22,12 +46,34 @@ public class TybaClient {
     
     private static final String DEFAULT_HOST = "https://dev.tybaenergy.com";
     private static final String DEFAULT_VERSION = "0.1";
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 8;
+    private static final ByteString GZIP_MAGIC = ByteString.of((byte) 0x1f, (byte) 0x8b);
+    private static final long COPY_SEGMENT = 64 * 1024;
+
+    /**
+     * How collection-valued query parameters are written
+     */
+    public enum CollectionFormat {
+        /**
+         * One query parameter per element, e.g. {@code metrics=a&metrics=b}
+         */
+        REPEAT,
+        /**
+         * A single comma-separated query parameter, e.g. {@code node_ids=a,b}
+         */
+        COMMA
+    }
     
     private final String personalAccessToken;
     private final String host;
     private final String version;
     private final OkHttpClient httpClient;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, CollectionFormat> collectionFormats;
+    private volatile boolean gzipRequestBodies;
     final ObjectMapper objectMapper;
+    private final TybaClient root;
+    private final RequestOptions options;
     
     private final Services services;
     private final Forecast forecast;
@@ -63,6 +109,9 @@ public class TybaClient {
         this.personalAccessToken = personalAccessToken;
         this.host = host;
         this.version = version;
+        this.root = this;
+        this.options = null;
+        this.collectionFormats = new ConcurrentHashMap<>();
         
         this.httpClient = new OkHttpClient.Builder()
                 .connectTimeout(30, TimeUnit.SECONDS)
@@ -70,12 +119,79 @@ public class TybaClient {
                 .writeTimeout(60, TimeUnit.SECONDS)
                 .build();
         
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                DEFAULT_MAX_CONCURRENT_REQUESTS, DEFAULT_MAX_CONCURRENT_REQUESTS,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "tyba-client-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         
         this.services = new Services(this);
         this.forecast = new Forecast(this);
         this.operations = new Operations(this);
+
+        setCollectionFormat("services/lmp/prices", CollectionFormat.COMMA);
+    }
+
+    /**
+     * A view of {@code root} whose requests use {@code options}
+     */
+    private TybaClient(TybaClient root, RequestOptions options) {
+        this.personalAccessToken = root.personalAccessToken;
+        this.host = root.host;
+        this.version = root.version;
+        this.root = root;
+        this.options = options;
+        this.collectionFormats = root.collectionFormats;
+        this.executor = root.executor;
+        this.objectMapper = root.objectMapper;
+
+        // Derived clients share the connection pool and dispatcher
+        OkHttpClient.Builder builder = root.httpClient.newBuilder();
+        if (options.getConnectTimeout() != null) {
+            builder.connectTimeout(options.getConnectTimeout());
+        }
+        if (options.getReadTimeout() != null) {
+            builder.readTimeout(options.getReadTimeout());
+        }
+        if (options.getCancellation() != null) {
+            builder.eventListenerFactory(Cancellation.ReleasingListener.FACTORY);
+        }
+        this.httpClient = builder.build();
+
+        this.services = new Services(this, root.services);
+        this.forecast = new Forecast(this);
+        this.operations = new Operations(this, root.operations);
+    }
+
+    /**
+     * A view of this client whose requests, including those made by bulk and background operations
+     * started through it, use the given deadlines and cancellation. Unset options keep this client's
+     * values. The view shares this client's connections, executor, settings and reference data cache;
+     * closing it has no effect, and closing this client closes it too.
+     *
+     * <pre>{@code
+     * Cancellation cancellation = new Cancellation();
+     * TybaClient interactive = client.withOptions(RequestOptions.builder()
+     *     .callTimeout(Duration.ofSeconds(5)).cancellation(cancellation).build());
+     * }</pre>
+     */
+    public TybaClient withOptions(RequestOptions options) {
+        return new TybaClient(root, options.orElse(this.options));
+    }
+
+    /**
+     * Options of this view, or null for a client created with a constructor
+     */
+    public RequestOptions getOptions() {
+        return options;
     }
 
     /**
@@ -120,6 +236,58 @@ public class TybaClient {
         return host + "/public/" + version + "/";
     }
 
+    /**
+     * Maximum number of requests this client's bulk and background operations run at once
+     */
+    public int getMaxConcurrentRequests() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * Set the maximum number of requests this client's bulk and background operations run at once
+     *
+     * @param maxConcurrentRequests a positive limit (default 8)
+     */
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("maxConcurrentRequests must be positive");
+        }
+        synchronized (executor) {
+            if (maxConcurrentRequests > executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(maxConcurrentRequests);
+                executor.setCorePoolSize(maxConcurrentRequests);
+            } else {
+                executor.setCorePoolSize(maxConcurrentRequests);
+                executor.setMaximumPoolSize(maxConcurrentRequests);
+            }
+        }
+    }
+
+    /**
+     * Executor for background and concurrent work issued on behalf of this client. Its pool size
+     * bounds how many requests the client runs at once.
+     */
+    ExecutorService executor() {
+        return executor;
+    }
+
+    /**
+     * Set how collection-valued query parameters are written for a route. Routes default to
+     * {@link CollectionFormat#REPEAT}.
+     *
+     * @param route the route as passed to {@link #get(String, Map)}, e.g. "services/lmp/prices"
+     */
+    public void setCollectionFormat(String route, CollectionFormat format) {
+        collectionFormats.put(route, Objects.requireNonNull(format, "format"));
+    }
+
+    /**
+     * How collection-valued query parameters are written for a route
+     */
+    public CollectionFormat getCollectionFormat(String route) {
+        return collectionFormats.getOrDefault(route, CollectionFormat.REPEAT);
+    }
+
     /**
      * Make a GET request to the API
      */
@@ -128,16 +296,16 @@ public class TybaClient {
     }
 
     /**
-     * Make a GET request to the API with query parameters
+     * Make a GET request to the API with query parameters. Collection values are written in the route's
+     * {@link CollectionFormat}; null values and null elements are left out.
      */
     public Response get(String route, Map<String, Object> params) throws IOException {
         HttpUrl.Builder urlBuilder = HttpUrl.parse(getBaseUrl() + route).newBuilder();
         
         if (params != null) {
+            CollectionFormat format = getCollectionFormat(route);
             for (Map.Entry<String, Object> entry : params.entrySet()) {
-                if (entry.getValue() != null) {
-                    urlBuilder.addQueryParameter(entry.getKey(), entry.getValue().toString());
-                }
+                addQueryParameter(urlBuilder, entry.getKey(), entry.getValue(), format);
             }
         }
         
@@ -148,73 +316,230 @@ public class TybaClient {
                 .build();
         
         logger.debug("GET {}", request.url());
-        return httpClient.newCall(request).execute();
+        return execute(request);
+    }
+
+    private static void addQueryParameter(HttpUrl.Builder urlBuilder, String name, Object value,
+                                          CollectionFormat format) {
+        if (value == null) {
+            return;
+        }
+        if (!(value instanceof Collection)) {
+            urlBuilder.addQueryParameter(name, value.toString());
+            return;
+        }
+        StringBuilder joined = new StringBuilder();
+        for (Object element : (Collection<?>) value) {
+            if (element == null) {
+                continue;
+            }
+            if (format == CollectionFormat.REPEAT) {
+                urlBuilder.addQueryParameter(name, element.toString());
+            } else {
+                joined.append(joined.length() > 0 ? "," : "").append(element);
+            }
+        }
+        if (joined.length() > 0) {
+            urlBuilder.addQueryParameter(name, joined.toString());
+        }
+    }
+
+    /**
+     * Whether POST bodies are sent gzip-compressed with {@code Content-Encoding: gzip}
+     *
+     * @param gzipRequestBodies true to compress (default false)
+     */
+    public void setGzipRequestBodies(boolean gzipRequestBodies) {
+        root.gzipRequestBodies = gzipRequestBodies;
     }
 
     /**
-     * Make a POST request to the API
+     * Make a POST request to the API. The payload is serialized as JSON, and is not logged. Payloads up to
+     * 64 KiB are sent with a {@code Content-Length}; larger or gzipped payloads are serialized directly
+     * into the request as it is sent.
      */
     public Response post(String route, Object jsonPayload) throws IOException {
-        String json = objectMapper.writeValueAsString(jsonPayload);
-        RequestBody body = RequestBody.create(json, MediaType.get("application/json"));
-        
-        Request request = new Request.Builder()
+        boolean gzip = root.gzipRequestBodies;
+        Request.Builder builder = new Request.Builder()
                 .url(getBaseUrl() + route)
                 .addHeader("Authorization", personalAccessToken)
-                .post(body)
-                .build();
+                .post(JsonRequestBody.create(objectMapper, jsonPayload, gzip));
+        if (gzip) {
+            builder.addHeader("Content-Encoding", "gzip");
+        }
+        Request request = builder.build();
         
-        logger.debug("POST {} with body: {}", request.url(), json);
-        return httpClient.newCall(request).execute();
+        logger.debug("POST {}{}", request.url(), gzip ? " (gzip)" : "");
+        return execute(request);
+    }
+
+    private Response execute(Request request) throws IOException {
+        Cancellation.Handle handle = null;
+        if (options != null && options.getCancellation() != null) {
+            handle = options.getCancellation().handle();
+            request = request.newBuilder().tag(Cancellation.Handle.class, handle).build();
+        }
+        Call call = httpClient.newCall(request);
+        if (options != null && options.getCallTimeout() != null) {
+            call.timeout().timeout(options.getCallTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        }
+        if (handle != null) {
+            handle.attach(call);
+        }
+        try {
+            return call.execute();
+        } catch (IOException e) {
+            if (handle != null) {
+                handle.release();
+            }
+            throw failure(request, e);
+        }
     }
 
     /**
-     * Parse JSON response into a specific type
+     * Map a failed call to a {@link RequestCancelledException} if it was cancelled, or to a
+     * {@link RequestTimeoutException} if it timed out
      */
-    public <T> T parseResponse(Response response, Class<T> clazz) throws IOException {
-        if (!response.isSuccessful()) {
-            throw new IOException("Request failed with code: " + response.code() + ", message: " + response.message());
+    private static IOException failure(Request request, IOException e) {
+        Cancellation.Handle handle = request.tag(Cancellation.Handle.class);
+        if (handle != null && handle.isCancelled()) {
+            RequestCancelledException cancelled = new RequestCancelledException(request.method() + " "
+                    + request.url().encodedPath() + " was cancelled");
+            cancelled.initCause(e);
+            return cancelled;
         }
-        
-        try (ResponseBody responseBody = response.body()) {
-            if (responseBody == null) {
-                throw new IOException("Empty response body");
-            }
-            return objectMapper.readValue(responseBody.string(), clazz);
+        return e instanceof InterruptedIOException ? timeout(request, (InterruptedIOException) e) : e;
+    }
+
+    /**
+     * Map an OkHttp timeout to a {@link RequestTimeoutException}. Interruption of the calling thread is
+     * returned as is.
+     */
+    private static IOException timeout(Request request, InterruptedIOException e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return e;
         }
+        return new RequestTimeoutException(request.method() + " " + request.url().encodedPath() + " timed out: "
+                + e.getMessage(), 0, "", TybaApiException.isIdempotent(request), e);
     }
 
     /**
-     * Parse JSON response into a List of specific type
+     * Reads a successful response body
      */
-    public <T> List<T> parseResponseList(Response response, Class<T> clazz) throws IOException {
+    @FunctionalInterface
+    interface BodyReader<T> {
+        T read(ResponseBody body) throws IOException;
+    }
+
+    /**
+     * Read the body of a response and release it on every path. An unsuccessful response is closed and
+     * thrown as a {@link TybaApiException}, and a timeout while reading as a
+     * {@link RequestTimeoutException}.
+     */
+    <T> T readBody(Response response, BodyReader<T> reader) throws IOException {
         if (!response.isSuccessful()) {
-            throw new IOException("Request failed with code: " + response.code() + ", message: " + response.message());
+            throw TybaApiException.fromResponse(response);
         }
-        
-        try (ResponseBody responseBody = response.body()) {
+        try (Response closing = response) {
+            ResponseBody responseBody = closing.body();
             if (responseBody == null) {
                 throw new IOException("Empty response body");
             }
-            CollectionType listType = TypeFactory.defaultInstance().constructCollectionType(List.class, clazz);
-            return objectMapper.readValue(responseBody.string(), listType);
+            return reader.read(responseBody);
+        } catch (IOException e) {
+            throw failure(response.request(), e);
         }
     }
 
+    /**
+     * Parse JSON response into a specific type
+     *
+     * @throws TybaApiException if the request failed; the response is released in every case
+     */
+    public <T> T parseResponse(Response response, Class<T> clazz) throws IOException {
+        return readBody(response, body -> objectMapper.readValue(body.byteStream(), clazz));
+    }
+
+    /**
+     * Parse JSON response into a List of specific type
+     *
+     * @throws TybaApiException if the request failed; the response is released in every case
+     */
+    public <T> List<T> parseResponseList(Response response, Class<T> clazz) throws IOException {
+        CollectionType listType = TypeFactory.defaultInstance().constructCollectionType(List.class, clazz);
+        return readBody(response, body -> objectMapper.readValue(body.byteStream(), listType));
+    }
+
     /**
      * Parse JSON response as raw string
+     *
+     * @throws TybaApiException if the request failed; the response is released in every case
      */
     public String parseResponseString(Response response) throws IOException {
-        if (!response.isSuccessful()) {
-            throw new IOException("Request failed with code: " + response.code() + ", message: " + response.message());
+        return readBody(response, ResponseBody::string);
+    }
+
+    /**
+     * Write a response body to a channel as it arrives, in bounded memory. The channel is not closed.
+     *
+     * @param decompress whether to gunzip a body that is itself gzip data
+     * @return the number of bytes written and their SHA-256
+     * @throws IOException if the request failed or the body cannot be read or written
+     */
+    public DownloadResult writeResponse(Response response, WritableByteChannel target, boolean decompress) throws IOException {
+        return readBody(response, responseBody -> copy(responseBody, target, decompress));
+    }
+
+    private static DownloadResult copy(ResponseBody responseBody, WritableByteChannel target,
+                                       boolean decompress) throws IOException {
+        BufferedSource source = responseBody.source();
+        if (decompress && source.request(GZIP_MAGIC.size()) && source.rangeEquals(0, GZIP_MAGIC)) {
+            source = Okio.buffer(new GzipSource(source));
         }
-        
-        try (ResponseBody responseBody = response.body()) {
-            if (responseBody == null) {
-                throw new IOException("Empty response body");
-            }
-            return responseBody.string();
+        Sink channelSink = Okio.sink(Channels.newOutputStream(target));
+        HashingSink hashingSink = HashingSink.sha256(channelSink);
+        Buffer buffer = new Buffer();
+        long total = 0;
+        for (long read; (read = source.read(buffer, COPY_SEGMENT)) != -1; ) {
+            hashingSink.write(buffer, read);
+            total += read;
         }
+        hashingSink.flush();
+        return new DownloadResult(total, hashingSink.hash().hex());
+    }
+
+    /**
+     * Write a response body to a file as it arrives, in bounded memory. The body is written to a temporary
+     * file next to the target, which replaces the target only once the body is complete.
+     *
+     * @param decompress whether to gunzip a body that is itself gzip data
+     * @return the number of bytes written and their SHA-256
+     * @throws IOException if the request failed or the body cannot be read or written
+     */
+    public DownloadResult writeResponse(Response response, Path target, boolean decompress) throws IOException {
+        // The file is set up inside the reader, so that a failure to create it still releases the response
+        return readBody(response, responseBody -> {
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = target.resolveSibling(target.getFileName() + ".part");
+            try {
+                DownloadResult result;
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    result = copy(responseBody, channel, decompress);
+                }
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                return result;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        });
     }
 
     /**
@@ -234,9 +559,13 @@ public class TybaClient {
     }
 
     /**
-     * Close the HTTP client
+     * Close the HTTP client and every view of it. Closing a view has no effect.
      */
     public void close() {
+        if (root != this) {
+            return;
+        }
+        executor.shutdownNow();
         httpClient.connectionPool().evictAll();
         if (httpClient.dispatcher().executorService() != null) {
             httpClient.dispatcher().executorService().shutdown();
@@ -0,0 +1,183 @@
+package com.tybaenergy.client.model;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Columnar cube of ancillary prices indexed by (ISO, service, market, region) over a single shared time
+ * axis.
+ *
+ * Prices are stored row-major in one array: the row for key index {@code k} occupies
+ * {@code [k * timeCount, (k + 1) * timeCount)}. Hours for which a series has no price are NaN.
+ *
+ * The time axis holds the epoch seconds of the API's datetimes read as UTC. Ancillary datetimes are
+ * local standard time labelled with "Z", so the axis values are labels in local standard time rather
+ * than true instants.
+ */
+public final class AncillaryPriceCube {
+    private final List<Key> keys;
+    private final Map<Key, Integer> keyIndex;
+    private final long[] epochSeconds;
+    private final double[] prices;
+
+    private AncillaryPriceCube(List<Key> keys, long[] epochSeconds, double[] prices) {
+        this.keys = Collections.unmodifiableList(keys);
+        this.keyIndex = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            keyIndex.put(keys.get(i), i);
+        }
+        this.epochSeconds = epochSeconds;
+        this.prices = prices;
+    }
+
+    /**
+     * Build a cube from individual price series. The time axis is the sorted union of all series'
+     * datetimes.
+     *
+     * @param series price series by key, in the order the keys should appear in the cube
+     */
+    public static AncillaryPriceCube of(Map<Key, PriceTimeSeries> series) {
+        List<Key> keys = new ArrayList<>(series.size());
+        List<long[]> times = new ArrayList<>(series.size());
+        int total = 0;
+        for (Map.Entry<Key, PriceTimeSeries> entry : series.entrySet()) {
+            keys.add(entry.getKey());
+            List<String> datetimes = entry.getValue().getDatetimes();
+            long[] parsed = datetimes == null ? new long[0] : Timestamps.parseEpochSeconds(datetimes, ZoneOffset.UTC);
+            times.add(parsed);
+            total += parsed.length;
+        }
+
+        long[] axis = new long[total];
+        int position = 0;
+        for (long[] parsed : times) {
+            System.arraycopy(parsed, 0, axis, position, parsed.length);
+            position += parsed.length;
+        }
+        Arrays.sort(axis);
+        int unique = 0;
+        for (int i = 0; i < axis.length; i++) {
+            if (i == 0 || axis[i] != axis[unique - 1]) {
+                axis[unique++] = axis[i];
+            }
+        }
+        axis = Arrays.copyOf(axis, unique);
+
+        double[] prices = new double[keys.size() * unique];
+        Arrays.fill(prices, Double.NaN);
+        int row = 0;
+        for (PriceTimeSeries priceSeries : series.values()) {
+            long[] parsed = times.get(row);
+            List<Double> values = priceSeries.getPrices();
+            for (int i = 0; i < parsed.length && values != null && i < values.size(); i++) {
+                Double value = values.get(i);
+                if (value != null) {
+                    prices[row * unique + Arrays.binarySearch(axis, parsed[i])] = value;
+                }
+            }
+            row++;
+        }
+        return new AncillaryPriceCube(keys, axis, prices);
+    }
+
+    /**
+     * Keys in row order
+     */
+    public List<Key> getKeys() { return keys; }
+
+    /**
+     * Number of (ISO, service, market, region) rows
+     */
+    public int getKeyCount() { return keys.size(); }
+
+    /**
+     * Number of points on the shared time axis
+     */
+    public int getTimeCount() { return epochSeconds.length; }
+
+    /**
+     * Shared time axis in epoch seconds. The array is not copied and must not be modified.
+     */
+    public long[] getEpochSeconds() { return epochSeconds; }
+
+    /**
+     * All prices, row-major by key. The array is not copied and must not be modified.
+     */
+    public double[] getPrices() { return prices; }
+
+    /**
+     * Row index of a key, or -1 if it is not in the cube
+     */
+    public int indexOf(String iso, AncillaryService service, Market market, String region) {
+        Integer index = keyIndex.get(new Key(iso, service, market, region));
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Price for a row at a point on the time axis, NaN if missing
+     */
+    public double getPrice(int keyIndex, int timeIndex) {
+        return prices[keyIndex * epochSeconds.length + timeIndex];
+    }
+
+    /**
+     * Copy of the prices for one key along the shared time axis
+     *
+     * @throws IllegalArgumentException if the key is not in the cube
+     */
+    public double[] getPrices(String iso, AncillaryService service, Market market, String region) {
+        int index = indexOf(iso, service, market, region);
+        if (index < 0) {
+            throw new IllegalArgumentException("No prices for " + new Key(iso, service, market, region));
+        }
+        int start = index * epochSeconds.length;
+        return Arrays.copyOfRange(prices, start, start + epochSeconds.length);
+    }
+
+    /**
+     * Identifies one ancillary price series
+     */
+    public static final class Key {
+        private final String iso;
+        private final AncillaryService service;
+        private final Market market;
+        private final String region;
+
+        public Key(String iso, AncillaryService service, Market market, String region) {
+            this.iso = iso;
+            this.service = service;
+            this.market = market;
+            this.region = region;
+        }
+
+        public String getIso() { return iso; }
+        public AncillaryService getService() { return service; }
+        public Market getMarket() { return market; }
+        public String getRegion() { return region; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return Objects.equals(iso, other.iso) && service == other.service && market == other.market
+                    && Objects.equals(region, other.region);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(iso, service, market, region);
+        }
+
+        @Override
+        public String toString() {
+            return iso + "/" + service + "/" + market + "/" + region;
+        }
+    }
+}
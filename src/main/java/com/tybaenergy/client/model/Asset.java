@@ -0,0 +1,69 @@
+package com.tybaenergy.client.model;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Schema for an asset returned by {@code Operations.getAssets}
+ */
+public class Asset {
+    /**
+     * Unique name of the asset
+     */
+    @JsonProperty("name")
+    @JsonAlias("asset_name")
+    private String name;
+
+    /**
+     * Human-readable name of the asset
+     */
+    @JsonProperty("display_name")
+    @JsonAlias("asset_display_name")
+    private String displayName;
+
+    /**
+     * ID of the organization owning the asset
+     */
+    @JsonProperty("org_id")
+    private String orgId;
+
+    /**
+     * All other fields of the asset, as returned by the API
+     */
+    private final Map<String, JsonNode> properties = new LinkedHashMap<>();
+
+    public Asset() {}
+
+    public Asset(String name, String displayName, String orgId) {
+        this.name = name;
+        this.displayName = displayName;
+        this.orgId = orgId;
+    }
+
+    public String getName() { return name; }
+    public String getDisplayName() { return displayName; }
+    public String getOrgId() { return orgId; }
+
+    @JsonAnyGetter
+    public Map<String, JsonNode> getProperties() { return Collections.unmodifiableMap(properties); }
+
+    /**
+     * Another field of the asset, or null if absent
+     */
+    public JsonNode getProperty(String field) { return properties.get(field); }
+
+    @JsonAnySetter
+    void setProperty(String field, JsonNode value) { properties.put(field, value); }
+
+    @Override
+    public String toString() {
+        return "Asset{name='" + name + "', displayName='" + displayName + "', orgId='" + orgId + "'}";
+    }
+}
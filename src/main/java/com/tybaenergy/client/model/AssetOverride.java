@@ -0,0 +1,59 @@
+package com.tybaenergy.client.model;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * One asset override to apply in bulk: the arguments of {@code Operations.setAssetOverrides} for a
+ * single asset
+ */
+public final class AssetOverride {
+    private final String assetName;
+    private final String field;
+    private final String aggregation;
+    private final Object values;
+    private final String service;
+    private final LocalDate date;
+
+    /**
+     * @param assetName the asset to override
+     * @param field the field to override
+     * @param aggregation aggregation type ("global", "single_day", "single_day_hourly", "12x24")
+     * @param values the values to set
+     * @param service optional service name, or null
+     * @param date optional date (required for some aggregation types), or null
+     */
+    public AssetOverride(String assetName, String field, String aggregation, Object values, String service,
+                         LocalDate date) {
+        this.assetName = Objects.requireNonNull(assetName, "assetName");
+        this.field = Objects.requireNonNull(field, "field");
+        this.aggregation = Objects.requireNonNull(aggregation, "aggregation");
+        this.values = values;
+        this.service = service;
+        this.date = date;
+    }
+
+    public AssetOverride(String assetName, String field, String aggregation, Object values) {
+        this(assetName, field, aggregation, values, null, null);
+    }
+
+    public String getAssetName() { return assetName; }
+    public String getField() { return field; }
+    public String getAggregation() { return aggregation; }
+    public Object getValues() { return values; }
+    public String getService() { return service; }
+    public LocalDate getDate() { return date; }
+
+    /**
+     * Identifies what this override replaces on its asset: overrides of the same field, service,
+     * aggregation and date overwrite each other
+     */
+    public String slot() {
+        return assetName + "|" + field + "|" + service + "|" + aggregation + "|" + date;
+    }
+
+    @Override
+    public String toString() {
+        return "AssetOverride[" + slot() + "]";
+    }
+}
@@ -0,0 +1,62 @@
+package com.tybaenergy.client.model;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Outcome of one item of a batch request: either a value or the error that item failed with. A failing
+ * item does not affect the other items of the batch.
+ *
+ * @param <T> type of the value
+ */
+public final class BatchResult<T> {
+    private final T value;
+    private final Exception error;
+
+    private BatchResult(T value, Exception error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    public static <T> BatchResult<T> success(T value) {
+        return new BatchResult<>(value, null);
+    }
+
+    public static <T> BatchResult<T> failure(Exception error) {
+        return new BatchResult<>(null, Objects.requireNonNull(error, "error"));
+    }
+
+    /**
+     * Whether the item succeeded
+     */
+    public boolean isSuccess() { return error == null; }
+
+    /**
+     * The value, or null if the item failed
+     */
+    public T getValue() { return value; }
+
+    /**
+     * The error the item failed with, or null if it succeeded
+     */
+    public Exception getError() { return error; }
+
+    /**
+     * The value, rethrowing the item's error if it failed
+     *
+     * @throws IOException the item's error, wrapped if it was not an IOException
+     */
+    public T get() throws IOException {
+        if (error == null) {
+            return value;
+        } else if (error instanceof IOException) {
+            throw (IOException) error;
+        }
+        throw new IOException(error);
+    }
+
+    @Override
+    public String toString() {
+        return error == null ? "BatchResult[" + value + "]" : "BatchResult[error=" + error + "]";
+    }
+}
@@ -0,0 +1,288 @@
+package com.tybaenergy.client.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Immutable snapshot of Tyba's reference data: the available ISOs, the nodes within each ISO and the
+ * ancillary pricing regions for each ISO, service and market.
+ *
+ * Snapshots can be written to and read from a compact, versioned binary format so that clients can
+ * start from a local copy instead of re-fetching the catalog from the API.
+ */
+public final class CatalogSnapshot {
+    private static final int MAGIC = 0x54594243; // "TYBC"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HAS_NAME = 1;
+    private static final int HAS_ID = 1 << 1;
+    private static final int HAS_ZONE = 1 << 2;
+    private static final int HAS_TYPE = 1 << 3;
+    private static final int HAS_DA_START = 1 << 4;
+    private static final int HAS_DA_END = 1 << 5;
+    private static final int HAS_RT_START = 1 << 6;
+    private static final int HAS_RT_END = 1 << 7;
+    private static final int HAS_SUBSTATION = 1 << 8;
+
+    private static final int HAS_REGION = 1;
+    private static final int HAS_START_YEAR = 1 << 1;
+    private static final int HAS_END_YEAR = 1 << 2;
+
+    private final Instant createdAt;
+    private final List<String> isos;
+    private final Map<String, List<NodeData>> nodesByIso;
+    private final Map<String, List<AncillaryRegionData>> regionsByKey;
+
+    private CatalogSnapshot(Instant createdAt, List<String> isos, Map<String, List<NodeData>> nodesByIso,
+                            Map<String, List<AncillaryRegionData>> regionsByKey) {
+        this.createdAt = createdAt;
+        this.isos = isos;
+        this.nodesByIso = nodesByIso;
+        this.regionsByKey = regionsByKey;
+    }
+
+    /**
+     * Create a new builder for a snapshot
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Time at which the snapshot data was fetched from the API
+     */
+    public Instant getCreatedAt() { return createdAt; }
+
+    /**
+     * All ISOs represented in the snapshot
+     */
+    public List<String> getIsos() { return isos; }
+
+    /**
+     * Nodes for the given ISO, or an empty list if the ISO is not in the snapshot
+     */
+    public List<NodeData> getNodes(String iso) {
+        return nodesByIso.getOrDefault(iso, Collections.emptyList());
+    }
+
+    /**
+     * Ancillary pricing regions for the given ISO, service and market, or null if that combination
+     * was not captured in the snapshot
+     */
+    public List<AncillaryRegionData> getPricingRegions(String iso, AncillaryService service, Market market) {
+        return regionsByKey.get(regionKey(iso, service, market));
+    }
+
+    /**
+     * Write the snapshot in its binary format
+     *
+     * @param out stream to write to; it is not closed
+     * @throws IOException if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeShort(FORMAT_VERSION);
+        header.flush();
+
+        DeflaterOutputStream deflater = new DeflaterOutputStream(out);
+        DataOutputStream data = new DataOutputStream(deflater);
+        data.writeLong(createdAt.toEpochMilli());
+
+        data.writeInt(isos.size());
+        for (String iso : isos) {
+            data.writeUTF(iso);
+        }
+
+        data.writeInt(nodesByIso.size());
+        for (Map.Entry<String, List<NodeData>> entry : nodesByIso.entrySet()) {
+            data.writeUTF(entry.getKey());
+            data.writeInt(entry.getValue().size());
+            for (NodeData node : entry.getValue()) {
+                writeNode(data, node);
+            }
+        }
+
+        data.writeInt(regionsByKey.size());
+        for (Map.Entry<String, List<AncillaryRegionData>> entry : regionsByKey.entrySet()) {
+            data.writeUTF(entry.getKey());
+            data.writeInt(entry.getValue().size());
+            for (AncillaryRegionData region : entry.getValue()) {
+                writeRegion(data, region);
+            }
+        }
+
+        data.flush();
+        deflater.finish();
+    }
+
+    /**
+     * Read a snapshot previously written with {@link #writeTo(OutputStream)}
+     *
+     * @param in stream to read from; it is not closed
+     * @return the decoded snapshot
+     * @throws IOException if the data is not a snapshot or was written in an unsupported format version
+     */
+    public static CatalogSnapshot readFrom(InputStream in) throws IOException {
+        DataInputStream header = new DataInputStream(in);
+        if (header.readInt() != MAGIC) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        int version = header.readUnsignedShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported catalog snapshot version: " + version);
+        }
+
+        DataInputStream data = new DataInputStream(new InflaterInputStream(in));
+        Builder builder = builder().createdAt(Instant.ofEpochMilli(data.readLong()));
+
+        int isoCount = data.readInt();
+        List<String> isos = new ArrayList<>(isoCount);
+        for (int i = 0; i < isoCount; i++) {
+            isos.add(data.readUTF());
+        }
+        builder.isos(isos);
+
+        int nodeIsoCount = data.readInt();
+        for (int i = 0; i < nodeIsoCount; i++) {
+            String iso = data.readUTF();
+            int count = data.readInt();
+            List<NodeData> nodes = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                nodes.add(readNode(data));
+            }
+            builder.nodesByIso.put(iso, nodes);
+        }
+
+        int regionKeyCount = data.readInt();
+        for (int i = 0; i < regionKeyCount; i++) {
+            String key = data.readUTF();
+            int count = data.readInt();
+            List<AncillaryRegionData> regions = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                regions.add(readRegion(data));
+            }
+            builder.regionsByKey.put(key, regions);
+        }
+
+        return builder.build();
+    }
+
+    private static String regionKey(String iso, AncillaryService service, Market market) {
+        return iso + "|" + service.getValue() + "|" + market.getValue();
+    }
+
+    private static void writeNode(DataOutputStream data, NodeData node) throws IOException {
+        int flags = 0;
+        if (node.getName() != null) flags |= HAS_NAME;
+        if (node.getId() != null) flags |= HAS_ID;
+        if (node.getZone() != null) flags |= HAS_ZONE;
+        if (node.getType() != null) flags |= HAS_TYPE;
+        if (node.getDaStartYear() != null) flags |= HAS_DA_START;
+        if (node.getDaEndYear() != null) flags |= HAS_DA_END;
+        if (node.getRtStartYear() != null) flags |= HAS_RT_START;
+        if (node.getRtEndYear() != null) flags |= HAS_RT_END;
+        if (node.getSubstation() != null) flags |= HAS_SUBSTATION;
+
+        data.writeShort(flags);
+        if (node.getName() != null) data.writeUTF(node.getName());
+        if (node.getId() != null) data.writeUTF(node.getId());
+        if (node.getZone() != null) data.writeUTF(node.getZone());
+        if (node.getType() != null) data.writeUTF(node.getType().name());
+        if (node.getDaStartYear() != null) data.writeDouble(node.getDaStartYear());
+        if (node.getDaEndYear() != null) data.writeDouble(node.getDaEndYear());
+        if (node.getRtStartYear() != null) data.writeInt(node.getRtStartYear());
+        if (node.getRtEndYear() != null) data.writeInt(node.getRtEndYear());
+        if (node.getSubstation() != null) data.writeUTF(node.getSubstation());
+    }
+
+    private static NodeData readNode(DataInputStream data) throws IOException {
+        int flags = data.readUnsignedShort();
+        NodeData node = new NodeData();
+        if ((flags & HAS_NAME) != 0) node.setName(data.readUTF());
+        if ((flags & HAS_ID) != 0) node.setId(data.readUTF());
+        if ((flags & HAS_ZONE) != 0) node.setZone(data.readUTF());
+        if ((flags & HAS_TYPE) != 0) node.setType(NodeType.valueOf(data.readUTF()));
+        if ((flags & HAS_DA_START) != 0) node.setDaStartYear(data.readDouble());
+        if ((flags & HAS_DA_END) != 0) node.setDaEndYear(data.readDouble());
+        if ((flags & HAS_RT_START) != 0) node.setRtStartYear(data.readInt());
+        if ((flags & HAS_RT_END) != 0) node.setRtEndYear(data.readInt());
+        if ((flags & HAS_SUBSTATION) != 0) node.setSubstation(data.readUTF());
+        return node;
+    }
+
+    private static void writeRegion(DataOutputStream data, AncillaryRegionData region) throws IOException {
+        int flags = 0;
+        if (region.getRegion() != null) flags |= HAS_REGION;
+        if (region.getStartYear() != null) flags |= HAS_START_YEAR;
+        if (region.getEndYear() != null) flags |= HAS_END_YEAR;
+
+        data.writeByte(flags);
+        if (region.getRegion() != null) data.writeUTF(region.getRegion());
+        if (region.getStartYear() != null) data.writeInt(region.getStartYear());
+        if (region.getEndYear() != null) data.writeInt(region.getEndYear());
+    }
+
+    private static AncillaryRegionData readRegion(DataInputStream data) throws IOException {
+        int flags = data.readUnsignedByte();
+        AncillaryRegionData region = new AncillaryRegionData();
+        if ((flags & HAS_REGION) != 0) region.setRegion(data.readUTF());
+        if ((flags & HAS_START_YEAR) != 0) region.setStartYear(data.readInt());
+        if ((flags & HAS_END_YEAR) != 0) region.setEndYear(data.readInt());
+        return region;
+    }
+
+    /**
+     * Builder for {@link CatalogSnapshot}
+     */
+    public static final class Builder {
+        private Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        private List<String> isos = Collections.emptyList();
+        private final Map<String, List<NodeData>> nodesByIso = new LinkedHashMap<>();
+        private final Map<String, List<AncillaryRegionData>> regionsByKey = new LinkedHashMap<>();
+
+        private Builder() {}
+
+        public Builder createdAt(Instant createdAt) {
+            this.createdAt = createdAt.truncatedTo(ChronoUnit.MILLIS);
+            return this;
+        }
+
+        public Builder isos(List<String> isos) {
+            this.isos = isos;
+            return this;
+        }
+
+        public Builder nodes(String iso, List<NodeData> nodes) {
+            nodesByIso.put(iso, nodes);
+            return this;
+        }
+
+        public Builder pricingRegions(String iso, AncillaryService service, Market market,
+                                      List<AncillaryRegionData> regions) {
+            regionsByKey.put(regionKey(iso, service, market), regions);
+            return this;
+        }
+
+        public CatalogSnapshot build() {
+            Map<String, List<NodeData>> nodes = new LinkedHashMap<>();
+            nodesByIso.forEach((iso, list) -> nodes.put(iso, List.copyOf(list)));
+            Map<String, List<AncillaryRegionData>> regions = new LinkedHashMap<>();
+            regionsByKey.forEach((key, list) -> regions.put(key, List.copyOf(list)));
+            return new CatalogSnapshot(createdAt, List.copyOf(isos),
+                    Collections.unmodifiableMap(nodes), Collections.unmodifiableMap(regions));
+        }
+    }
+}
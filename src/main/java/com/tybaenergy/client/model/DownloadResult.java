@@ -0,0 +1,29 @@
+package com.tybaenergy.client.model;
+
+/**
+ * Size and content hash of a response body written to a file or channel
+ */
+public final class DownloadResult {
+    private final long byteCount;
+    private final String sha256;
+
+    public DownloadResult(long byteCount, String sha256) {
+        this.byteCount = byteCount;
+        this.sha256 = sha256;
+    }
+
+    /**
+     * Number of bytes written, after any decompression
+     */
+    public long getByteCount() { return byteCount; }
+
+    /**
+     * Lowercase hex SHA-256 of the bytes written
+     */
+    public String getSha256() { return sha256; }
+
+    @Override
+    public String toString() {
+        return "DownloadResult[" + byteCount + " bytes, sha256=" + sha256 + "]";
+    }
+}
@@ -0,0 +1,124 @@
+package com.tybaenergy.client.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Performance reports of a fleet of assets with fleet-wide aggregates.
+ *
+ * Every numeric value of an asset's report is indexed by its path, with nested object fields joined by
+ * dots (e.g. {@code revenue.energy}); arrays are not indexed. Totals sum each path over the assets whose
+ * report has it, and rankings order assets by one path.
+ */
+public final class FleetReport {
+    private final Map<String, BatchResult<JsonNode>> reports;
+    private final Map<String, Map<String, Double>> metrics = new LinkedHashMap<>();
+
+    /**
+     * @param reports each asset's report or failure, in the order assets should be listed
+     */
+    public FleetReport(Map<String, BatchResult<JsonNode>> reports) {
+        this.reports = Collections.unmodifiableMap(new LinkedHashMap<>(reports));
+        for (Map.Entry<String, BatchResult<JsonNode>> entry : this.reports.entrySet()) {
+            if (entry.getValue().isSuccess()) {
+                metrics.put(entry.getKey(), metrics(entry.getValue().getValue()));
+            }
+        }
+    }
+
+    /**
+     * Numeric values of a report by dotted path
+     */
+    public static Map<String, Double> metrics(JsonNode report) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        flatten("", report, values);
+        return values;
+    }
+
+    private static void flatten(String prefix, JsonNode node, Map<String, Double> values) {
+        if (node.isNumber()) {
+            values.put(prefix, node.asDouble());
+        } else if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                flatten(prefix.isEmpty() ? field.getKey() : prefix + "." + field.getKey(), field.getValue(), values);
+            }
+        }
+    }
+
+    /**
+     * Each asset's report or failure
+     */
+    public Map<String, BatchResult<JsonNode>> getReports() { return reports; }
+
+    /**
+     * Names of the assets whose report failed
+     */
+    public List<String> getFailedAssets() {
+        List<String> failed = new ArrayList<>();
+        reports.forEach((asset, result) -> {
+            if (!result.isSuccess()) {
+                failed.add(asset);
+            }
+        });
+        return failed;
+    }
+
+    /**
+     * Numeric values of one asset's report by path, empty if it failed or is unknown
+     */
+    public Map<String, Double> getMetrics(String assetName) {
+        return Collections.unmodifiableMap(metrics.getOrDefault(assetName, Map.of()));
+    }
+
+    /**
+     * Sum of every path over the assets whose report has it
+     */
+    public Map<String, Double> getTotals() {
+        Map<String, Double> totals = new LinkedHashMap<>();
+        for (Map<String, Double> values : metrics.values()) {
+            values.forEach((path, value) -> totals.merge(path, value, Double::sum));
+        }
+        return totals;
+    }
+
+    /**
+     * Sum of one path over the assets whose report has it, 0 if none has
+     */
+    public double getTotal(String path) {
+        double total = 0;
+        for (Map<String, Double> values : metrics.values()) {
+            Double value = values.get(path);
+            if (value != null) {
+                total += value;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Assets whose report has a path, ordered by its value
+     *
+     * @param descending true to list the largest value first
+     */
+    public List<String> rank(String path, boolean descending) {
+        Comparator<String> byValue = Comparator.comparingDouble(asset -> metrics.get(asset).get(path));
+        List<String> ranked = new ArrayList<>();
+        metrics.forEach((asset, values) -> {
+            Double value = values.get(path);
+            if (value != null && !value.isNaN()) {
+                ranked.add(asset);
+            }
+        });
+        ranked.sort(descending ? byValue.reversed() : byValue);
+        return ranked;
+    }
+}
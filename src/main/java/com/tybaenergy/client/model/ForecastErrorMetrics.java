@@ -0,0 +1,185 @@
+package com.tybaenergy.client.model;
+
+import java.util.Arrays;
+
+/**
+ * Running forecast error statistics, bucketed by lead time (target time minus forecast time).
+ *
+ * Point metrics (MAE, RMSE, bias) are computed on the forecast value, or on the 0.5 quantile of a
+ * probabilistic forecast if it has one. Pinball loss is kept per quantile level. Bias is the mean of
+ * forecast minus actual. Accumulators hold only per-bucket sums, so their size does not depend on how
+ * many points they have seen.
+ */
+public final class ForecastErrorMetrics {
+    private final double[] quantiles;
+    private final long leadBucketSeconds;
+    private final int medianIndex;
+
+    private long[] counts = new long[0];
+    private double[] absoluteErrors = new double[0];
+    private double[] squaredErrors = new double[0];
+    private double[] errors = new double[0];
+    private long[] quantileCounts = new long[0];
+    private double[] pinballLosses = new double[0];
+
+    /**
+     * @param quantiles quantile levels in ascending order, empty for point forecasts
+     * @param leadBucketSeconds width of each lead-time bucket
+     */
+    public ForecastErrorMetrics(double[] quantiles, long leadBucketSeconds) {
+        if (leadBucketSeconds <= 0) {
+            throw new IllegalArgumentException("leadBucketSeconds must be positive");
+        }
+        this.quantiles = quantiles.clone();
+        this.leadBucketSeconds = leadBucketSeconds;
+        this.medianIndex = Arrays.binarySearch(this.quantiles, 0.5);
+    }
+
+    /**
+     * Add one point forecast and its actual value. Pairs with a NaN or a negative lead time are ignored.
+     *
+     * @param leadSeconds target time minus forecast time
+     */
+    public void add(long leadSeconds, double forecast, double actual) {
+        if (leadSeconds < 0 || Double.isNaN(forecast) || Double.isNaN(actual)) {
+            return;
+        }
+        int bucket = bucket(leadSeconds);
+        addPoint(bucket, forecast - actual);
+    }
+
+    /**
+     * Add the quantile values of one probabilistic forecast and its actual value
+     *
+     * @param leadSeconds target time minus forecast time
+     * @param values one value per quantile level, NaN where missing
+     */
+    public void addQuantiles(long leadSeconds, double[] values, double actual) {
+        if (leadSeconds < 0 || Double.isNaN(actual)) {
+            return;
+        }
+        int bucket = bucket(leadSeconds);
+        int offset = bucket * quantiles.length;
+        for (int q = 0; q < quantiles.length; q++) {
+            double value = values[q];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            double residual = actual - value;
+            pinballLosses[offset + q] += residual >= 0 ? quantiles[q] * residual : (quantiles[q] - 1) * residual;
+            quantileCounts[offset + q]++;
+        }
+        if (medianIndex >= 0 && !Double.isNaN(values[medianIndex])) {
+            addPoint(bucket, values[medianIndex] - actual);
+        }
+    }
+
+    /**
+     * Add all counts and sums of another accumulator with the same quantiles and bucket width
+     */
+    public void merge(ForecastErrorMetrics other) {
+        if (!Arrays.equals(quantiles, other.quantiles) || leadBucketSeconds != other.leadBucketSeconds) {
+            throw new IllegalArgumentException("Cannot merge metrics with different quantiles or buckets");
+        }
+        if (other.counts.length > 0) {
+            ensureBuckets(other.counts.length - 1);
+        }
+        for (int b = 0; b < other.counts.length; b++) {
+            counts[b] += other.counts[b];
+            absoluteErrors[b] += other.absoluteErrors[b];
+            squaredErrors[b] += other.squaredErrors[b];
+            errors[b] += other.errors[b];
+        }
+        for (int i = 0; i < other.pinballLosses.length; i++) {
+            quantileCounts[i] += other.quantileCounts[i];
+            pinballLosses[i] += other.pinballLosses[i];
+        }
+    }
+
+    public double[] getQuantiles() { return quantiles.clone(); }
+
+    public long getLeadBucketSeconds() { return leadBucketSeconds; }
+
+    /**
+     * Number of lead-time buckets, up to the largest lead seen
+     */
+    public int getBucketCount() { return counts.length; }
+
+    /**
+     * Smallest lead time in seconds falling in a bucket
+     */
+    public long getBucketStartSeconds(int bucket) { return bucket * leadBucketSeconds; }
+
+    /**
+     * Number of pairs counted in the point metrics of a bucket
+     */
+    public long getCount(int bucket) { return counts[bucket]; }
+
+    public double getMae(int bucket) { return mean(absoluteErrors[bucket], counts[bucket]); }
+
+    public double getRmse(int bucket) { return Math.sqrt(mean(squaredErrors[bucket], counts[bucket])); }
+
+    public double getBias(int bucket) { return mean(errors[bucket], counts[bucket]); }
+
+    /**
+     * Mean pinball loss of a quantile column within a bucket, NaN if no pair was seen
+     */
+    public double getPinballLoss(int bucket, int quantile) {
+        int index = bucket * quantiles.length + quantile;
+        return mean(pinballLosses[index], quantileCounts[index]);
+    }
+
+    /**
+     * Number of pairs counted in the point metrics across all buckets
+     */
+    public long getCount() { return Arrays.stream(counts).sum(); }
+
+    public double getMae() { return mean(Arrays.stream(absoluteErrors).sum(), getCount()); }
+
+    public double getRmse() { return Math.sqrt(mean(Arrays.stream(squaredErrors).sum(), getCount())); }
+
+    public double getBias() { return mean(Arrays.stream(errors).sum(), getCount()); }
+
+    /**
+     * Mean pinball loss of a quantile column across all buckets, NaN if no pair was seen
+     */
+    public double getPinballLoss(int quantile) {
+        double loss = 0;
+        long count = 0;
+        for (int b = 0; b < counts.length; b++) {
+            loss += pinballLosses[b * quantiles.length + quantile];
+            count += quantileCounts[b * quantiles.length + quantile];
+        }
+        return mean(loss, count);
+    }
+
+    private void addPoint(int bucket, double error) {
+        counts[bucket]++;
+        absoluteErrors[bucket] += Math.abs(error);
+        squaredErrors[bucket] += error * error;
+        errors[bucket] += error;
+    }
+
+    private int bucket(long leadSeconds) {
+        int bucket = Math.toIntExact(leadSeconds / leadBucketSeconds);
+        ensureBuckets(bucket);
+        return bucket;
+    }
+
+    private void ensureBuckets(int bucket) {
+        if (bucket < counts.length) {
+            return;
+        }
+        int size = bucket + 1;
+        counts = Arrays.copyOf(counts, size);
+        absoluteErrors = Arrays.copyOf(absoluteErrors, size);
+        squaredErrors = Arrays.copyOf(squaredErrors, size);
+        errors = Arrays.copyOf(errors, size);
+        quantileCounts = Arrays.copyOf(quantileCounts, size * quantiles.length);
+        pinballLosses = Arrays.copyOf(pinballLosses, size * quantiles.length);
+    }
+
+    private static double mean(double sum, long count) {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+}
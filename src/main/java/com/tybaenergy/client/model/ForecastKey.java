@@ -0,0 +1,50 @@
+package com.tybaenergy.client.model;
+
+import java.util.Objects;
+
+/**
+ * Identifies one forecast series requested in a batch: an object, a product and an optional forecast type
+ */
+public final class ForecastKey {
+    private final String objectName;
+    private final String product;
+    private final String forecastType;
+
+    /**
+     * @param objectName the object name, e.g. a hub or node
+     * @param product the product type
+     * @param forecastType optional forecast type, or null
+     */
+    public ForecastKey(String objectName, String product, String forecastType) {
+        this.objectName = Objects.requireNonNull(objectName, "objectName");
+        this.product = Objects.requireNonNull(product, "product");
+        this.forecastType = forecastType;
+    }
+
+    public ForecastKey(String objectName, String product) {
+        this(objectName, product, null);
+    }
+
+    public String getObjectName() { return objectName; }
+    public String getProduct() { return product; }
+    public String getForecastType() { return forecastType; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ForecastKey)) return false;
+        ForecastKey other = (ForecastKey) o;
+        return objectName.equals(other.objectName) && product.equals(other.product)
+                && Objects.equals(forecastType, other.forecastType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(objectName, product, forecastType);
+    }
+
+    @Override
+    public String toString() {
+        return forecastType == null ? objectName + "/" + product : objectName + "/" + product + "/" + forecastType;
+    }
+}
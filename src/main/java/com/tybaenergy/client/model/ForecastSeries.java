@@ -0,0 +1,203 @@
+package com.tybaenergy.client.model;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Typed, columnar form of a forecast or actuals response: target times, forecast (vintage) times and
+ * values as primitive arrays, one entry per row of the API response.
+ *
+ * Responses are bound by a streaming deserializer that reads the JSON tokens straight into the arrays,
+ * without building a JSON tree. Every row must have a {@code datetime}. Times are epoch seconds. The arrays returned by the getters are not
+ * copied and must not be modified.
+ */
+@JsonDeserialize(using = ForecastSeries.Deserializer.class)
+public final class ForecastSeries {
+    /**
+     * Marker for a row without a forecasted_at time, e.g. in actuals
+     */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private final long[] datetimes;
+    private final long[] forecastedAt;
+    private final double[] values;
+    private final String[] forecastTypes;
+
+    /**
+     * @param datetimes target times in epoch seconds
+     * @param forecastedAt forecast times in epoch seconds, {@link #NO_TIME} where absent
+     * @param values forecast or actual values, NaN where null
+     * @param forecastTypes forecast type per row, null where absent
+     */
+    public ForecastSeries(long[] datetimes, long[] forecastedAt, double[] values, String[] forecastTypes) {
+        if (forecastedAt.length != datetimes.length || values.length != datetimes.length
+                || forecastTypes.length != datetimes.length) {
+            throw new IllegalArgumentException("All columns must have the same length");
+        }
+        this.datetimes = datetimes;
+        this.forecastedAt = forecastedAt;
+        this.values = values;
+        this.forecastTypes = forecastTypes;
+    }
+
+    /**
+     * Number of rows
+     */
+    public int size() { return datetimes.length; }
+
+    /**
+     * Target times in epoch seconds
+     */
+    public long[] getDatetimes() { return datetimes; }
+
+    /**
+     * Forecast (vintage) times in epoch seconds, {@link #NO_TIME} for rows without one
+     */
+    public long[] getForecastedAt() { return forecastedAt; }
+
+    /**
+     * Values, NaN for null values
+     */
+    public double[] getValues() { return values; }
+
+    /**
+     * Forecast type of each row, null for rows without one. Equal types share a single String instance.
+     */
+    public String[] getForecastTypes() { return forecastTypes; }
+
+    /**
+     * Latest forecast time in the series, or {@link #NO_TIME} if no row has one
+     */
+    public long getLatestForecastedAt() {
+        long latest = NO_TIME;
+        for (long time : forecastedAt) {
+            latest = Math.max(latest, time);
+        }
+        return latest;
+    }
+
+    /**
+     * Values as a single-column frame keyed by target time. If several rows share a target time, as in
+     * forecasts by vintage, the last row wins.
+     */
+    public TimeSeriesFrame toFrame(String columnName) {
+        return TimeSeriesFrame.of(columnName, datetimes, values);
+    }
+
+    /**
+     * Streaming deserializer for the JSON array of row objects returned by the forecast endpoints
+     */
+    static final class Deserializer extends StdDeserializer<ForecastSeries> {
+        private static final long serialVersionUID = 1L;
+
+        Deserializer() {
+            super(ForecastSeries.class);
+        }
+
+        @Override
+        public ForecastSeries deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.isExpectedStartArrayToken()) {
+                return (ForecastSeries) context.handleUnexpectedToken(ForecastSeries.class, parser);
+            }
+
+            int size = 0;
+            long[] datetimes = new long[256];
+            long[] forecastedAt = new long[256];
+            double[] values = new double[256];
+            String[] types = new String[256];
+            String lastType = null;
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                long datetime = NO_TIME;
+                long vintage = NO_TIME;
+                double value = Double.NaN;
+                String type = null;
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken token = parser.nextToken();
+                    switch (field) {
+                        case "datetime":
+                            datetime = readTime(parser, token);
+                            break;
+                        case "forecasted_at":
+                            vintage = readTime(parser, token);
+                            break;
+                        case "value":
+                            value = token == JsonToken.VALUE_NULL ? Double.NaN : parser.getValueAsDouble(Double.NaN);
+                            break;
+                        case "forecast_type":
+                            if (token != JsonToken.VALUE_NULL) {
+                                type = lastType != null && textEquals(parser, lastType) ? lastType : parser.getText();
+                                lastType = type;
+                            }
+                            break;
+                        default:
+                            parser.skipChildren();
+                    }
+                }
+
+                if (datetime == NO_TIME) {
+                    return context.reportInputMismatch(ForecastSeries.class, "Forecast row %d has no datetime", size);
+                }
+                if (size == datetimes.length) {
+                    int capacity = size * 2;
+                    datetimes = Arrays.copyOf(datetimes, capacity);
+                    forecastedAt = Arrays.copyOf(forecastedAt, capacity);
+                    values = Arrays.copyOf(values, capacity);
+                    types = Arrays.copyOf(types, capacity);
+                }
+                datetimes[size] = datetime;
+                forecastedAt[size] = vintage;
+                values[size] = value;
+                types[size] = type;
+                size++;
+            }
+
+            return new ForecastSeries(Arrays.copyOf(datetimes, size), Arrays.copyOf(forecastedAt, size),
+                    Arrays.copyOf(values, size), Arrays.copyOf(types, size));
+        }
+    }
+
+    /**
+     * Read a timestamp token without materializing it as a String
+     *
+     * @throws JsonParseException if the token is not a timestamp
+     */
+    static long readTime(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return NO_TIME;
+        }
+        CharBuffer text = CharBuffer.wrap(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        try {
+            return Timestamps.parseEpochSeconds(text, ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            throw new JsonParseException(parser, "Invalid timestamp '" + text + "'", e);
+        }
+    }
+
+    private static boolean textEquals(JsonParser parser, String expected) throws IOException {
+        int length = parser.getTextLength();
+        if (length != expected.length()) {
+            return false;
+        }
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        for (int i = 0; i < length; i++) {
+            if (chars[offset + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
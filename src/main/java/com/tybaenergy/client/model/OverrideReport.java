@@ -0,0 +1,97 @@
+package com.tybaenergy.client.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Per-asset outcome of a bulk override run, in the order the overrides were given
+ */
+public final class OverrideReport {
+
+    /**
+     * What happened to one override
+     */
+    public enum Status {
+        /**
+         * Sent and acknowledged by the server
+         */
+        APPLIED,
+        /**
+         * Not sent, because it is identical to the last acknowledged override of its slot
+         */
+        UNCHANGED,
+        /**
+         * Not sent, because a later override in the same run replaces it
+         */
+        SUPERSEDED,
+        /**
+         * Rejected by local validation, or sent and the request carrying it failed
+         */
+        FAILED
+    }
+
+    /**
+     * The outcome of one override
+     */
+    public static final class Entry {
+        private final AssetOverride override;
+        private final Status status;
+        private final Exception error;
+
+        public Entry(AssetOverride override, Status status, Exception error) {
+            this.override = override;
+            this.status = status;
+            this.error = error;
+        }
+
+        public AssetOverride getOverride() { return override; }
+        public Status getStatus() { return status; }
+
+        /**
+         * The validation error or the error of the request carrying this override, or null unless it failed
+         */
+        public Exception getError() { return error; }
+
+        @Override
+        public String toString() {
+            return override.getAssetName() + ": " + status + (error != null ? " (" + error.getMessage() + ")" : "");
+        }
+    }
+
+    private final List<Entry> entries;
+
+    public OverrideReport(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    public List<Entry> getEntries() { return entries; }
+
+    /**
+     * Entries of one asset
+     */
+    public List<Entry> getEntries(String assetName) {
+        return entries.stream().filter(e -> e.override.getAssetName().equals(assetName)).toList();
+    }
+
+    public List<Entry> getFailures() {
+        return entries.stream().filter(e -> e.status == Status.FAILED).toList();
+    }
+
+    public long count(Status status) {
+        return entries.stream().filter(e -> e.status == status).count();
+    }
+
+    /**
+     * Whether no override failed
+     */
+    public boolean isSuccess() {
+        return count(Status.FAILED) == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "OverrideReport[applied=" + count(Status.APPLIED) + ", unchanged=" + count(Status.UNCHANGED)
+                + ", superseded=" + count(Status.SUPERSEDED) + ", failed=" + count(Status.FAILED) + "]";
+    }
+}
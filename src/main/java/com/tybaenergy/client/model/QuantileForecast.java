@@ -0,0 +1,275 @@
+package com.tybaenergy.client.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Probabilistic forecast held as a single row-major {@code double[quantiles × timesteps]} matrix on a
+ * shared time axis.
+ *
+ * Row {@code q} holds the values of quantile level {@code getQuantiles()[q]} for every timestep, so
+ * interpolating between two quantile levels across the whole horizon is a loop over two contiguous
+ * rows. Quantile levels are sorted ascending. Times are epoch seconds. The arrays returned by the getters
+ * are not copied and must not be modified.
+ */
+@JsonDeserialize(using = QuantileForecast.Deserializer.class)
+public final class QuantileForecast {
+    private static final String QUANTILE_PREFIX = "quantile_";
+
+    private final double[] quantiles;
+    private final long[] datetimes;
+    private final long[] forecastedAt;
+    private final double[] values;
+
+    /**
+     * @param quantiles quantile levels in ascending order
+     * @param datetimes target time of each timestep in epoch seconds
+     * @param forecastedAt forecast time of each timestep, {@link ForecastSeries#NO_TIME} where absent
+     * @param values row-major matrix of {@code quantiles.length × datetimes.length} values
+     */
+    public QuantileForecast(double[] quantiles, long[] datetimes, long[] forecastedAt, double[] values) {
+        for (int q = 1; q < quantiles.length; q++) {
+            if (!(quantiles[q] > quantiles[q - 1])) {
+                throw new IllegalArgumentException("Quantiles must be strictly increasing");
+            }
+        }
+        if (forecastedAt.length != datetimes.length || values.length != quantiles.length * datetimes.length) {
+            throw new IllegalArgumentException("Matrix shape does not match quantiles and time axis");
+        }
+        this.quantiles = quantiles;
+        this.datetimes = datetimes;
+        this.forecastedAt = forecastedAt;
+        this.values = values;
+    }
+
+    /**
+     * Quantile levels in ascending order
+     */
+    public double[] getQuantiles() { return quantiles; }
+
+    /**
+     * Target times in epoch seconds
+     */
+    public long[] getDatetimes() { return datetimes; }
+
+    /**
+     * Forecast times in epoch seconds, {@link ForecastSeries#NO_TIME} for timesteps without one
+     */
+    public long[] getForecastedAt() { return forecastedAt; }
+
+    /**
+     * Row-major {@code quantiles × timesteps} matrix of values, NaN where missing
+     */
+    public double[] getValues() { return values; }
+
+    public int getQuantileCount() { return quantiles.length; }
+
+    public int getTimeCount() { return datetimes.length; }
+
+    /**
+     * Value of quantile row {@code q} at timestep {@code t}
+     */
+    public double get(int q, int t) {
+        return values[q * datetimes.length + t];
+    }
+
+    /**
+     * Row index of a quantile level, or -1 if it is not present
+     */
+    public int indexOfQuantile(double quantile) {
+        int index = Arrays.binarySearch(quantiles, quantile);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Copy the values of every quantile level at timestep {@code t} into {@code out}
+     *
+     * @param out array of at least {@link #getQuantileCount()} elements
+     * @return {@code out}
+     */
+    public double[] quantilesAt(int t, double[] out) {
+        int stride = datetimes.length;
+        for (int q = 0, i = t; q < quantiles.length; q++, i += stride) {
+            out[q] = values[i];
+        }
+        return out;
+    }
+
+    /**
+     * Value at probability {@code p} for timestep {@code t}, linearly interpolated between the two
+     * surrounding quantile levels and clamped to the lowest and highest level
+     */
+    public double interpolate(int t, double p) {
+        int stride = datetimes.length;
+        int upper = upperIndex(p);
+        if (upper == 0) {
+            return values[t];
+        } else if (upper == quantiles.length) {
+            return values[(quantiles.length - 1) * stride + t];
+        }
+        int lower = upper - 1;
+        double weight = (p - quantiles[lower]) / (quantiles[upper] - quantiles[lower]);
+        double low = values[lower * stride + t];
+        return low + weight * (values[upper * stride + t] - low);
+    }
+
+    /**
+     * Values at probability {@code p} for every timestep, interpolated as in {@link #interpolate(int, double)}.
+     * Drawing {@code p} uniformly at random yields one comonotonic Monte-Carlo sample path.
+     *
+     * @param out array of at least {@link #getTimeCount()} elements
+     * @return {@code out}
+     */
+    public double[] interpolateAll(double p, double[] out) {
+        int stride = datetimes.length;
+        int upper = upperIndex(p);
+        if (upper == 0 || upper == quantiles.length) {
+            int row = upper == 0 ? 0 : quantiles.length - 1;
+            System.arraycopy(values, row * stride, out, 0, stride);
+            return out;
+        }
+        int lower = upper - 1;
+        double weight = (p - quantiles[lower]) / (quantiles[upper] - quantiles[lower]);
+        int lowOffset = lower * stride;
+        int highOffset = upper * stride;
+        for (int t = 0; t < stride; t++) {
+            double low = values[lowOffset + t];
+            out[t] = low + weight * (values[highOffset + t] - low);
+        }
+        return out;
+    }
+
+    /**
+     * Index of the first quantile level greater than {@code p}
+     */
+    private int upperIndex(double p) {
+        if (quantiles.length == 0) {
+            throw new IllegalStateException("Forecast has no quantiles");
+        }
+        int index = Arrays.binarySearch(quantiles, p);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Streaming deserializer for the JSON array of rows with {@code quantile_<level>} fields returned by
+     * the probabilistic forecast endpoints
+     */
+    static final class Deserializer extends StdDeserializer<QuantileForecast> {
+        private static final long serialVersionUID = 1L;
+
+        Deserializer() {
+            super(QuantileForecast.class);
+        }
+
+        @Override
+        public QuantileForecast deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.isExpectedStartArrayToken()) {
+                return (QuantileForecast) context.handleUnexpectedToken(QuantileForecast.class, parser);
+            }
+
+            int capacity = 256;
+            int size = 0;
+            long[] datetimes = new long[capacity];
+            long[] forecastedAt = new long[capacity];
+            // Columns are keyed by level, so that spellings such as quantile_0.5 and quantile_0.50 share one;
+            // the field names map to them without parsing the level again
+            Map<Double, Integer> columnByLevel = new HashMap<>();
+            Map<String, Integer> columnByField = new HashMap<>();
+            List<Double> levels = new ArrayList<>();
+            List<double[]> columns = new ArrayList<>();
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (size == capacity) {
+                    capacity *= 2;
+                    datetimes = Arrays.copyOf(datetimes, capacity);
+                    forecastedAt = Arrays.copyOf(forecastedAt, capacity);
+                    for (int c = 0; c < columns.size(); c++) {
+                        double[] grown = Arrays.copyOf(columns.get(c), capacity);
+                        Arrays.fill(grown, size, capacity, Double.NaN);
+                        columns.set(c, grown);
+                    }
+                }
+                datetimes[size] = ForecastSeries.NO_TIME;
+                forecastedAt[size] = ForecastSeries.NO_TIME;
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken token = parser.nextToken();
+                    if (field.equals("datetime")) {
+                        datetimes[size] = ForecastSeries.readTime(parser, token);
+                    } else if (field.equals("forecasted_at")) {
+                        forecastedAt[size] = ForecastSeries.readTime(parser, token);
+                    } else if (field.startsWith(QUANTILE_PREFIX)) {
+                        Integer column = columnByField.get(field);
+                        if (column == null) {
+                            double level = level(field, context);
+                            column = columnByLevel.get(level);
+                            if (column == null) {
+                                column = columns.size();
+                                columnByLevel.put(level, column);
+                                levels.add(level);
+                                double[] values = new double[capacity];
+                                Arrays.fill(values, Double.NaN);
+                                columns.add(values);
+                            }
+                            columnByField.put(field, column);
+                        }
+                        columns.get(column)[size] = token == JsonToken.VALUE_NULL
+                                ? Double.NaN : parser.getValueAsDouble(Double.NaN);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (datetimes[size] == ForecastSeries.NO_TIME) {
+                    return context.reportInputMismatch(QuantileForecast.class, "Forecast row %d has no datetime", size);
+                }
+                size++;
+            }
+
+            Integer[] order = new Integer[levels.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(levels.get(a), levels.get(b)));
+
+            double[] quantiles = new double[order.length];
+            double[] matrix = new double[order.length * size];
+            for (int q = 0; q < order.length; q++) {
+                quantiles[q] = levels.get(order[q]);
+                System.arraycopy(columns.get(order[q]), 0, matrix, q * size, size);
+            }
+            return new QuantileForecast(quantiles, Arrays.copyOf(datetimes, size),
+                    Arrays.copyOf(forecastedAt, size), matrix);
+        }
+
+        /**
+         * The level of a {@code quantile_<level>} field
+         *
+         * @throws MismatchedInputException if the suffix is not a finite number
+         */
+        private static double level(String field, DeserializationContext context) throws IOException {
+            double level;
+            try {
+                level = Double.parseDouble(field.substring(QUANTILE_PREFIX.length()));
+            } catch (NumberFormatException e) {
+                level = Double.NaN;
+            }
+            if (!Double.isFinite(level)) {
+                return context.reportInputMismatch(QuantileForecast.class, "Field '%s' has no numeric quantile level",
+                        field);
+            }
+            return level;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.tybaenergy.client.model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Changes between an asset's previous and latest DA snapshot for one date.
+ *
+ * Snapshots are compared interval by interval. An interval is identified by its timestamp where the
+ * snapshot has one, and fields by their dotted path within the interval (e.g. {@code award.energy}).
+ * Values are numbers as {@code Double}, text, booleans, or null.
+ */
+public final class SnapshotDiff {
+    private final String assetName;
+    private final LocalDate date;
+    private final String sha256;
+    private final boolean first;
+    private final Map<String, Map<String, Object>> changed;
+    private final List<String> removed;
+
+    public SnapshotDiff(String assetName, LocalDate date, String sha256, boolean first,
+                        Map<String, Map<String, Object>> changed, List<String> removed) {
+        this.assetName = assetName;
+        this.date = date;
+        this.sha256 = sha256;
+        this.first = first;
+        this.changed = Collections.unmodifiableMap(new LinkedHashMap<>(changed));
+        this.removed = List.copyOf(removed);
+    }
+
+    public String getAssetName() { return assetName; }
+    public LocalDate getDate() { return date; }
+
+    /**
+     * Lowercase hex SHA-256 of the latest snapshot body
+     */
+    public String getSha256() { return sha256; }
+
+    /**
+     * Whether there was no previous snapshot, in which case every interval is reported as changed
+     */
+    public boolean isFirst() { return first; }
+
+    /**
+     * New or changed intervals, each with the new values of only its changed fields. A field that was
+     * removed from an interval maps to null.
+     */
+    public Map<String, Map<String, Object>> getChangedIntervals() { return changed; }
+
+    /**
+     * Intervals present in the previous snapshot but not in the latest
+     */
+    public List<String> getRemovedIntervals() { return removed; }
+
+    /**
+     * Whether anything changed. False when the body is identical, or differs only in formatting or
+     * ordering.
+     */
+    public boolean hasChanges() {
+        return !changed.isEmpty() || !removed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotDiff[" + assetName + " " + date + ": " + changed.size() + " changed, " + removed.size()
+                + " removed intervals" + (first ? ", first" : "") + "]";
+    }
+}
@@ -0,0 +1,379 @@
+package com.tybaenergy.client.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Columnar frame of time series values: one sorted epoch-second axis and any number of named
+ * {@code double} columns of the same length. Missing values are NaN.
+ *
+ * Frames are immutable by convention; the arrays returned by the getters are not copied and must not be
+ * modified.
+ *
+ * A frame can be read directly from a JSON response, such as {@code Operations.getTelemetry}, in either
+ * of two layouts: an array of row objects, or an object of equally long column arrays. The time is taken
+ * from a {@code datetime}, {@code timestamp} or {@code time} field, and every other numeric field becomes
+ * a column. Timestamps without an offset are read as UTC.
+ */
+@JsonDeserialize(using = TimeSeriesFrame.Deserializer.class)
+public final class TimeSeriesFrame {
+    private static final Set<String> TIME_FIELDS = Set.of("datetime", "timestamp", "time");
+
+    private final long[] epochSeconds;
+    private final List<String> columnNames;
+    private final double[][] columns;
+
+    /**
+     * Create a frame from a sorted axis and columns of matching length
+     *
+     * @param epochSeconds strictly increasing epoch seconds
+     * @param columnNames names of the columns
+     * @param columns column values, in the same order as the names
+     * @throws IllegalArgumentException if the axis is not strictly increasing or the shapes do not match
+     */
+    public TimeSeriesFrame(long[] epochSeconds, List<String> columnNames, double[][] columns) {
+        if (columnNames.size() != columns.length) {
+            throw new IllegalArgumentException("Expected " + columnNames.size() + " columns, got " + columns.length);
+        }
+        if (columnNames.stream().distinct().count() != columnNames.size()) {
+            throw new IllegalArgumentException("Duplicate column names: " + columnNames);
+        }
+        for (int i = 1; i < epochSeconds.length; i++) {
+            if (epochSeconds[i] <= epochSeconds[i - 1]) {
+                throw new IllegalArgumentException("Time axis must be strictly increasing at index " + i);
+            }
+        }
+        for (double[] column : columns) {
+            if (column.length != epochSeconds.length) {
+                throw new IllegalArgumentException("Column length " + column.length
+                        + " does not match time axis length " + epochSeconds.length);
+            }
+        }
+        this.epochSeconds = epochSeconds;
+        this.columnNames = Collections.unmodifiableList(new ArrayList<>(columnNames));
+        this.columns = columns;
+    }
+
+    /**
+     * Create a single-column frame from possibly unsorted points. Points are sorted by time; for
+     * duplicate times the last point wins.
+     */
+    public static TimeSeriesFrame of(String columnName, long[] epochSeconds, double[] values) {
+        if (epochSeconds.length != values.length) {
+            throw new IllegalArgumentException("Got " + epochSeconds.length + " times and " + values.length + " values");
+        }
+        return sorted(epochSeconds, List.of(columnName), new double[][] {values});
+    }
+
+    /**
+     * Create a frame from possibly unsorted rows, sorting by time; for duplicate times the last row wins
+     */
+    private static TimeSeriesFrame sorted(long[] epochSeconds, List<String> columnNames, double[][] columns) {
+        boolean sorted = true;
+        for (int i = 1; i < epochSeconds.length && sorted; i++) {
+            sorted = epochSeconds[i] > epochSeconds[i - 1];
+        }
+        if (sorted) {
+            return new TimeSeriesFrame(epochSeconds, columnNames, columns);
+        }
+
+        Integer[] order = IntStream.range(0, epochSeconds.length).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingLong(i -> epochSeconds[i]));
+        long[] times = new long[order.length];
+        double[][] sortedColumns = new double[columns.length][order.length];
+        int size = 0;
+        for (int index : order) {
+            if (size == 0 || times[size - 1] != epochSeconds[index]) {
+                times[size++] = epochSeconds[index];
+            }
+            for (int c = 0; c < columns.length; c++) {
+                sortedColumns[c][size - 1] = columns[c][index];
+            }
+        }
+        for (int c = 0; c < columns.length; c++) {
+            sortedColumns[c] = Arrays.copyOf(sortedColumns[c], size);
+        }
+        return new TimeSeriesFrame(Arrays.copyOf(times, size), columnNames, sortedColumns);
+    }
+
+    /**
+     * Frame of LMP prices. LMP datetimes are timezone-naive local time including DST, so the ISO's zone
+     * is needed to place them on the time axis.
+     *
+     * @param columnName name of the price column
+     * @param prices prices as returned by {@code LMP.getPrices}
+     * @param isoZone the ISO's local time zone, e.g. America/Chicago for ERCOT
+     */
+    public static TimeSeriesFrame fromLmpPrices(String columnName, PriceTimeSeries prices, ZoneId isoZone) {
+        return of(columnName, Timestamps.parseEpochSeconds(prices.getDatetimes(), isoZone), toArray(prices.getPrices()));
+    }
+
+    /**
+     * Frame of ancillary prices. Ancillary datetimes are local standard time labelled as UTC, so they are
+     * shifted by the ISO's standard offset to place them on the time axis.
+     *
+     * @param columnName name of the price column
+     * @param prices prices as returned by {@code Ancillary.getPrices}
+     * @param standardOffset the ISO's offset from UTC outside DST, e.g. -06:00 for ERCOT
+     */
+    public static TimeSeriesFrame fromAncillaryPrices(String columnName, PriceTimeSeries prices, ZoneOffset standardOffset) {
+        long[] times = Timestamps.parseEpochSeconds(prices.getDatetimes(), ZoneOffset.UTC);
+        for (int i = 0; i < times.length; i++) {
+            times[i] -= standardOffset.getTotalSeconds();
+        }
+        return of(columnName, times, toArray(prices.getPrices()));
+    }
+
+    /**
+     * Frame of a forecast or actuals series returned as a JSON array of objects with a {@code datetime}
+     * field, e.g. from {@code Forecast.getMostRecent}
+     *
+     * @param columnName name of the value column
+     * @param rows JSON array of rows
+     * @param valueField field holding the value, e.g. "value" or "quantile_0.5"
+     * @throws IllegalArgumentException if a row has no {@code datetime}
+     */
+    public static TimeSeriesFrame fromForecast(String columnName, JsonNode rows, String valueField) {
+        long[] times = new long[rows.size()];
+        double[] values = new double[rows.size()];
+        for (int i = 0; i < times.length; i++) {
+            JsonNode row = rows.get(i);
+            JsonNode datetime = row.get("datetime");
+            if (datetime == null || datetime.isNull()) {
+                throw new IllegalArgumentException("Forecast row " + i + " has no datetime: " + row);
+            }
+            times[i] = Timestamps.parseEpochSeconds(datetime.asText(), ZoneOffset.UTC);
+            JsonNode value = row.get(valueField);
+            values[i] = value == null || value.isNull() ? Double.NaN : value.asDouble();
+        }
+        return of(columnName, times, values);
+    }
+
+    private static double[] toArray(List<Double> values) {
+        double[] result = new double[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            Double value = values.get(i);
+            result[i] = value != null ? value : Double.NaN;
+        }
+        return result;
+    }
+
+    public int getRowCount() { return epochSeconds.length; }
+
+    public int getColumnCount() { return columns.length; }
+
+    public long[] getEpochSeconds() { return epochSeconds; }
+
+    public List<String> getColumnNames() { return columnNames; }
+
+    public double[] getColumn(int index) { return columns[index]; }
+
+    /**
+     * Values of the named column
+     *
+     * @throws IllegalArgumentException if there is no such column
+     */
+    public double[] getColumn(String name) {
+        int index = columnNames.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("No column named " + name);
+        }
+        return columns[index];
+    }
+
+    /**
+     * Streaming deserializer for row-oriented and column-oriented JSON time series
+     */
+    static final class Deserializer extends StdDeserializer<TimeSeriesFrame> {
+        private static final long serialVersionUID = 1L;
+        private static final long NO_TIME = Long.MIN_VALUE;
+
+        Deserializer() {
+            super(TimeSeriesFrame.class);
+        }
+
+        @Override
+        public TimeSeriesFrame deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.isExpectedStartArrayToken()) {
+                return readRows(parser);
+            }
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                return readColumns(parser);
+            }
+            return (TimeSeriesFrame) context.handleUnexpectedToken(TimeSeriesFrame.class, parser);
+        }
+
+        private static TimeSeriesFrame readRows(JsonParser parser) throws IOException {
+            int capacity = 256;
+            int size = 0;
+            long[] times = new long[capacity];
+            Map<String, Integer> columnByField = new HashMap<>();
+            List<String> names = new ArrayList<>();
+            List<double[]> columns = new ArrayList<>();
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (size == capacity) {
+                    capacity *= 2;
+                    times = Arrays.copyOf(times, capacity);
+                    for (int c = 0; c < columns.size(); c++) {
+                        double[] grown = Arrays.copyOf(columns.get(c), capacity);
+                        Arrays.fill(grown, size, capacity, Double.NaN);
+                        columns.set(c, grown);
+                    }
+                }
+                times[size] = NO_TIME;
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken token = parser.nextToken();
+                    if (TIME_FIELDS.contains(field)) {
+                        times[size] = readTime(parser, token);
+                        continue;
+                    }
+                    double value = readValue(parser, token);
+                    Integer column = columnByField.get(field);
+                    if (column == null) {
+                        if (Double.isNaN(value)) {
+                            continue;
+                        }
+                        column = columns.size();
+                        columnByField.put(field, column);
+                        names.add(field);
+                        double[] values = new double[capacity];
+                        Arrays.fill(values, Double.NaN);
+                        columns.add(values);
+                    }
+                    columns.get(column)[size] = value;
+                }
+                if (times[size] != NO_TIME) {
+                    size++;
+                } else {
+                    for (double[] values : columns) {
+                        values[size] = Double.NaN;
+                    }
+                }
+            }
+
+            double[][] result = new double[columns.size()][];
+            for (int c = 0; c < result.length; c++) {
+                result[c] = Arrays.copyOf(columns.get(c), size);
+            }
+            return sorted(Arrays.copyOf(times, size), names, result);
+        }
+
+        private static TimeSeriesFrame readColumns(JsonParser parser) throws IOException {
+            long[] times = null;
+            List<String> names = new ArrayList<>();
+            List<double[]> columns = new ArrayList<>();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                boolean isTime = TIME_FIELDS.contains(field);
+                long[] fieldTimes = new long[256];
+                double[] values = new double[256];
+                boolean numeric = false;
+                int size = 0;
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (size == values.length) {
+                        fieldTimes = Arrays.copyOf(fieldTimes, size * 2);
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    if (isTime) {
+                        fieldTimes[size] = readTime(parser, token);
+                    } else {
+                        values[size] = readValue(parser, token);
+                        numeric |= !Double.isNaN(values[size]);
+                    }
+                    size++;
+                }
+                if (isTime) {
+                    times = Arrays.copyOf(fieldTimes, size);
+                } else if (numeric) {
+                    names.add(field);
+                    columns.add(Arrays.copyOf(values, size));
+                }
+            }
+            if (times == null) {
+                throw new IOException("No time column in " + names);
+            }
+
+            long[] kept = new long[times.length];
+            double[][] result = new double[columns.size()][times.length];
+            int size = 0;
+            for (int row = 0; row < times.length; row++) {
+                if (times[row] == NO_TIME) {
+                    continue;
+                }
+                kept[size] = times[row];
+                for (int c = 0; c < result.length; c++) {
+                    double[] values = columns.get(c);
+                    result[c][size] = row < values.length ? values[row] : Double.NaN;
+                }
+                size++;
+            }
+            for (int c = 0; c < result.length; c++) {
+                result[c] = Arrays.copyOf(result[c], size);
+            }
+            return sorted(Arrays.copyOf(kept, size), names, result);
+        }
+
+        /**
+         * Read an ISO-8601 string or epoch number, in seconds or milliseconds, as epoch seconds
+         */
+        private static long readTime(JsonParser parser, JsonToken token) throws IOException {
+            switch (token) {
+                case VALUE_STRING:
+                    return Timestamps.parseEpochSeconds(parser.getText(), ZoneOffset.UTC);
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    long epoch = parser.getValueAsLong();
+                    return Math.abs(epoch) >= 100_000_000_000L ? Math.floorDiv(epoch, 1000) : epoch;
+                default:
+                    parser.skipChildren();
+                    return NO_TIME;
+            }
+        }
+
+        /**
+         * Read a numeric value, NaN for nulls and anything non-numeric
+         */
+        private static double readValue(JsonParser parser, JsonToken token) throws IOException {
+            switch (token) {
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    return parser.getDoubleValue();
+                case VALUE_STRING:
+                    try {
+                        return Double.parseDouble(parser.getText());
+                    } catch (NumberFormatException e) {
+                        return Double.NaN;
+                    }
+                default:
+                    parser.skipChildren();
+                    return Double.NaN;
+            }
+        }
+    }
+}
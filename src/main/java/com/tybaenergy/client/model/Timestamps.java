@@ -0,0 +1,135 @@
+package com.tybaenergy.client.model;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Conversion of the ISO-8601 timestamps returned by the API into epoch seconds.
+ *
+ * Timestamps of the form {@code yyyy-MM-ddTHH:mm:ss} with an optional fraction and an optional
+ * {@code Z} or {@code ±HH:MM} offset are parsed without allocating; anything else falls back to
+ * {@code java.time} parsing.
+ */
+public final class Timestamps {
+    private Timestamps() {}
+
+    /**
+     * Parse a timestamp into epoch seconds
+     *
+     * @param text the timestamp
+     * @param zoneForLocal zone used to interpret timestamps without an offset
+     * @return seconds since the epoch
+     * @throws DateTimeParseException if the text is not a timestamp
+     */
+    public static long parseEpochSeconds(CharSequence text, ZoneId zoneForLocal) {
+        int length = text.length();
+        if (length >= 19 && text.charAt(4) == '-' && text.charAt(7) == '-'
+                && (text.charAt(10) == 'T' || text.charAt(10) == ' ')
+                && text.charAt(13) == ':' && text.charAt(16) == ':') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 2);
+            int day = digits(text, 8, 2);
+            int hour = digits(text, 11, 2);
+            int minute = digits(text, 14, 2);
+            int second = digits(text, 17, 2);
+
+            int pos = 19;
+            if (pos < length && text.charAt(pos) == '.') {
+                pos++;
+                while (pos < length && Character.isDigit(text.charAt(pos))) {
+                    pos++;
+                }
+            }
+
+            if (year >= 0 && month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month)
+                    && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59 && second >= 0 && second <= 59) {
+                long localSeconds = epochDay(year, month, day) * 86400L + hour * 3600L + minute * 60L + second;
+                if (pos == length) {
+                    if (zoneForLocal instanceof ZoneOffset) {
+                        return localSeconds - ((ZoneOffset) zoneForLocal).getTotalSeconds();
+                    }
+                    return LocalDateTime.of(year, month, day, hour, minute, second)
+                            .atZone(zoneForLocal).toEpochSecond();
+                }
+                if (pos == length - 1 && text.charAt(pos) == 'Z') {
+                    return localSeconds;
+                }
+                if (pos == length - 6 && (text.charAt(pos) == '+' || text.charAt(pos) == '-')
+                        && text.charAt(pos + 3) == ':') {
+                    int offsetHours = digits(text, pos + 1, 2);
+                    int offsetMinutes = digits(text, pos + 4, 2);
+                    if (offsetHours >= 0 && offsetMinutes >= 0) {
+                        int offset = offsetHours * 3600 + offsetMinutes * 60;
+                        return text.charAt(pos) == '+' ? localSeconds - offset : localSeconds + offset;
+                    }
+                }
+            }
+        }
+        return parseSlow(text.toString(), zoneForLocal);
+    }
+
+    /**
+     * Parse a list of timestamps into epoch seconds
+     */
+    public static long[] parseEpochSeconds(List<String> texts, ZoneId zoneForLocal) {
+        long[] result = new long[texts.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = parseEpochSeconds(texts.get(i), zoneForLocal);
+        }
+        return result;
+    }
+
+    private static long parseSlow(String text, ZoneId zoneForLocal) {
+        try {
+            return OffsetDateTime.parse(text).toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(text).atZone(zoneForLocal).toEpochSecond();
+        }
+    }
+
+    /**
+     * Parse a fixed number of decimal digits, returning -1 if any character is not a digit
+     */
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return Year.isLeap(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+}
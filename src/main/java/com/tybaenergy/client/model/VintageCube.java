@@ -0,0 +1,476 @@
+package com.tybaenergy.client.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Point-in-time store of forecasts indexed by (vintage time, target time, quantile), for replaying what
+ * a forecast said as of any moment without lookahead.
+ *
+ * Rows are sorted by vintage and then target time and stored in flat arrays: the rows of vintage
+ * {@code v} occupy {@code [vintageStarts[v], vintageStarts[v + 1])}, and the values of row {@code r} occupy
+ * {@code [r * width, (r + 1) * width)} with one entry per quantile level. A cube of point forecasts has no
+ * quantile levels and a width of one. Times are epoch seconds; missing values are NaN.
+ *
+ * Cubes can be written to and read from a compact, versioned binary format, so a backtest can load a
+ * cube from disk instead of re-fetching it from the API.
+ */
+public final class VintageCube {
+    private static final int MAGIC = 0x54594256; // "TYBV"
+    private static final int FORMAT_VERSION = 1;
+
+    private final double[] quantiles;
+    private final int width;
+    private final long[] vintages;
+    private final int[] vintageStarts;
+    private final long[] targets;
+    private final double[] values;
+    private final long[] targetAxis;
+    private final long[] minTargetUpTo;
+    private final long[] maxTargetUpTo;
+
+    private VintageCube(double[] quantiles, long[] vintages, int[] vintageStarts, long[] targets, double[] values) {
+        this.quantiles = quantiles;
+        this.width = Math.max(1, quantiles.length);
+        this.vintages = vintages;
+        this.vintageStarts = vintageStarts;
+        this.targets = targets;
+        this.values = values;
+
+        // Running target bounds over all vintages up to v let lookups stop early once no earlier
+        // vintage can cover the requested target
+        this.minTargetUpTo = new long[vintages.length];
+        this.maxTargetUpTo = new long[vintages.length];
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int v = 0; v < vintages.length; v++) {
+            if (vintageStarts[v + 1] > vintageStarts[v]) {
+                min = Math.min(min, targets[vintageStarts[v]]);
+                max = Math.max(max, targets[vintageStarts[v + 1] - 1]);
+            }
+            minTargetUpTo[v] = min;
+            maxTargetUpTo[v] = max;
+        }
+
+        long[] axis = targets.clone();
+        Arrays.sort(axis);
+        int unique = 0;
+        for (int i = 0; i < axis.length; i++) {
+            if (i == 0 || axis[i] != axis[unique - 1]) {
+                axis[unique++] = axis[i];
+            }
+        }
+        this.targetAxis = Arrays.copyOf(axis, unique);
+    }
+
+    /**
+     * Create a builder for a cube of point forecasts
+     */
+    public static Builder builder() {
+        return new Builder(new double[0]);
+    }
+
+    /**
+     * Create a builder for a cube of probabilistic forecasts with the given quantile levels
+     *
+     * @param quantiles quantile levels in ascending order
+     */
+    public static Builder builder(double... quantiles) {
+        for (int q = 1; q < quantiles.length; q++) {
+            if (!(quantiles[q] > quantiles[q - 1])) {
+                throw new IllegalArgumentException("Quantiles must be strictly increasing");
+            }
+        }
+        return new Builder(quantiles.clone());
+    }
+
+    /**
+     * Quantile levels in ascending order, empty for a cube of point forecasts
+     */
+    public double[] getQuantiles() { return quantiles.clone(); }
+
+    /**
+     * Number of values per row: the number of quantile levels, or one for point forecasts
+     */
+    public int getWidth() { return width; }
+
+    /**
+     * Number of (vintage, target) rows
+     */
+    public int getRowCount() { return targets.length; }
+
+    /**
+     * Distinct vintage times in ascending order. The array is not copied and must not be modified.
+     */
+    public long[] getVintages() { return vintages; }
+
+    /**
+     * Distinct target times across all vintages in ascending order. The array is not copied and must not
+     * be modified.
+     */
+    public long[] getTargets() { return targetAxis; }
+
+    /**
+     * Column index of a quantile level, or -1 if it is not in the cube
+     */
+    public int indexOfQuantile(double quantile) {
+        int index = Arrays.binarySearch(quantiles, quantile);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Index of the latest vintage issued at or before {@code asOf}, or -1 if there is none
+     */
+    public int latestVintageAt(long asOf) {
+        return upperBound(vintages, 0, vintages.length, asOf) - 1;
+    }
+
+    /**
+     * Value the latest forecast issued at or before {@code asOf} gave for {@code target}. Vintages that do
+     * not cover the target are skipped in favour of the most recent earlier one that does.
+     *
+     * @param asOf point in time of the lookup in epoch seconds
+     * @param target target time in epoch seconds
+     * @param column quantile column, or 0 for point forecasts
+     * @return the value, or NaN if no forecast issued by {@code asOf} covers the target
+     */
+    public double valueAsOf(long asOf, long target, int column) {
+        long found = locate(asOf, target);
+        return found < 0 ? Double.NaN : values[(int) found * width + column];
+    }
+
+    /**
+     * Vintage time of the forecast {@link #valueAsOf(long, long, int)} would read from, or
+     * {@link ForecastSeries#NO_TIME} if there is none
+     */
+    public long vintageAsOf(long asOf, long target) {
+        long found = locate(asOf, target);
+        return found < 0 ? ForecastSeries.NO_TIME : vintages[(int) (found >>> 32)];
+    }
+
+    /**
+     * Copy all quantile values of the forecast {@link #valueAsOf(long, long, int)} would read from into
+     * {@code out}
+     *
+     * @param out array of at least {@link #getWidth()} elements
+     * @return true if a forecast was found, false if {@code out} was left untouched
+     */
+    public boolean rowAsOf(long asOf, long target, double[] out) {
+        long found = locate(asOf, target);
+        if (found < 0) {
+            return false;
+        }
+        System.arraycopy(values, (int) found * width, out, 0, width);
+        return true;
+    }
+
+    /**
+     * Series of the values known as of {@code asOf} for every target time in {@code [fromTarget, toTarget)}
+     * that some forecast issued by then covers. The forecastedAt column holds the vintage each value was
+     * read from.
+     *
+     * @param column quantile column, or 0 for point forecasts
+     */
+    public ForecastSeries sliceAsOf(long asOf, long fromTarget, long toTarget, int column) {
+        int from = upperBound(targetAxis, 0, targetAxis.length, fromTarget - 1);
+        int to = upperBound(targetAxis, 0, targetAxis.length, toTarget - 1);
+        int capacity = Math.max(0, to - from);
+        long[] datetimes = new long[capacity];
+        long[] forecastedAt = new long[capacity];
+        double[] sliced = new double[capacity];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            long found = locate(asOf, targetAxis[i]);
+            if (found >= 0) {
+                datetimes[size] = targetAxis[i];
+                forecastedAt[size] = vintages[(int) (found >>> 32)];
+                sliced[size] = values[(int) found * width + column];
+                size++;
+            }
+        }
+        return new ForecastSeries(Arrays.copyOf(datetimes, size), Arrays.copyOf(forecastedAt, size),
+                Arrays.copyOf(sliced, size), new String[size]);
+    }
+
+    /**
+     * Find the row for a target in the latest vintage at or before {@code asOf} that covers it
+     *
+     * @return the vintage index in the upper and the row index in the lower 32 bits, or -1 if not found
+     */
+    private long locate(long asOf, long target) {
+        for (int v = latestVintageAt(asOf); v >= 0; v--) {
+            if (target < minTargetUpTo[v] || target > maxTargetUpTo[v]) {
+                return -1;
+            }
+            int row = Arrays.binarySearch(targets, vintageStarts[v], vintageStarts[v + 1], target);
+            if (row >= 0) {
+                return ((long) v << 32) | row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Index of the first element in {@code [from, to)} greater than {@code key}
+     */
+    private static int upperBound(long[] sorted, int from, int to, long key) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Write the cube in its binary format
+     *
+     * @param out stream to write to; it is not closed
+     * @throws IOException if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeShort(FORMAT_VERSION);
+        header.flush();
+
+        DeflaterOutputStream deflater = new DeflaterOutputStream(out);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(deflater, 1 << 16));
+        data.writeInt(quantiles.length);
+        for (double quantile : quantiles) {
+            data.writeDouble(quantile);
+        }
+        data.writeInt(vintages.length);
+        for (int v = 0; v < vintages.length; v++) {
+            data.writeLong(vintages[v]);
+            data.writeInt(vintageStarts[v + 1] - vintageStarts[v]);
+        }
+        // Targets are delta-encoded within each vintage, which deflates far better than raw times
+        data.writeInt(targets.length);
+        for (int v = 0; v < vintages.length; v++) {
+            long previous = vintages[v];
+            for (int row = vintageStarts[v]; row < vintageStarts[v + 1]; row++) {
+                data.writeLong(targets[row] - previous);
+                previous = targets[row];
+            }
+        }
+        for (double value : values) {
+            data.writeDouble(value);
+        }
+        data.flush();
+        deflater.finish();
+    }
+
+    /**
+     * Read a cube previously written with {@link #writeTo(OutputStream)}
+     *
+     * @param in stream to read from; it is not closed
+     * @return the decoded cube
+     * @throws IOException if the data is not a vintage cube or was written in an unsupported format version
+     */
+    public static VintageCube readFrom(InputStream in) throws IOException {
+        DataInputStream header = new DataInputStream(in);
+        if (header.readInt() != MAGIC) {
+            throw new IOException("Not a vintage cube");
+        }
+        int version = header.readUnsignedShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported vintage cube version: " + version);
+        }
+
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new InflaterInputStream(in), 1 << 16));
+        double[] quantiles = new double[data.readInt()];
+        for (int q = 0; q < quantiles.length; q++) {
+            quantiles[q] = data.readDouble();
+        }
+        long[] vintages = new long[data.readInt()];
+        int[] vintageStarts = new int[vintages.length + 1];
+        for (int v = 0; v < vintages.length; v++) {
+            vintages[v] = data.readLong();
+            vintageStarts[v + 1] = vintageStarts[v] + data.readInt();
+        }
+        long[] targets = new long[data.readInt()];
+        if (targets.length != vintageStarts[vintages.length]) {
+            throw new IOException("Corrupt vintage cube: row counts do not match");
+        }
+        for (int v = 0; v < vintages.length; v++) {
+            long previous = vintages[v];
+            for (int row = vintageStarts[v]; row < vintageStarts[v + 1]; row++) {
+                previous += data.readLong();
+                targets[row] = previous;
+            }
+        }
+        double[] values = new double[targets.length * Math.max(1, quantiles.length)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = data.readDouble();
+        }
+        return new VintageCube(quantiles, vintages, vintageStarts, targets, values);
+    }
+
+    /**
+     * Accumulates forecast rows in any order and sorts them into a {@link VintageCube}. If the same
+     * (vintage, target) pair is added more than once, the last row wins.
+     */
+    public static final class Builder {
+        private final double[] quantiles;
+        private final int width;
+        private long[] vintages = new long[1024];
+        private long[] targets = new long[1024];
+        private double[] values;
+        private int size;
+
+        private Builder(double[] quantiles) {
+            this.quantiles = quantiles;
+            this.width = Math.max(1, quantiles.length);
+            this.values = new double[1024 * width];
+        }
+
+        /**
+         * Add every row of a point forecast series
+         *
+         * @throws IllegalArgumentException if the cube is probabilistic or a row has no forecast time
+         */
+        public Builder add(ForecastSeries series) {
+            if (quantiles.length > 0) {
+                throw new IllegalArgumentException("Cannot add a point forecast to a cube with quantiles");
+            }
+            long[] datetimes = series.getDatetimes();
+            long[] forecastedAt = series.getForecastedAt();
+            double[] seriesValues = series.getValues();
+            ensureCapacity(size + datetimes.length);
+            for (int i = 0; i < datetimes.length; i++) {
+                requireVintage(forecastedAt[i]);
+                vintages[size] = forecastedAt[i];
+                targets[size] = datetimes[i];
+                values[size] = seriesValues[i];
+                size++;
+            }
+            return this;
+        }
+
+        /**
+         * Add every row of a probabilistic forecast. Quantile levels the cube does not have are ignored, and
+         * cube levels missing from the forecast are NaN.
+         *
+         * @throws IllegalArgumentException if the cube has no quantiles or a row has no forecast time
+         */
+        public Builder add(QuantileForecast forecast) {
+            if (quantiles.length == 0) {
+                throw new IllegalArgumentException("Cannot add a probabilistic forecast to a cube without quantiles");
+            }
+            int[] rows = new int[width];
+            for (int q = 0; q < width; q++) {
+                rows[q] = forecast.indexOfQuantile(quantiles[q]);
+            }
+            long[] datetimes = forecast.getDatetimes();
+            long[] forecastedAt = forecast.getForecastedAt();
+            ensureCapacity(size + datetimes.length);
+            for (int t = 0; t < datetimes.length; t++) {
+                requireVintage(forecastedAt[t]);
+                vintages[size] = forecastedAt[t];
+                targets[size] = datetimes[t];
+                int offset = size * width;
+                for (int q = 0; q < width; q++) {
+                    values[offset + q] = rows[q] >= 0 ? forecast.get(rows[q], t) : Double.NaN;
+                }
+                size++;
+            }
+            return this;
+        }
+
+        /**
+         * Add a single row
+         *
+         * @param vintage forecast time in epoch seconds
+         * @param target target time in epoch seconds
+         * @param rowValues one value per quantile level, or a single value for point forecasts
+         */
+        public Builder add(long vintage, long target, double... rowValues) {
+            if (rowValues.length != width) {
+                throw new IllegalArgumentException("Expected " + width + " values, got " + rowValues.length);
+            }
+            requireVintage(vintage);
+            ensureCapacity(size + 1);
+            vintages[size] = vintage;
+            targets[size] = target;
+            System.arraycopy(rowValues, 0, values, size * width, width);
+            size++;
+            return this;
+        }
+
+        public VintageCube build() {
+            int[] order = sortedOrder();
+            int[] starts = new int[size + 1];
+            long[] distinctVintages = new long[size];
+            long[] sortedTargets = new long[size];
+            double[] sortedValues = new double[size * width];
+            int vintageCount = 0;
+            int rows = 0;
+            for (int index : order) {
+                long vintage = vintages[index];
+                long target = targets[index];
+                if (rows > 0 && distinctVintages[vintageCount - 1] == vintage && sortedTargets[rows - 1] == target) {
+                    rows--;
+                } else if (vintageCount == 0 || distinctVintages[vintageCount - 1] != vintage) {
+                    distinctVintages[vintageCount] = vintage;
+                    starts[vintageCount] = rows;
+                    vintageCount++;
+                }
+                sortedTargets[rows] = target;
+                System.arraycopy(values, index * width, sortedValues, rows * width, width);
+                rows++;
+            }
+            starts[vintageCount] = rows;
+            return new VintageCube(quantiles, Arrays.copyOf(distinctVintages, vintageCount),
+                    Arrays.copyOf(starts, vintageCount + 1), Arrays.copyOf(sortedTargets, rows),
+                    Arrays.copyOf(sortedValues, rows * width));
+        }
+
+        /**
+         * Row indices sorted by (vintage, target), stable so that later duplicates come last
+         */
+        private int[] sortedOrder() {
+            Integer[] boxed = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                boxed[i] = i;
+            }
+            Arrays.sort(boxed, (a, b) -> {
+                int byVintage = Long.compare(vintages[a], vintages[b]);
+                return byVintage != 0 ? byVintage : Long.compare(targets[a], targets[b]);
+            });
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = boxed[i];
+            }
+            return order;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required > vintages.length) {
+                int capacity = Math.max(required, vintages.length * 2);
+                vintages = Arrays.copyOf(vintages, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                values = Arrays.copyOf(values, capacity * width);
+            }
+        }
+
+        private static void requireVintage(long vintage) {
+            if (vintage == ForecastSeries.NO_TIME) {
+                throw new IllegalArgumentException("Forecast rows must have a forecasted_at time");
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.AncillaryPriceCube;
+import com.tybaenergy.client.model.AncillaryService;
+import com.tybaenergy.client.model.Market;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AncillaryTest {
+
+    private MockWebServer mockWebServer;
+    private TybaClient client;
+    private volatile boolean regionsFailing;
+    private volatile boolean regionsSlow;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.startsWith("/public/0.1/services/ancillary/regions")) {
+                    if (regionsSlow) {
+                        return json("[]").setHeadersDelay(2, TimeUnit.SECONDS);
+                    }
+                    if (path.contains("service=Regulation%20Up") && path.contains("market=dayahead")) {
+                        return json("[{\"region\": \"North\", \"start_year\": 2015, \"end_year\": 2024},"
+                            + " {\"region\": \"Old\", \"start_year\": 2010, \"end_year\": 2012}]");
+                    } else if (path.contains("service=Reserves") && path.contains("market=realtime")) {
+                        return json("[{\"region\": \"South\", \"start_year\": 2015, \"end_year\": 2024}]");
+                    } else if (path.contains("service=ECRS")) {
+                        return new MockResponse().setResponseCode(400);
+                    } else if (regionsFailing) {
+                        return new MockResponse().setResponseCode(503);
+                    }
+                    return json("[]");
+                } else if (path.startsWith("/public/0.1/services/ancillary/prices")) {
+                    if (path.contains("region=North")) {
+                        return json("{\"datetimes\": [\"2024-01-01T00:00:00Z\", \"2024-01-01T01:00:00Z\"], \"prices\": [5.0, 6.0]}");
+                    }
+                    return json("{\"datetimes\": [\"2024-01-01T01:00:00Z\", \"2024-01-01T02:00:00Z\"], \"prices\": [7.0, 8.0]}");
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        mockWebServer.start();
+        String baseUrl = mockWebServer.url("/").toString();
+
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        client = new TybaClient("test-token", baseUrl);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        mockWebServer.shutdown();
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse()
+            .setBody(body)
+            .setResponseCode(200)
+            .addHeader("Content-Type", "application/json");
+    }
+
+    @Test
+    void testSweepFailsOnServerErrors() {
+        regionsFailing = true;
+
+        assertThrows(ServerErrorException.class, () -> client.getAncillary().sweepPrices(List.of("ERCOT"), 2024, 2024));
+    }
+
+    @Test
+    void testCancellingAViewAbortsItsSweep() throws Exception {
+        regionsSlow = true;
+        Cancellation cancellation = new Cancellation();
+        TybaClient view = client.withOptions(RequestOptions.builder().cancellation(cancellation).build());
+
+        CompletableFuture<AncillaryPriceCube> sweep = CompletableFuture.supplyAsync(() -> {
+            try {
+                return view.getAncillary().sweepPrices(List.of("ERCOT"), 2024, 2024);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        mockWebServer.takeRequest();
+        long start = System.nanoTime();
+        cancellation.cancel();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> sweep.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RequestCancelledException.class, failure.getCause().getCause());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void testSweepPricesBuildsCubeOnSharedAxis() throws IOException {
+        AncillaryPriceCube cube = client.getAncillary().sweepPrices(List.of("ERCOT"), 2024, 2024);
+
+        // "Old" is outside the requested years and never requested
+        assertEquals(2, cube.getKeyCount());
+        assertEquals(3, cube.getTimeCount());
+        assertEquals(-1, cube.indexOf("ERCOT", AncillaryService.REGULATION_UP, Market.DAYAHEAD, "Old"));
+
+        double[] north = cube.getPrices("ERCOT", AncillaryService.REGULATION_UP, Market.DAYAHEAD, "North");
+        assertArrayEquals(new double[] {5.0, 6.0, Double.NaN}, north);
+        double[] south = cube.getPrices("ERCOT", AncillaryService.RESERVES, Market.REALTIME, "South");
+        assertArrayEquals(new double[] {Double.NaN, 7.0, 8.0}, south);
+        assertEquals(1704067200L, cube.getEpochSeconds()[0]);
+
+        // 8 region lookups plus 2 price requests
+        assertEquals(10, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testMaxConcurrentRequests() {
+        client.setMaxConcurrentRequests(2);
+        assertEquals(2, client.getMaxConcurrentRequests());
+        client.setMaxConcurrentRequests(16);
+        assertEquals(16, client.getMaxConcurrentRequests());
+        assertThrows(IllegalArgumentException.class, () -> client.setMaxConcurrentRequests(0));
+    }
+}
@@ -0,0 +1,117 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.Asset;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetRegistryTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 10);
+
+    private MockWebServer mockWebServer;
+    private TybaClient client;
+    private AssetRegistry registry;
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger assetRequests = new AtomicInteger();
+    private final AtomicInteger detailRequests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getPath().contains("asset_details")) {
+                    detailRequests.incrementAndGet();
+                    return new MockResponse().setBody("{\"capacity_mw\": 100}");
+                }
+                assetRequests.incrementAndGet();
+                return new MockResponse().setBody("""
+                    [{"name": "battery_a", "display_name": "Battery A", "org_id": 7, "iso": "ERCOT"},
+                     {"name": "battery_b", "display_name": "Battery B", "org_id": 7},
+                     {"name": "solar_c", "display_name": "Solar C", "org_id": 9}]
+                    """);
+            }
+        });
+        mockWebServer.start();
+        String baseUrl = mockWebServer.url("/").toString();
+
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        client = new TybaClient("test-token", baseUrl);
+        Clock clock = Clock.fixed(Instant.parse("2024-06-10T12:00:00Z"), ZoneOffset.UTC);
+        registry = new AssetRegistry(client, false, Duration.ofHours(1), 16, now::get, clock);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void testIndexesAssetsOnce() throws IOException {
+        assertEquals(3, registry.getAssets().size());
+        Asset asset = registry.getAsset("battery_a");
+        assertEquals("Battery A", asset.getDisplayName());
+        assertEquals("ERCOT", asset.getProperty("iso").asText());
+        assertSame(asset, registry.getAssetByDisplayName("Battery A"));
+        assertEquals(List.of("battery_a", "battery_b"),
+            registry.getAssetsByOrg("7").stream().map(Asset::getName).toList());
+        assertNull(registry.getAsset("missing"));
+
+        assertEquals(1, assetRequests.get());
+    }
+
+    @Test
+    void testPastDetailsAreKeptAndExpiredCurrentDetailsReloaded() throws IOException {
+        LocalDate yesterday = TODAY.minusDays(1);
+        assertEquals(100, registry.getAssetDetails("battery_a", yesterday).get("capacity_mw").asInt());
+        registry.getAssetDetails("battery_a", yesterday);
+        registry.getAssetDetails("battery_a", TODAY);
+        assertEquals(2, detailRequests.get());
+
+        now.addAndGet(Duration.ofDays(30).toNanos());
+        registry.getAssetDetails("battery_a", yesterday);
+        assertEquals(2, detailRequests.get());
+
+        // The expired current entry is reloaded before it is returned, not served stale
+        registry.getAssetDetails("battery_a", TODAY);
+        assertEquals(3, detailRequests.get());
+        registry.getAssetDetails("battery_a", TODAY);
+        assertEquals(3, detailRequests.get());
+    }
+
+    @Test
+    void testPastDatesAreDecidedInTheRegistryZone() throws IOException {
+        // 02:00 UTC on June 10 is still June 9 in Chicago
+        Clock clock = Clock.fixed(Instant.parse("2024-06-10T02:00:00Z"), ZoneId.of("America/Chicago"));
+        AssetRegistry chicago = new AssetRegistry(client, false, Duration.ofHours(1), 16, now::get, clock);
+
+        chicago.getAssetDetails("battery_a", TODAY.minusDays(1));
+        now.addAndGet(Duration.ofHours(2).toNanos());
+        chicago.getAssetDetails("battery_a", TODAY.minusDays(1));
+
+        assertEquals(2, detailRequests.get());
+    }
+}
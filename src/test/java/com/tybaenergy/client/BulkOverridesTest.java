@@ -0,0 +1,180 @@
+package com.tybaenergy.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.tybaenergy.client.model.AssetOverride;
+import com.tybaenergy.client.model.OverrideReport;
+import com.tybaenergy.client.model.OverrideReport.Status;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkOverridesTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 6, 1);
+    private static final List<Double> HOURLY = Collections.nCopies(24, 1.0);
+
+    private MockWebServer mockWebServer;
+    private TybaClient client;
+    private final Queue<String> bodies = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger posts = new AtomicInteger();
+    private final AtomicInteger schemaRequests = new AtomicInteger();
+    private volatile boolean schemaFailing;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getPath().contains("overrides_schema")) {
+                    schemaRequests.incrementAndGet();
+                    if (schemaFailing) {
+                        return new MockResponse().setResponseCode(503);
+                    }
+                    return new MockResponse().setBody("""
+                        {"fields": {"max_charge": {"aggregations": ["global", "single_day_hourly"], "minimum": 0}}}
+                        """);
+                }
+                posts.incrementAndGet();
+                String body = request.getBody().readUtf8();
+                bodies.add(body);
+                if (body.contains("Broken")) {
+                    return new MockResponse().setResponseCode(422).setBody("{\"detail\": \"bad asset\"}");
+                }
+                return new MockResponse().setBody("{\"status\": \"ok\"}");
+            }
+        });
+        mockWebServer.start();
+        String baseUrl = mockWebServer.url("/").toString();
+
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        client = new TybaClient("test-token", baseUrl);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        mockWebServer.shutdown();
+    }
+
+    private static AssetOverride hourly(String assetName, List<Double> values) {
+        return new AssetOverride(assetName, "max_charge", "single_day_hourly", values, null, DATE);
+    }
+
+    @Test
+    void testGroupsIdenticalAssumptionsAndReportsPerAsset() throws IOException {
+        BulkOverrides bulk = BulkOverrides.builder(client).maxAssetsPerRequest(2).build();
+
+        OverrideReport report = bulk.apply(List.of(
+            hourly("A", HOURLY), hourly("B", HOURLY), hourly("C", HOURLY),
+            hourly("D", Collections.nCopies(24, 9.0)), new AssetOverride("Broken", "max_charge", "global", 5.0)));
+
+        // A+B and C share an assumption split by the request size limit, D and Broken are their own
+        assertEquals(4, posts.get());
+        assertEquals(4, report.count(Status.APPLIED));
+        assertEquals(1, report.getFailures().size());
+        assertEquals("Broken", report.getFailures().get(0).getOverride().getAssetName());
+        assertTrue(report.getFailures().get(0).getError().getMessage().contains("422"));
+        assertFalse(report.isSuccess());
+        assertTrue(bodies.stream().anyMatch(body -> body.contains("\"asset_names\":[\"A\",\"B\"]")));
+    }
+
+    @Test
+    void testSkipsAcknowledgedOverridesAcrossRuns() throws IOException {
+        Path state = tempDir.resolve("overrides.state");
+        BulkOverrides first = BulkOverrides.builder(client).stateFile(state).build();
+        first.apply(List.of(hourly("A", HOURLY), hourly("B", HOURLY)));
+        assertEquals(1, posts.get());
+
+        BulkOverrides second = BulkOverrides.builder(client).stateFile(state).build();
+        OverrideReport report = second.apply(List.of(
+            hourly("A", HOURLY), hourly("B", Collections.nCopies(24, 0.0)), hourly("B", Collections.nCopies(24, 4.0))));
+
+        assertEquals(List.of(Status.UNCHANGED, Status.SUPERSEDED, Status.APPLIED),
+            report.getEntries().stream().map(OverrideReport.Entry::getStatus).toList());
+        assertEquals(2, posts.get());
+
+        second.reset();
+        assertEquals(Status.APPLIED, second.apply(List.of(hourly("A", HOURLY))).getEntries().get(0).getStatus());
+    }
+
+    @Test
+    void testInvalidOverridesFailWithoutRequests() throws IOException {
+        BulkOverrides bulk = BulkOverrides.builder(client).build();
+
+        OverrideReport report = bulk.apply(List.of(
+            hourly("A", List.of(1.0, 2.0)),
+            new AssetOverride("B", "unknown_field", "global", 1.0),
+            new AssetOverride("C", "max_charge", "12x24", Map.of()),
+            new AssetOverride("D", "max_charge", "global", -1.0)));
+
+        assertEquals(4, report.getFailures().size());
+        assertTrue(report.getFailures().stream().allMatch(f -> f.getError() instanceof IllegalArgumentException));
+        assertEquals(0, posts.get());
+    }
+
+    @Test
+    void testUnavailableSchemaIsNotFetchedAgainForEachOverride() throws IOException {
+        schemaFailing = true;
+
+        client.getOperations().setAssetOverrides(List.of("A"), "unknown_field", "global", 1.0, null, null);
+        int fetches = schemaRequests.get();
+        client.getOperations().setAssetOverrides(List.of("A"), "unknown_field", "global", 1.0, null, null);
+        BulkOverrides.builder(client).build().apply(List.of(hourly("A", HOURLY)));
+
+        assertTrue(fetches > 0);
+        assertEquals(fetches, schemaRequests.get());
+        assertEquals(3, posts.get());
+    }
+
+    @Test
+    void testInterruptedSchemaFetchIsRethrown() {
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(InterruptedIOException.class, () -> client.getOperations().getOverrideValidator());
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(0, posts.get());
+    }
+
+    @Test
+    void testUnknownAggregationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> client.getOperations().setAssetOverrides(
+            List.of("A"), "max_charge", "hourly", 1.0, null, null));
+        assertEquals(0, posts.get());
+    }
+
+    @Test
+    void testRejectedOverridesReturnTheError() throws IOException {
+        JsonNode result = client.getOperations().setAssetOverrides(List.of("Broken"), "max_charge", "global", 1.0,
+            null, null);
+
+        assertEquals(422, result.get("status_code").asInt());
+        assertEquals("{\"detail\": \"bad asset\"}", result.get("message").asText());
+    }
+}
@@ -0,0 +1,117 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.SnapshotDiff;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DaSnapshotTrackerTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 1);
+
+    private MockWebServer mockWebServer;
+    private TybaClient client;
+    private DaSnapshotTracker tracker;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        String baseUrl = mockWebServer.url("/").toString();
+
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        client = new TybaClient("test-token", baseUrl);
+        tracker = new DaSnapshotTracker(client);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        mockWebServer.shutdown();
+    }
+
+    private static String snapshot(double award0, double award1, String status) {
+        return "{\"asset\": \"Battery A\", \"status\": \"" + status + "\", \"intervals\": ["
+            + "{\"datetime\": \"2024-03-01T00:00:00Z\", \"award\": {\"energy\": " + award0 + ", \"reg_up\": 1}},"
+            + "{\"datetime\": \"2024-03-01T01:00:00Z\", \"award\": {\"energy\": " + award1 + ", \"reg_up\": 1}}]}";
+    }
+
+    @Test
+    void testFirstUpdateReportsEveryInterval() throws IOException {
+        mockWebServer.enqueue(new MockResponse().setBody(snapshot(5, 6, "final")));
+
+        SnapshotDiff diff = tracker.update("Battery A", DATE);
+
+        assertTrue(diff.isFirst());
+        assertEquals(List.of("", "2024-03-01T00:00:00Z", "2024-03-01T01:00:00Z"),
+            List.copyOf(diff.getChangedIntervals().keySet()));
+        assertEquals(5.0, diff.getChangedIntervals().get("2024-03-01T00:00:00Z").get("award.energy"));
+        assertEquals("final", diff.getChangedIntervals().get("").get("status"));
+    }
+
+    @Test
+    void testOnlyChangedIntervalsAndFieldsAreReported() throws IOException {
+        tracker.update("Battery A", DATE, snapshot(5, 6, "final"));
+
+        SnapshotDiff diff = tracker.update("Battery A", DATE, snapshot(5, 8, "final"));
+
+        assertFalse(diff.isFirst());
+        assertTrue(diff.hasChanges());
+        assertEquals(Map.of("2024-03-01T01:00:00Z", Map.of("award.energy", 8.0)), diff.getChangedIntervals());
+        assertTrue(diff.getRemovedIntervals().isEmpty());
+    }
+
+    @Test
+    void testIdenticalBodyIsShortCircuited() throws IOException {
+        SnapshotDiff first = tracker.update("Battery A", DATE, snapshot(5, 6, "final"));
+        SnapshotDiff second = tracker.update("Battery A", DATE, snapshot(5, 6, "final"));
+
+        assertFalse(second.hasChanges());
+        assertEquals(first.getSha256(), second.getSha256());
+    }
+
+    @Test
+    void testReorderedBodyHasNoChanges() throws IOException {
+        tracker.update("Battery A", DATE, "[{\"time\": 1, \"a\": 1, \"b\": 2}]");
+
+        SnapshotDiff diff = tracker.update("Battery A", DATE, "[{\"b\": 2.0, \"a\": 1, \"time\": 1}]");
+
+        assertFalse(diff.hasChanges());
+    }
+
+    @Test
+    void testRemovedIntervalsAndFields() throws IOException {
+        tracker.update("Battery A", DATE, "[{\"time\": 1, \"a\": 1, \"b\": 2}, {\"time\": 2, \"a\": 3}]");
+
+        SnapshotDiff diff = tracker.update("Battery A", DATE, "[{\"time\": 1, \"a\": 1}]");
+
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("b", null);
+        assertEquals(Map.of("1", fields), diff.getChangedIntervals());
+        assertEquals(List.of("2"), diff.getRemovedIntervals());
+    }
+
+    @Test
+    void testAssetsAndDatesAreTrackedSeparately() throws IOException {
+        tracker.update("Battery A", DATE, snapshot(5, 6, "final"));
+
+        assertTrue(tracker.update("Battery B", DATE, snapshot(5, 6, "final")).isFirst());
+        assertTrue(tracker.update("Battery A", DATE.plusDays(1), snapshot(5, 6, "final")).isFirst());
+
+        tracker.forget("Battery A", DATE);
+        assertTrue(tracker.update("Battery A", DATE, snapshot(5, 6, "final")).isFirst());
+    }
+}
@@ -0,0 +1,204 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.ForecastSeries;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastBackfillTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2024, 2, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private MockWebServer mockWebServer;
+    private TybaClient client;
+    private final AtomicBoolean failThirdDay = new AtomicBoolean(true);
+    private final AtomicBoolean rateLimitThirdDay = new AtomicBoolean(false);
+    private final AtomicBoolean failThirdDayOnce = new AtomicBoolean(false);
+    private final CountDownLatch thirdDayFailed = new CountDownLatch(1);
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                for (int day = 1; day <= 3; day++) {
+                    if (path.contains("start_time=2024-02-0" + day)) {
+                        if (day == 3 && rateLimitThirdDay.get()) {
+                            return new MockResponse().setResponseCode(429).addHeader("Retry-After", "3600");
+                        }
+                        if (day == 3 && (failThirdDay.get() || failThirdDayOnce.getAndSet(false))) {
+                            thirdDayFailed.countDown();
+                            return new MockResponse().setResponseCode(503);
+                        }
+                        // The second row repeats the next window's first vintage and must be clipped
+                        return new MockResponse()
+                            .setBody(String.format("""
+                                [{"datetime": "2024-02-0%1$dT12:00:00Z", "forecasted_at": "2024-02-0%1$dT06:00:00Z", "value": %1$d.0},
+                                 {"datetime": "2024-02-0%2$dT12:00:00Z", "forecasted_at": "2024-02-0%2$dT00:00:00Z", "value": -1.0}]
+                                """, day, day + 1))
+                            .addHeader("Content-Type", "application/json");
+                    }
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        mockWebServer.start();
+        String baseUrl = mockWebServer.url("/").toString();
+
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        client = new TybaClient("test-token", baseUrl);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        mockWebServer.shutdown();
+    }
+
+    private ForecastBackfill backfill(Path checkpoint) {
+        return ForecastBackfill.builder(client, "HB_HOUSTON", "da", START, START.plusDays(3))
+            .window(Duration.ofDays(1))
+            .parallelism(3)
+            .retries(0)
+            .checkpoint(checkpoint)
+            .build();
+    }
+
+    @Test
+    void testDeliversClippedWindowsInOrder() throws IOException {
+        failThirdDay.set(false);
+        List<Double> values = new ArrayList<>();
+
+        long rows = backfill(null).run((window, series) -> {
+            for (double value : series.getValues()) {
+                values.add(value);
+            }
+        });
+
+        assertEquals(3, rows);
+        assertEquals(List.of(1.0, 2.0, 3.0), values);
+    }
+
+    @Test
+    void testResumesFromCheckpoint() throws IOException {
+        Path checkpoint = tempDir.resolve("backfill.checkpoint");
+        List<ForecastBackfill.Window> delivered = new ArrayList<>();
+
+        assertThrows(IOException.class, () -> backfill(checkpoint).run((window, series) -> delivered.add(window)));
+        assertEquals(2, delivered.size());
+        assertTrue(Files.exists(checkpoint));
+        assertEquals(List.of(new ForecastBackfill.Window(START.plusDays(2), START.plusDays(3))),
+            backfill(checkpoint).remainingWindows());
+
+        failThirdDay.set(false);
+        int before = mockWebServer.getRequestCount();
+        long rows = backfill(checkpoint).run((window, series) -> delivered.add(window));
+
+        assertEquals(1, rows);
+        assertEquals(1, mockWebServer.getRequestCount() - before);
+        assertEquals(START.plusDays(2), delivered.get(2).getStart());
+        assertTrue(backfill(checkpoint).remainingWindows().isEmpty());
+    }
+
+    @Test
+    void testIgnoresCheckpointOfDifferentJob() throws IOException {
+        Path checkpoint = tempDir.resolve("backfill.checkpoint");
+        failThirdDay.set(false);
+        backfill(checkpoint).run((window, series) -> {});
+
+        ForecastBackfill other = ForecastBackfill.builder(client, "HB_NORTH", "da", START, START.plusDays(3))
+            .window(Duration.ofDays(1))
+            .checkpoint(checkpoint)
+            .build();
+
+        assertEquals(3, other.remainingWindows().size());
+    }
+
+    @Test
+    void testRetryAfterBeyondTheMaximumFailsTheWindow() {
+        rateLimitThirdDay.set(true);
+        ForecastBackfill backfill = ForecastBackfill.builder(client, "HB_HOUSTON", "da", START, START.plusDays(3))
+            .window(Duration.ofDays(1))
+            .retries(2)
+            .maxRetryAfter(Duration.ofMinutes(1))
+            .build();
+
+        long start = System.nanoTime();
+        RateLimitedException e = assertThrows(RateLimitedException.class, () -> backfill.run((window, series) -> {}));
+
+        assertEquals(Duration.ofHours(1), e.getRetryAfter());
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+        assertEquals(3, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testRetryPauseDoesNotHoldAnExecutorThread() throws Exception {
+        failThirdDay.set(false);
+        failThirdDayOnce.set(true);
+        client.setMaxConcurrentRequests(1);
+        ForecastBackfill backfill = ForecastBackfill.builder(client, "HB_HOUSTON", "da", START, START.plusDays(3))
+            .window(Duration.ofDays(1))
+            .retries(1)
+            .build();
+
+        CompletableFuture<Long> rows = CompletableFuture.supplyAsync(() -> {
+            try {
+                return backfill.run((window, series) -> {});
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // The retry waits 500 ms; the single executor thread stays free for other work meanwhile
+        assertTrue(thirdDayFailed.await(5, TimeUnit.SECONDS));
+        assertEquals("free", client.executor().submit(() -> "free").get(300, TimeUnit.MILLISECONDS));
+
+        assertEquals(3, rows.get(5, TimeUnit.SECONDS));
+        assertEquals(4, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testRowsWithoutForecastTimeAreKeptInOneWindow() {
+        long day = Duration.ofDays(1).toSeconds();
+        long from = START.toEpochSecond();
+        ForecastSeries series = new ForecastSeries(
+            new long[] {from + 3600, from + day + 3600, from + 7200},
+            new long[] {ForecastSeries.NO_TIME, ForecastSeries.NO_TIME, from},
+            new double[] {1.0, 2.0, 3.0},
+            new String[] {"da", "da", "da"});
+
+        ForecastSeries first = ForecastBackfill.clip(series, from, from + day);
+        ForecastSeries second = ForecastBackfill.clip(series, from + day, from + 2 * day);
+
+        assertArrayEquals(new double[] {1.0, 3.0}, first.getValues());
+        assertArrayEquals(new double[] {2.0}, second.getValues());
+    }
+}
@@ -0,0 +1,143 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.ForecastSeries;
+import com.tybaenergy.client.model.QuantileForecast;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastCacheTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2024, 2, 5, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private MockWebServer mockWebServer;
+    private TybaClient client;
+    private final AtomicLong now = new AtomicLong();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String body;
+                if (request.getPath().contains("probabilistic")) {
+                    body = """
+                        [{"datetime": "2024-02-05T00:00:00Z", "forecasted_at": "2024-02-04T23:00:00Z",
+                          "quantile_0.1": 10.0, "quantile_0.5": 20.0, "quantile_0.9": 30.0},
+                         {"datetime": "2024-02-05T06:00:00Z", "forecasted_at": "2024-02-04T23:00:00Z",
+                          "quantile_0.1": 11.0, "quantile_0.5": 21.0, "quantile_0.9": 31.0}]
+                        """;
+                } else {
+                    body = """
+                        [{"datetime": "2024-02-05T00:00:00Z", "forecasted_at": "2024-02-04T23:00:00Z", "value": 1.0},
+                         {"datetime": "2024-02-05T06:00:00Z", "forecasted_at": "2024-02-04T23:00:00Z", "value": 2.0},
+                         {"datetime": "2024-02-05T12:00:00Z", "forecasted_at": "2024-02-04T23:00:00Z", "value": 3.0}]
+                        """;
+                }
+                return new MockResponse().setBody(body).addHeader("Content-Type", "application/json");
+            }
+        });
+        mockWebServer.start();
+        String baseUrl = mockWebServer.url("/").toString();
+
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        client = new TybaClient("test-token", baseUrl);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        mockWebServer.shutdown();
+    }
+
+    private ForecastCache cache(boolean widen) {
+        return new ForecastCache(client, Duration.ofMinutes(5), 16, widen, now::get);
+    }
+
+    @Test
+    void testDerivesQuantileSubset() throws IOException {
+        ForecastCache cache = cache(false);
+        ZonedDateTime end = START.plusDays(1);
+
+        QuantileForecast full = cache.getMostRecentQuantiles("HB_HOUSTON", "da", START, end,
+            List.of(0.1, 0.5, 0.9), null, null, null, null);
+        QuantileForecast median = cache.getMostRecentQuantiles("HB_HOUSTON", "da", START, end,
+            List.of(0.5), null, null, null, null);
+
+        assertEquals(1, mockWebServer.getRequestCount());
+        assertEquals(3, full.getQuantileCount());
+        assertArrayEquals(new double[] {0.5}, median.getQuantiles());
+        assertArrayEquals(new double[] {20.0, 21.0}, median.getValues());
+        assertEquals(1, cache.getDerivedHitCount());
+        assertEquals(1, cache.getStats().getMissCount());
+    }
+
+    @Test
+    void testDerivesNarrowerHorizonAndWindow() throws IOException {
+        ForecastCache cache = cache(false);
+        ZonedDateTime end = START.plusDays(1);
+
+        ForecastSeries all = cache.getMostRecent("HB_HOUSTON", "da", START, end, null, null, null, null);
+        assertSame(all, cache.getMostRecent("HB_HOUSTON", "da", START, end, null, null, null, null));
+
+        // Horizon of 7 hours after the 23:00 forecast time keeps the 00:00 and 06:00 targets
+        ForecastSeries shortHorizon = cache.getMostRecent("HB_HOUSTON", "da", START, end, null, null, null, 420);
+        assertArrayEquals(new double[] {1.0, 2.0}, shortHorizon.getValues());
+
+        ForecastSeries afternoon = cache.getMostRecent("HB_HOUSTON", "da", START.plusHours(6), end, null, null, null, null);
+        assertArrayEquals(new double[] {2.0, 3.0}, afternoon.getValues());
+
+        assertEquals(1, mockWebServer.getRequestCount());
+
+        // A different lead time is a different series
+        cache.getMostRecent("HB_HOUSTON", "da", START, end, null, null, 60, null);
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testWidensToRecentVariants() throws IOException, InterruptedException {
+        ForecastCache cache = cache(true);
+        ZonedDateTime end = START.plusDays(1);
+
+        cache.getMostRecentQuantiles("HB_HOUSTON", "da", START, end, List.of(0.5), null, null, null, null);
+        mockWebServer.takeRequest(1, TimeUnit.SECONDS);
+        cache.getMostRecentQuantiles("HB_HOUSTON", "da", START, end, List.of(0.9), null, null, null, null);
+        String widened = mockWebServer.takeRequest(1, TimeUnit.SECONDS).getPath();
+        assertTrue(widened.contains("0.5") && widened.contains("0.9"), widened);
+
+        QuantileForecast median = cache.getMostRecentQuantiles("HB_HOUSTON", "da", START, end,
+            List.of(0.5), null, null, null, null);
+        assertArrayEquals(new double[] {20.0, 21.0}, median.getValues());
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testExpiresAfterTtl() throws IOException {
+        ForecastCache cache = cache(false);
+        ZonedDateTime end = START.plusDays(1);
+
+        cache.getMostRecent("HB_HOUSTON", "da", START, end, null, null, null, null);
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+        cache.getMostRecent("HB_HOUSTON", "da", START, end, null, null, null, null);
+
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+}
@@ -0,0 +1,106 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.ForecastErrorMetrics;
+import com.tybaenergy.client.model.ForecastKey;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastEvaluatorTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2024, 2, 5, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private MockWebServer mockWebServer;
+    private TybaClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.contains("object_name=BAD_NODE")) {
+                    return new MockResponse().setResponseCode(500);
+                } else if (path.startsWith("/public/0.1/forecasts/actuals")) {
+                    return json("""
+                        [{"datetime": "2024-02-05T00:00:00Z", "value": 10.0},
+                         {"datetime": "2024-02-05T01:00:00Z", "value": 20.0}]
+                        """);
+                } else if (path.startsWith("/public/0.1/forecasts/forecasts_by_vintage")) {
+                    return json("""
+                        [{"datetime": "2024-02-05T00:00:00Z", "forecasted_at": "2024-02-04T23:00:00Z", "value": 12.0},
+                         {"datetime": "2024-02-05T01:00:00Z", "forecasted_at": "2024-02-04T23:00:00Z", "value": 18.0},
+                         {"datetime": "2024-02-05T01:00:00Z", "forecasted_at": "2024-02-05T00:00:00Z", "value": 21.0},
+                         {"datetime": "2024-02-06T01:00:00Z", "forecasted_at": "2024-02-05T00:00:00Z", "value": 99.0}]
+                        """);
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        mockWebServer.start();
+        String baseUrl = mockWebServer.url("/").toString();
+
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        client = new TybaClient("test-token", baseUrl);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        mockWebServer.shutdown();
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse()
+            .setBody(body)
+            .setResponseCode(200)
+            .addHeader("Content-Type", "application/json");
+    }
+
+    @Test
+    void testMetricsPerLeadBucket() throws IOException {
+        ForecastEvaluator evaluator = ForecastEvaluator.builder(client, START, START.plusDays(1))
+            .chunk(Duration.ofDays(1))
+            .leadBucket(Duration.ofHours(1))
+            .build();
+        ForecastKey houston = new ForecastKey("HB_HOUSTON", "da");
+        ForecastKey north = new ForecastKey("HB_NORTH", "da");
+
+        Map<ForecastKey, ForecastErrorMetrics> results = evaluator.evaluate(List.of(houston, north));
+
+        ForecastErrorMetrics metrics = results.get(houston);
+        assertEquals(3, metrics.getBucketCount());
+        assertEquals(2, metrics.getCount(1));
+        assertEquals(1.5, metrics.getMae(1), 1e-9);
+        assertEquals(1.5, metrics.getBias(1), 1e-9);
+        assertEquals(Math.sqrt(2.5), metrics.getRmse(1), 1e-9);
+        assertEquals(-2.0, metrics.getBias(2), 1e-9);
+        assertEquals(3, metrics.getCount());
+        assertEquals(5.0 / 3, metrics.getMae(), 1e-9);
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    void testFailingSeriesFailsEvaluation() {
+        ForecastEvaluator evaluator = ForecastEvaluator.builder(client, START, START.plusDays(1)).build();
+
+        assertThrows(IOException.class, () -> evaluator.evaluate(List.of(new ForecastKey("BAD_NODE", "da"))));
+    }
+}
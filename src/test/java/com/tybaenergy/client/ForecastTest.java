@@ -1,6 +1,13 @@
 package com.tybaenergy.client;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.tybaenergy.client.model.BatchResult;
+import com.tybaenergy.client.model.ForecastKey;
+import com.tybaenergy.client.model.ForecastSeries;
+import com.tybaenergy.client.model.QuantileForecast;
+import com.tybaenergy.client.model.VintageCube;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -9,12 +16,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -146,7 +155,7 @@ class ForecastTest {
         String path = recordedRequest.getPath();
         assertTrue(path.contains("object_name=HB_HOUSTON"));
         assertTrue(path.contains("product=da"));
-        assertTrue(path.contains("quantiles=%5B0.1%2C%200.5%2C%200.9%5D")); // JSON array, URL encoded
+        assertTrue(path.contains("quantiles=0.1&quantiles=0.5&quantiles=0.9")); // One parameter per quantile
 
         assertNotNull(result);
         assertTrue(result.isArray());
@@ -382,7 +391,7 @@ class ForecastTest {
         String path = recordedRequest.getPath();
         assertTrue(path.contains("object_name=HB_HOUSTON"));
         assertTrue(path.contains("product=rt"));
-        assertTrue(path.contains("quantiles=%5B0.1%2C%200.5%2C%200.9%5D")); // JSON array, URL encoded
+        assertTrue(path.contains("quantiles=0.1&quantiles=0.5&quantiles=0.9")); // One parameter per quantile
 
         assertNotNull(result);
         assertTrue(result.isArray());
@@ -444,4 +453,217 @@ class ForecastTest {
         assertFalse(path.contains("prediction_lead_time_mins"));
         assertFalse(path.contains("horizon_mins"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetMostRecentSeries() throws IOException, InterruptedException {
+        String mockResponse = """
+            [{
+                "datetime": "2024-02-05T00:00:00-06:00",
+                "forecasted_at": "2024-02-04T06:00:00-06:00",
+                "forecast_type": "day-ahead",
+                "value": 25.5,
+                "extra": {"ignored": [1, 2]}
+            }, {
+                "datetime": "2024-02-05T01:00:00-06:00",
+                "forecasted_at": "2024-02-04T06:00:00-06:00",
+                "forecast_type": "day-ahead",
+                "value": null
+            }]
+            """;
+
+        mockWebServer.enqueue(new MockResponse()
+            .setBody(mockResponse)
+            .setResponseCode(200)
+            .addHeader("Content-Type", "application/json"));
+
+        ForecastSeries result = forecast.getMostRecentSeries(
+            nodeName, "rt", startTime, endTime, "day-ahead", null, null, null
+        );
+
+        RecordedRequest recordedRequest = mockWebServer.takeRequest();
+        assertTrue(recordedRequest.getPath().startsWith("/public/0.1/forecasts/most_recent_forecast"));
+        assertTrue(recordedRequest.getPath().contains("forecast_type=day-ahead"));
+
+        assertEquals(2, result.size());
+        assertArrayEquals(new long[] {1707112800L, 1707116400L}, result.getDatetimes());
+        assertEquals(1707048000L, result.getForecastedAt()[0]);
+        assertEquals(1707048000L, result.getLatestForecastedAt());
+        assertEquals(25.5, result.getValues()[0]);
+        assertTrue(Double.isNaN(result.getValues()[1]));
+        assertEquals("day-ahead", result.getForecastTypes()[0]);
+        assertSame(result.getForecastTypes()[0], result.getForecastTypes()[1]);
+    }
+
+    @Test
+    void testGetActualsSeriesWithoutVintage() throws IOException {
+        mockWebServer.enqueue(new MockResponse()
+            .setBody("[{\"datetime\": \"2024-02-05T00:00:00-06:00\", \"value\": 29.5}]")
+            .setResponseCode(200)
+            .addHeader("Content-Type", "application/json"));
+
+        ForecastSeries result = forecast.getActualsSeries(nodeName, "da", startTime, endTime);
+
+        assertEquals(1, result.size());
+        assertEquals(ForecastSeries.NO_TIME, result.getForecastedAt()[0]);
+        assertNull(result.getForecastTypes()[0]);
+        assertEquals(29.5, result.toFrame("actual").getColumn("actual")[0]);
+    }
+
+    @Test
+    void testGetSeriesRejectsNonArrayResponse() {
+        mockWebServer.enqueue(new MockResponse()
+            .setBody("{\"detail\": \"unexpected\"}")
+            .setResponseCode(200)
+            .addHeader("Content-Type", "application/json"));
+
+        assertThrows(IOException.class, () -> forecast.getByVintageSeries(nodeName, "da", startTime, endTime));
+    }
+
+    @Test
+    void testGetSeriesRejectsRowsWithoutDatetimeAndBadTimestamps() {
+        for (String row : List.of("{\"value\": 1.0}", "{\"datetime\": null, \"value\": 1.0}",
+                "{\"datetime\": \"2024-02-30T00:00:00Z\", \"value\": 1.0}")) {
+            mockWebServer.enqueue(new MockResponse()
+                .setBody("[{\"datetime\": \"2024-02-05T00:00:00Z\", \"value\": 2.0}, " + row + "]")
+                .setResponseCode(200)
+                .addHeader("Content-Type", "application/json"));
+
+            IOException e = assertThrows(IOException.class,
+                () -> forecast.getByVintageSeries(nodeName, "da", startTime, endTime));
+            assertTrue(e instanceof JsonProcessingException, row);
+        }
+    }
+
+    @Test
+    void testGetMostRecentQuantiles() throws IOException, InterruptedException {
+        String mockResponse = """
+            [{
+                "datetime": "2024-02-05T00:00:00-06:00",
+                "quantile_0.9": 30.0,
+                "quantile_0.1": 20.0,
+                "quantile_0.5": 25.0
+            }, {
+                "datetime": "2024-02-05T01:00:00-06:00",
+                "quantile_0.1": 10.0,
+                "quantile_0.5": null,
+                "quantile_0.9": 50.0
+            }]
+            """;
+
+        mockWebServer.enqueue(new MockResponse()
+            .setBody(mockResponse)
+            .setResponseCode(200)
+            .addHeader("Content-Type", "application/json"));
+
+        QuantileForecast result = forecast.getMostRecentQuantiles(
+            nodeName, "da", startTime, endTime, Arrays.asList(0.1, 0.5, 0.9), null, null, null, null
+        );
+
+        RecordedRequest recordedRequest = mockWebServer.takeRequest();
+        assertTrue(recordedRequest.getPath().startsWith("/public/0.1/forecasts/most_recent_probabilistic_forecast"));
+
+        assertArrayEquals(new double[] {0.1, 0.5, 0.9}, result.getQuantiles());
+        assertArrayEquals(new long[] {1707112800L, 1707116400L}, result.getDatetimes());
+        assertArrayEquals(new double[] {20.0, 10.0, 25.0, Double.NaN, 30.0, 50.0}, result.getValues());
+        assertArrayEquals(new double[] {20.0, 25.0, 30.0}, result.quantilesAt(0, new double[3]));
+        assertEquals(2, result.indexOfQuantile(0.9));
+        assertEquals(-1, result.indexOfQuantile(0.3));
+    }
+
+    @Test
+    void testQuantileSpellingsShareALevel() throws IOException {
+        mockWebServer.enqueue(new MockResponse()
+            .setBody("[{\"datetime\": \"2024-02-05T00:00:00Z\", \"quantile_0.5\": 25.0, \"quantile_0.1\": 20.0},"
+                + " {\"datetime\": \"2024-02-05T01:00:00Z\", \"quantile_0.50\": 26.0, \"quantile_0.10\": 21.0}]")
+            .setResponseCode(200)
+            .addHeader("Content-Type", "application/json"));
+
+        QuantileForecast result = forecast.getMostRecentQuantiles(
+            nodeName, "da", startTime, endTime, Arrays.asList(0.1, 0.5), null, null, null, null);
+
+        assertArrayEquals(new double[] {0.1, 0.5}, result.getQuantiles());
+        assertArrayEquals(new double[] {20.0, 21.0, 25.0, 26.0}, result.getValues());
+    }
+
+    @Test
+    void testQuantilesRejectBadLevelsAndRowsWithoutDatetime() {
+        for (String body : List.of("[{\"datetime\": \"2024-02-05T00:00:00Z\", \"quantile_median\": 25.0}]",
+                "[{\"datetime\": \"2024-02-05T00:00:00Z\", \"quantile_0.5\": 25.0}, {\"quantile_0.5\": 26.0}]",
+                "[{\"datetime\": null, \"quantile_0.5\": 25.0}]")) {
+            mockWebServer.enqueue(new MockResponse()
+                .setBody(body)
+                .setResponseCode(200)
+                .addHeader("Content-Type", "application/json"));
+
+            IOException e = assertThrows(IOException.class, () -> forecast.getMostRecentQuantiles(
+                nodeName, "da", startTime, endTime, Arrays.asList(0.5), null, null, null, null));
+            assertTrue(e instanceof JsonProcessingException, body);
+        }
+    }
+
+    @Test
+    void testQuantileInterpolation() {
+        QuantileForecast quantiles = new QuantileForecast(new double[] {0.1, 0.5, 0.9}, new long[] {0L, 3600L},
+            new long[] {ForecastSeries.NO_TIME, ForecastSeries.NO_TIME}, new double[] {10, 20, 30, 40, 50, 80});
+
+        assertEquals(20.0, quantiles.interpolate(0, 0.3), 1e-9);
+        assertEquals(30.0, quantiles.interpolate(0, 0.5), 1e-9);
+        assertEquals(10.0, quantiles.interpolate(0, 0.01));
+        assertEquals(80.0, quantiles.interpolate(1, 0.99));
+        assertArrayEquals(new double[] {40.0, 60.0}, quantiles.interpolateAll(0.7, new double[2]), 1e-9);
+        assertArrayEquals(new double[] {50.0, 80.0}, quantiles.interpolateAll(0.9, new double[2]));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileForecast(new double[] {0.5, 0.1},
+            new long[0], new long[0], new double[0]));
+    }
+
+    @Test
+    void testGetVintageCubeFetchesChunks() throws IOException {
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                String body = path.contains("start_time=2024-02-01")
+                    ? "[{\"datetime\": \"2024-02-02T00:00:00Z\", \"forecasted_at\": \"2024-02-01T06:00:00Z\", \"value\": 1.0}]"
+                    : "[{\"datetime\": \"2024-02-02T00:00:00Z\", \"forecasted_at\": \"2024-02-02T06:00:00Z\", \"value\": 2.0}]";
+                return new MockResponse().setBody(body).addHeader("Content-Type", "application/json");
+            }
+        });
+
+        ZonedDateTime vintageStart = ZonedDateTime.of(2024, 2, 1, 0, 0, 0, 0, ZoneId.of("UTC"));
+        VintageCube cube = forecast.getVintageCube(nodeName, "da", null, vintageStart, vintageStart.plusDays(2),
+            Duration.ofDays(1), null, null, null, null);
+
+        assertEquals(2, mockWebServer.getRequestCount());
+        assertArrayEquals(new long[] {1706767200L, 1706853600L}, cube.getVintages());
+        assertEquals(1.0, cube.valueAsOf(1706853599L, 1706832000L, 0));
+        assertEquals(2.0, cube.valueAsOf(1706853600L, 1706832000L, 0));
+    }
+
+    @Test
+    void testGetMostRecentBatchIsolatesFailures() throws IOException {
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getPath().contains("object_name=BAD_NODE")) {
+                    return new MockResponse().setResponseCode(500);
+                }
+                return new MockResponse()
+                    .setBody("[{\"datetime\": \"2024-02-05T00:00:00-06:00\", \"value\": 25.5}]")
+                    .addHeader("Content-Type", "application/json");
+            }
+        });
+
+        ForecastKey houston = new ForecastKey(nodeName, "da");
+        ForecastKey bad = new ForecastKey("BAD_NODE", "da");
+        ForecastKey north = new ForecastKey("HB_NORTH", "rt", "day-ahead");
+        Map<ForecastKey, BatchResult<ForecastSeries>> results = forecast.getMostRecentBatch(
+            List.of(houston, bad, north, new ForecastKey(nodeName, "da")), startTime, endTime);
+
+        assertEquals(3, mockWebServer.getRequestCount());
+        assertEquals(List.of(houston, bad, north), List.copyOf(results.keySet()));
+        assertEquals(25.5, results.get(houston).get().getValues()[0]);
+        assertTrue(results.get(north).isSuccess());
+        assertFalse(results.get(bad).isSuccess());
+        assertThrows(IOException.class, () -> results.get(bad).get());
+    }
+}
@@ -0,0 +1,140 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.ForecastKey;
+import com.tybaenergy.client.model.ForecastSeries;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastWatcherTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2024, 2, 5, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private static final String FIRST_VINTAGE = """
+        [{"datetime": "2024-02-05T00:00:00Z", "forecasted_at": "2024-02-04T06:00:00Z", "value": 25.5},
+         {"datetime": "2024-02-05T01:00:00Z", "forecasted_at": "2024-02-04T06:00:00Z", "value": 26.0}]
+        """;
+
+    private static final String SECOND_VINTAGE = """
+        [{"datetime": "2024-02-05T00:00:00Z", "forecasted_at": "2024-02-04T12:00:00Z", "value": 25.5},
+         {"datetime": "2024-02-05T01:00:00Z", "forecasted_at": "2024-02-04T12:00:00Z", "value": 30.0},
+         {"datetime": "2024-02-05T02:00:00Z", "forecasted_at": "2024-02-04T12:00:00Z", "value": 31.0}]
+        """;
+
+    private MockWebServer mockWebServer;
+    private TybaClient client;
+    private ForecastWatcher watcher;
+    private final AtomicReference<String> body = new AtomicReference<>(FIRST_VINTAGE);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                    .setBody(body.get())
+                    .addHeader("Content-Type", "application/json");
+            }
+        });
+        mockWebServer.start();
+        String baseUrl = mockWebServer.url("/").toString();
+
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        client = new TybaClient("test-token", baseUrl);
+        watcher = new ForecastWatcher(client, Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        watcher.close();
+        client.close();
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void testSubscribersShareOnePollAndReceiveOnlyChanges() throws InterruptedException {
+        ForecastKey key = new ForecastKey("HB_HOUSTON", "da");
+        BlockingQueue<ForecastSeries> first = new LinkedBlockingQueue<>();
+        BlockingQueue<ForecastSeries> second = new LinkedBlockingQueue<>();
+
+        ForecastWatcher.Subscription a = watcher.subscribe(key, START, START.plusDays(1), (k, s) -> first.add(s));
+        ForecastSeries initial = first.poll(5, TimeUnit.SECONDS);
+        assertNotNull(initial);
+        assertEquals(2, initial.size());
+
+        // A late subscriber gets the current forecast straight away
+        ForecastWatcher.Subscription b = watcher.subscribe(key, START, START.plusDays(1), (k, s) -> second.add(s));
+        assertEquals(2, second.poll().size());
+        assertEquals(1, watcher.getWatchCount());
+
+        // Unchanged vintage: polls continue but nothing is delivered
+        int requests = mockWebServer.getRequestCount();
+        Thread.sleep(200);
+        assertTrue(mockWebServer.getRequestCount() > requests);
+        assertTrue(first.isEmpty());
+        assertTrue(second.isEmpty());
+
+        body.set(SECOND_VINTAGE);
+        ForecastSeries changed = first.poll(5, TimeUnit.SECONDS);
+        assertNotNull(changed);
+        assertArrayEquals(new long[] {1707094800L, 1707098400L}, changed.getDatetimes());
+        assertArrayEquals(new double[] {30.0, 31.0}, changed.getValues());
+        assertSame(changed, second.poll(5, TimeUnit.SECONDS));
+
+        a.close();
+        b.close();
+        assertEquals(0, watcher.getWatchCount());
+    }
+
+    @Test
+    void testCloseStopsWatchesAndRefusesNewSubscriptions() throws InterruptedException {
+        ForecastKey key = new ForecastKey("HB_HOUSTON", "da");
+        BlockingQueue<ForecastSeries> updates = new LinkedBlockingQueue<>();
+        ForecastWatcher.Subscription subscription =
+            watcher.subscribe(key, START, START.plusDays(1), (k, s) -> updates.add(s));
+        assertNotNull(updates.poll(5, TimeUnit.SECONDS));
+
+        watcher.close();
+        assertEquals(0, watcher.getWatchCount());
+
+        body.set(SECOND_VINTAGE);
+        assertThrows(IllegalStateException.class,
+            () -> watcher.subscribe(key, START, START.plusDays(1), (k, s) -> updates.add(s)));
+        assertEquals(0, watcher.getWatchCount());
+        subscription.close();
+        assertEquals(0, watcher.getWatchCount());
+        assertNull(updates.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testDiffTreatsNaNAsUnchanged() {
+        ForecastSeries previous = new ForecastSeries(new long[] {1, 2}, new long[] {0, 0},
+            new double[] {Double.NaN, 1.0}, new String[2]);
+        ForecastSeries current = new ForecastSeries(new long[] {1, 2, 3}, new long[] {5, 5, 5},
+            new double[] {Double.NaN, 1.0, 2.0}, new String[3]);
+
+        ForecastSeries diff = ForecastWatcher.diff(previous, current);
+
+        assertArrayEquals(new long[] {3}, diff.getDatetimes());
+        assertArrayEquals(new long[] {5}, diff.getForecastedAt());
+    }
+}
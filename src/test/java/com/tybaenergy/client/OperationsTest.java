@@ -0,0 +1,207 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.DownloadResult;
+import com.tybaenergy.client.model.FleetReport;
+import com.tybaenergy.client.model.TimeSeriesFrame;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.ByteString;
+import okio.GzipSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationsTest {
+
+    private static final String SNAPSHOT = "{\"asset\": \"Battery A\", \"bids\": [1, 2, 3]}";
+
+    private MockWebServer mockWebServer;
+    private TybaClient client;
+    private final Set<String> requestedRanges = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                HttpUrl url = request.getRequestUrl();
+                if (url.encodedPath().endsWith("performance_report")) {
+                    String asset = url.queryParameter("asset_name");
+                    if (asset.equals("broken")) {
+                        return new MockResponse().setResponseCode(500);
+                    }
+                    int mwh = asset.length();
+                    return new MockResponse().setBody("{\"asset\": \"" + asset + "\", \"revenue\": {\"energy\": "
+                        + mwh * 10 + ", \"as\": 5}, \"discharged_mwh\": " + mwh + ", \"intervals\": [1, 2]}");
+                }
+                if (url.encodedPath().endsWith("da_snapshot")) {
+                    if (url.queryParameter("asset_name").equals("broken")) {
+                        return new MockResponse().setResponseCode(500);
+                    }
+                    // A stored gzip file served as-is, without Content-Encoding
+                    Buffer gzipped = new Buffer();
+                    try (GzipSink sink = new GzipSink(gzipped)) {
+                        sink.write(new Buffer().writeUtf8(SNAPSHOT), SNAPSHOT.length());
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return new MockResponse().setBody(gzipped);
+                }
+                LocalDate start = LocalDate.parse(url.queryParameter("start_date"));
+                LocalDate end = LocalDate.parse(url.queryParameter("end_date"));
+                requestedRanges.add(start + ".." + end);
+                // One row per day at noon, alternating between row and column layouts
+                StringBuilder body = new StringBuilder();
+                if (start.getDayOfMonth() % 2 == 1) {
+                    body.append('[');
+                    for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+                        body.append(day.equals(start) ? "" : ",")
+                            .append("{\"datetime\": \"").append(day).append("T12:00:00Z\", \"power\": ")
+                            .append(day.getDayOfMonth()).append(", \"soc\": null}");
+                    }
+                    body.append(']');
+                } else {
+                    StringBuilder times = new StringBuilder();
+                    StringBuilder power = new StringBuilder();
+                    for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+                        String separator = day.equals(start) ? "" : ",";
+                        times.append(separator).append('"').append(day).append("T12:00:00Z\"");
+                        power.append(separator).append(day.getDayOfMonth());
+                    }
+                    body.append("{\"datetime\": [").append(times).append("], \"power\": [").append(power)
+                        .append("], \"soc\": [");
+                    for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+                        body.append(day.equals(start) ? "" : ",").append("0.5");
+                    }
+                    body.append("]}");
+                }
+                return new MockResponse().setBody(body.toString()).addHeader("Content-Type", "application/json");
+            }
+        });
+        mockWebServer.start();
+        String baseUrl = mockWebServer.url("/").toString();
+
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        client = new TybaClient("test-token", baseUrl);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void testChunkedTelemetryIsStitchedInOrder() throws IOException {
+        TimeSeriesFrame frame = client.getOperations().getTelemetryFrame(LocalDate.of(2024, 3, 1),
+            LocalDate.of(2024, 3, 10), "Battery A", 5, List.of("power", "soc"), Period.ofDays(3));
+
+        assertEquals(Set.of("2024-03-01..2024-03-03", "2024-03-04..2024-03-06", "2024-03-07..2024-03-09",
+            "2024-03-10..2024-03-10"), requestedRanges);
+        assertEquals(10, frame.getRowCount());
+        assertEquals(Instant.parse("2024-03-01T12:00:00Z").getEpochSecond(), frame.getEpochSeconds()[0]);
+        assertArrayEquals(new double[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, frame.getColumn("power"));
+        // Row-layout chunks never had a soc value, column-layout chunks did
+        double[] soc = frame.getColumn("soc");
+        assertTrue(Double.isNaN(soc[0]));
+        assertEquals(0.5, soc[3]);
+    }
+
+    @Test
+    void testTelemetryChunkMustBeDays() {
+        assertThrows(IllegalArgumentException.class, () -> client.getOperations().getTelemetryFrame(
+            LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 10), "Battery A", 5, List.of("power"),
+            Period.ofMonths(1)));
+    }
+
+    @Test
+    void testFleetPerformanceReportAggregatesAndStreams() throws IOException {
+        List<String> streamed = new ArrayList<>();
+        FleetReport report = client.getOperations().getFleetPerformanceReport(
+            List.of("a", "bbb", "broken", "cc", "a"), LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 2),
+            (asset, result) -> streamed.add(asset));
+
+        assertEquals(4, streamed.size());
+        assertEquals(List.of("a", "bbb", "broken", "cc"), List.copyOf(report.getReports().keySet()));
+        assertEquals(List.of("broken"), report.getFailedAssets());
+        assertEquals(60.0, report.getTotal("revenue.energy"));
+        assertEquals(15.0, report.getTotals().get("revenue.as"));
+        assertEquals(List.of("bbb", "cc", "a"), report.rank("discharged_mwh", true));
+        assertFalse(report.getMetrics("a").containsKey("intervals"));
+    }
+
+    @Test
+    void testDaSnapshotIsStreamedToFile(@TempDir Path dir) throws IOException {
+        Path target = dir.resolve("snapshots").resolve("battery-a.json");
+        DownloadResult result = client.getOperations().getDaSnapshot(LocalDate.of(2024, 3, 1),
+            LocalDate.of(2024, 3, 1), "Battery A", null, target, true);
+
+        assertEquals(SNAPSHOT, Files.readString(target));
+        assertEquals(SNAPSHOT.length(), result.getByteCount());
+        assertEquals(ByteString.encodeUtf8(SNAPSHOT).sha256().hex(), result.getSha256());
+        assertEquals(List.of(target), Files.list(target.getParent()).toList());
+    }
+
+    @Test
+    void testDaSnapshotIsStreamedToChannelCompressed() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DownloadResult result = client.getOperations().getDaSnapshot(LocalDate.of(2024, 3, 1),
+            LocalDate.of(2024, 3, 1), "Battery A", null, Channels.newChannel(out), false);
+
+        assertEquals(out.size(), result.getByteCount());
+        assertEquals(ByteString.of(out.toByteArray()).sha256().hex(), result.getSha256());
+        // Written as received when not decompressing
+        assertEquals((byte) 0x1f, out.toByteArray()[0]);
+        assertEquals((byte) 0x8b, out.toByteArray()[1]);
+    }
+
+    @Test
+    void testFailedDownloadLeavesExistingFile(@TempDir Path dir) throws IOException {
+        Path target = dir.resolve("broken.json");
+        Files.writeString(target, "previous");
+
+        assertThrows(IOException.class, () -> client.getOperations().getDaSnapshot(LocalDate.of(2024, 3, 1),
+            LocalDate.of(2024, 3, 1), "broken", null, target, true));
+        assertEquals("previous", Files.readString(target));
+        assertEquals(List.of(target), Files.list(dir).toList());
+    }
+
+    @Test
+    void testUnwritableTargetReleasesTheResponse(@TempDir Path dir) throws Exception {
+        Path blocker = dir.resolve("blocker");
+        Files.writeString(blocker, "not a directory");
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IOException.class, () -> client.getOperations().getDaSnapshot(LocalDate.of(2024, 3, 1),
+                LocalDate.of(2024, 3, 1), "Battery A", null, blocker.resolve("snapshot.json"), true));
+        }
+
+        // The second request reused the first one's connection, so the first response was released
+        assertEquals(0, mockWebServer.takeRequest().getSequenceNumber());
+        assertEquals(1, mockWebServer.takeRequest().getSequenceNumber());
+    }
+}
@@ -0,0 +1,132 @@
+package com.tybaenergy.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OverrideValidatorTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 6, 1);
+    private static final List<Double> HOURLY = Collections.nCopies(24, 1.0);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static OverrideValidator compile(String schema) throws IOException {
+        JsonNode node = MAPPER.readTree(schema);
+        return OverrideValidator.compile(node);
+    }
+
+    private static List<List<Double>> matrix(int months, int hours) {
+        return Collections.nCopies(months, Collections.nCopies(hours, 1.0));
+    }
+
+    @Test
+    void testFieldsObjectLayoutIsEnforced() throws IOException {
+        OverrideValidator validator = compile("""
+            {"fields": {"max_charge": {"aggregations": ["global"]}, "max_discharge": {}}}
+            """);
+
+        assertEquals(Set.of("max_charge", "max_discharge"), validator.getFields());
+        validator.validate("max_charge", "global", 1.0, null, null);
+        validator.validate("max_discharge", "single_day_hourly", HOURLY, null, DATE);
+        assertThrows(IllegalArgumentException.class, () -> validator.validate("unknown", "global", 1.0, null, null));
+        assertThrows(IllegalArgumentException.class,
+            () -> validator.validate("max_charge", "single_day_hourly", HOURLY, null, DATE));
+    }
+
+    @Test
+    void testFieldsArrayLayoutIsEnforced() throws IOException {
+        OverrideValidator validator = compile("""
+            {"fields": [{"field": "max_charge", "allowed_aggregations": ["global"]}, {"name": "max_discharge"}]}
+            """);
+
+        assertEquals(Set.of("max_charge", "max_discharge"), validator.getFields());
+        assertThrows(IllegalArgumentException.class, () -> validator.validate("unknown", "global", 1.0, null, null));
+    }
+
+    @Test
+    void testUnidentifiedLayoutsCheckShapesOnly() throws IOException {
+        List<String> schemas = List.of(
+            // JSON Schema of the request body, whose properties are not override fields
+            """
+            {"type": "object", "properties": {"asset_names": {"type": "array"}, "assumption": {"type": "object"}}}
+            """,
+            // Field definitions at the top level
+            """
+            {"max_charge": {"aggregations": ["global"]}}
+            """,
+            // Field names without any rule
+            """
+            {"fields": {"max_charge": {"description": "Maximum charge"}}}
+            """,
+            """
+            {"fields": [{"field": "max_charge", "minimum": 0}, {"description": "unnamed"}]}
+            """,
+            """
+            {"fields": {"max_charge": "number"}}
+            """);
+
+        for (String schema : schemas) {
+            OverrideValidator validator = compile(schema);
+            assertTrue(validator.getFields().isEmpty(), schema);
+            validator.validate("anything", "global", -1.0, "any", null);
+            assertThrows(IllegalArgumentException.class, () -> validator.validate("anything", "global", List.of(1.0),
+                null, null), schema);
+        }
+    }
+
+    @Test
+    void testServicesRule() throws IOException {
+        OverrideValidator validator = compile("""
+            {"fields": {"price": {"services": ["reg_up", "reg_down"]}}}
+            """);
+
+        validator.validate("price", "global", 1.0, "reg_up", null);
+        validator.validate("price", "global", 1.0, null, null);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> validator.validate("price", "global", 1.0, "spin", null));
+        assertTrue(e.getMessage().contains("spin"));
+    }
+
+    @Test
+    void testBoundsApplyToEveryValue() throws IOException {
+        OverrideValidator validator = compile("""
+            {"fields": {"soc": {"minimum": 0, "maximum": 1}}}
+            """);
+
+        validator.validate("soc", "global", 0.5, null, null);
+        validator.validate("soc", "12x24", Map.of("soc", matrix(12, 24)), null, null);
+        assertThrows(IllegalArgumentException.class, () -> validator.validate("soc", "global", 1.5, null, null));
+        assertThrows(IllegalArgumentException.class, () -> validator.validate("soc", "global", -0.1, null, null));
+        List<Double> hours = new ArrayList<>(HOURLY);
+        hours.set(23, 2.0);
+        assertThrows(IllegalArgumentException.class,
+            () -> validator.validate("soc", "single_day_hourly", hours, null, DATE));
+    }
+
+    @Test
+    void testShapes() {
+        OverrideValidator validator = OverrideValidator.shapeOnly();
+
+        validator.validate("any", "12x24", Map.of("a", matrix(12, 24), "b", new double[12][24]), null, null);
+        assertThrows(IllegalArgumentException.class,
+            () -> validator.validate("any", "12x24", Map.of("a", matrix(11, 24)), null, null));
+        assertThrows(IllegalArgumentException.class,
+            () -> validator.validate("any", "12x24", Map.of("a", matrix(12, 23)), null, null));
+        assertThrows(IllegalArgumentException.class,
+            () -> validator.validate("any", "12x24", matrix(12, 24), null, null));
+        validator.validate("any", "single_day_hourly", Collections.nCopies(25, 1.0), null, DATE);
+        assertThrows(IllegalArgumentException.class,
+            () -> validator.validate("any", "single_day_hourly", HOURLY, null, null));
+        assertThrows(IllegalArgumentException.class, () -> validator.validate("any", "hourly", 1.0, null, null));
+    }
+}
@@ -0,0 +1,156 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.PrefetchScheduler.MarketDeadline;
+import com.tybaenergy.client.model.ForecastKey;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefetchSchedulerTest {
+
+    private static final ZoneId CHICAGO = ZoneId.of("America/Chicago");
+
+    private MockWebServer mockWebServer;
+    private TybaClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getPath().contains("da_snapshot")) {
+                    return new MockResponse().setBody("{\"snapshot\": true}");
+                }
+                return new MockResponse().setBody("""
+                    [{"datetime": "2024-03-11T05:00:00Z", "forecasted_at": "2024-03-10T14:00:00Z", "value": 1.0}]
+                    """).addHeader("Content-Type", "application/json");
+            }
+        });
+        mockWebServer.start();
+        String baseUrl = mockWebServer.url("/").toString();
+
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        client = new TybaClient("test-token", baseUrl);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void testNextDeadlineAcrossDstChange() {
+        MarketDeadline deadline = MarketDeadline.builder("ERCOT DA", LocalTime.of(10, 0), CHICAGO).build();
+
+        // 10:00 CST is 16:00 UTC, 10:00 CDT after the March change is 15:00 UTC
+        ZonedDateTime before = ZonedDateTime.of(2024, 3, 9, 17, 0, 0, 0, ZoneOffset.UTC);
+        ZonedDateTime next = PrefetchScheduler.nextDeadline(deadline, before);
+        assertEquals(LocalDate.of(2024, 3, 10), next.toLocalDate());
+        assertEquals(Instant.parse("2024-03-10T15:00:00Z"), next.toInstant());
+
+        // Exactly at the deadline, the next occurrence is the following day
+        assertEquals(LocalDate.of(2024, 3, 11), PrefetchScheduler.nextDeadline(deadline, next).toLocalDate());
+    }
+
+    @Test
+    void testPrefetchNowWarmsCaches() throws IOException {
+        ForecastCache forecastCache = new ForecastCache(client);
+        DaSnapshotCache daSnapshotCache = new DaSnapshotCache(client);
+        MarketDeadline deadline = MarketDeadline.builder("ERCOT DA", LocalTime.of(10, 0), CHICAGO)
+            .leadTime(Duration.ofMinutes(30))
+            .forecasts(List.of(new ForecastKey("HB_HOUSTON", "da")))
+            .daSnapshotAssets(List.of("Battery A", "Battery B"))
+            .build();
+        Clock clock = Clock.fixed(Instant.parse("2024-03-10T14:40:00Z"), ZoneOffset.UTC);
+
+        try (PrefetchScheduler scheduler = new PrefetchScheduler(client, forecastCache, daSnapshotCache,
+                clock, new Random(1))) {
+            assertEquals(3, scheduler.prefetchNow(deadline));
+        }
+        assertEquals(3, mockWebServer.getRequestCount());
+
+        // The operating day after the 2024-03-10 deadline is served from the caches
+        LocalDate operatingDay = LocalDate.of(2024, 3, 11);
+        ZonedDateTime start = operatingDay.atStartOfDay(CHICAGO);
+        forecastCache.getMostRecent("HB_HOUSTON", "da", start.plusHours(6), start.plusDays(1),
+            null, null, null, null);
+        assertEquals("{\"snapshot\": true}", daSnapshotCache.getDaSnapshot(operatingDay, operatingDay, "Battery A"));
+        assertEquals(3, mockWebServer.getRequestCount());
+        assertEquals(1, daSnapshotCache.getStats().getHitCount());
+    }
+
+    @Test
+    void testDaSnapshotCacheExpires() throws IOException {
+        long[] now = {0};
+        DaSnapshotCache cache = new DaSnapshotCache(client, Duration.ofMinutes(15), 4, () -> now[0]);
+        LocalDate day = LocalDate.of(2024, 3, 11);
+
+        cache.getDaSnapshot(day, day, "Battery A");
+        cache.getDaSnapshot(day, day, "Battery A");
+        now[0] += Duration.ofMinutes(15).toNanos();
+        cache.getDaSnapshot(day, day, "Battery A");
+
+        assertEquals(2, mockWebServer.getRequestCount());
+        assertEquals(1, cache.getStats().getHitCount());
+        assertEquals(2, cache.getStats().getMissCount());
+    }
+
+    @Test
+    void testPrefetchedEntriesOutliveDefaultTtlsUntilTheDeadline() throws IOException {
+        long[] now = {0};
+        ForecastCache forecastCache = new ForecastCache(client, ForecastCache.DEFAULT_TTL,
+            ForecastCache.DEFAULT_MAX_SERIES, false, () -> now[0]);
+        DaSnapshotCache daSnapshotCache = new DaSnapshotCache(client, DaSnapshotCache.DEFAULT_TTL,
+            DaSnapshotCache.DEFAULT_MAX_ENTRIES, () -> now[0]);
+        MarketDeadline deadline = MarketDeadline.builder("ERCOT DA", LocalTime.of(10, 0), CHICAGO)
+            .leadTime(Duration.ofMinutes(20))
+            .forecasts(List.of(new ForecastKey("HB_HOUSTON", "da")))
+            .daSnapshotAssets(List.of("Battery A"))
+            .build();
+        // 20 minutes before the 10:00 CDT deadline
+        Clock clock = Clock.fixed(Instant.parse("2024-03-11T14:40:00Z"), ZoneOffset.UTC);
+
+        try (PrefetchScheduler scheduler = new PrefetchScheduler(client, forecastCache, daSnapshotCache,
+                clock, new Random(1))) {
+            assertEquals(2, scheduler.prefetchNow(deadline));
+        }
+
+        // One minute after the deadline, past both default TTLs
+        now[0] += Duration.ofMinutes(21).toNanos();
+        LocalDate operatingDay = LocalDate.of(2024, 3, 12);
+        ZonedDateTime start = operatingDay.atStartOfDay(CHICAGO);
+        forecastCache.getMostRecent("HB_HOUSTON", "da", start, start.plusDays(1), null, null, null, null);
+        daSnapshotCache.getDaSnapshot(operatingDay, operatingDay, "Battery A");
+        assertEquals(2, mockWebServer.getRequestCount());
+        assertEquals(1, forecastCache.getStats().getHitCount());
+        assertEquals(1, daSnapshotCache.getStats().getHitCount());
+
+        // Once the window after the deadline has passed, the entries expire as usual
+        now[0] += deadline.getWindow().toNanos();
+        daSnapshotCache.getDaSnapshot(operatingDay, operatingDay, "Battery A");
+        assertEquals(3, mockWebServer.getRequestCount());
+    }
+}
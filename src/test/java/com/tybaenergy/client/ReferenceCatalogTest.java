@@ -0,0 +1,145 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.AncillaryService;
+import com.tybaenergy.client.model.CatalogSnapshot;
+import com.tybaenergy.client.model.Market;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceCatalogTest {
+
+    private MockWebServer mockWebServer;
+    private TybaClient client;
+
+    @TempDir
+    Path tempDir;
+
+    private volatile boolean regionsFailing;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.startsWith("/public/0.1/services/isos")) {
+                    return json("[\"ERCOT\"]");
+                } else if (path.startsWith("/public/0.1/services/lmp/nodes")) {
+                    return json("""
+                        [{"id": "10000698380", "name": "HB_HOUSTON", "type": "HUB", "zone": "ERCOT",
+                          "da_start_year": 2011.0, "da_end_year": 2024.0, "rt_start_year": 2011, "rt_end_year": 2024}]
+                        """);
+                } else if (path.contains("service=ECRS")) {
+                    return new MockResponse().setResponseCode(400);
+                } else if (regionsFailing && path.contains("service=Reserves")) {
+                    return new MockResponse().setResponseCode(503);
+                } else if (path.startsWith("/public/0.1/services/ancillary/regions")) {
+                    return json("[{\"region\": \"ERCOT\", \"start_year\": 2015, \"end_year\": 2024}]");
+                }
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        mockWebServer.start();
+        String baseUrl = mockWebServer.url("/").toString();
+
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        client = new TybaClient("test-token", baseUrl);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        mockWebServer.shutdown();
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse()
+            .setBody(body)
+            .setResponseCode(200)
+            .addHeader("Content-Type", "application/json");
+    }
+
+    @Test
+    void testLoadWithoutSnapshotFile() {
+        ReferenceCatalog catalog = new ReferenceCatalog(client.getServices(), tempDir.resolve("catalog.bin"));
+
+        assertFalse(catalog.load());
+        assertNull(catalog.peekSnapshot());
+    }
+
+    @Test
+    void testRefreshPersistsSnapshot() throws Exception {
+        Path snapshotPath = tempDir.resolve("catalog.bin");
+        ReferenceCatalog catalog = new ReferenceCatalog(client.getServices(), snapshotPath);
+
+        CatalogSnapshot snapshot = catalog.refresh();
+
+        assertTrue(Files.exists(snapshotPath));
+        assertEquals(1, snapshot.getIsos().size());
+        assertEquals("HB_HOUSTON", snapshot.getNodes("ERCOT").get(0).getName());
+        assertEquals(2015, snapshot.getPricingRegions("ERCOT", AncillaryService.REGULATION_UP, Market.DAYAHEAD)
+            .get(0).getStartYear());
+        // Combinations the API rejects are left out rather than failing the refresh
+        assertNull(snapshot.getPricingRegions("ERCOT", AncillaryService.ECRS, Market.DAYAHEAD));
+
+        // A fresh catalog warm-starts from disk without any requests
+        int requestsBefore = mockWebServer.getRequestCount();
+        ReferenceCatalog warmStarted = new ReferenceCatalog(client.getServices(), snapshotPath);
+        assertTrue(warmStarted.load());
+        assertEquals(requestsBefore, mockWebServer.getRequestCount());
+
+        CatalogSnapshot loaded = warmStarted.getSnapshot();
+        assertEquals(snapshot.getCreatedAt(), loaded.getCreatedAt());
+        assertEquals(2024.0, loaded.getNodes("ERCOT").get(0).getDaEndYear());
+        assertEquals(2011, loaded.getNodes("ERCOT").get(0).getRtStartYear());
+        assertNull(loaded.getNodes("ERCOT").get(0).getSubstation());
+    }
+
+    @Test
+    void testServerErrorsFailTheRefresh() {
+        Path snapshotPath = tempDir.resolve("catalog.bin");
+        ReferenceCatalog catalog = new ReferenceCatalog(client.getServices(), snapshotPath);
+        regionsFailing = true;
+
+        ServerErrorException e = assertThrows(ServerErrorException.class, catalog::refresh);
+        assertEquals(503, e.getStatusCode());
+        assertFalse(Files.exists(snapshotPath));
+        assertNull(catalog.peekSnapshot());
+    }
+
+    @Test
+    void testRefreshInBackgroundSwapsSnapshot() throws Exception {
+        ReferenceCatalog catalog = new ReferenceCatalog(client.getServices(), tempDir.resolve("catalog.bin"));
+
+        CatalogSnapshot refreshed = catalog.refreshInBackground().get(10, TimeUnit.SECONDS);
+
+        assertSame(refreshed, catalog.peekSnapshot());
+    }
+
+    @Test
+    void testCorruptSnapshotIsIgnored() throws IOException {
+        Path snapshotPath = tempDir.resolve("catalog.bin");
+        Files.writeString(snapshotPath, "not a snapshot");
+
+        ReferenceCatalog catalog = new ReferenceCatalog(client.getServices(), snapshotPath);
+
+        assertFalse(catalog.load());
+    }
+}
@@ -0,0 +1,163 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.AncillaryService;
+import com.tybaenergy.client.model.CatalogSnapshot;
+import com.tybaenergy.client.model.Market;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceDataCacheTest {
+
+    private MockWebServer mockWebServer;
+    private TybaClient client;
+    private final AtomicLong nanos = new AtomicLong();
+    private ReferenceDataCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        String baseUrl = mockWebServer.url("/").toString();
+
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        client = new TybaClient("test-token", baseUrl);
+        cache = new ReferenceDataCache(client.getServices(), Duration.ofMinutes(10), 0.5, 2, nanos::get);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        mockWebServer.shutdown();
+    }
+
+    private void enqueue(String body) {
+        mockWebServer.enqueue(new MockResponse()
+            .setBody(body)
+            .setResponseCode(200)
+            .addHeader("Content-Type", "application/json"));
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private void awaitRefreshes(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.getStats().getRefreshCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, cache.getStats().getRefreshCount());
+    }
+
+    @Test
+    void testSecondLookupIsServedFromCache() throws IOException {
+        enqueue("[\"ERCOT\", \"CAISO\"]");
+
+        assertEquals(List.of("ERCOT", "CAISO"), cache.getAllIsos());
+        assertEquals(List.of("ERCOT", "CAISO"), cache.getAllIsos());
+
+        assertEquals(1, mockWebServer.getRequestCount());
+        assertEquals(1, cache.getStats().getMissCount());
+        assertEquals(1, cache.getStats().getHitCount());
+    }
+
+    @Test
+    void testRefreshAheadReloadsInBackground() throws Exception {
+        enqueue("[\"ERCOT\"]");
+        enqueue("[\"ERCOT\", \"PJM\"]");
+
+        cache.getAllIsos();
+        advance(Duration.ofMinutes(6));
+
+        // Past the refresh-ahead point the cached value is still returned immediately
+        assertEquals(List.of("ERCOT"), cache.getAllIsos());
+        awaitRefreshes(1);
+        assertEquals(List.of("ERCOT", "PJM"), cache.getAllIsos());
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testExpiredEntryIsServedStaleWhileRefreshing() throws Exception {
+        enqueue("[{\"region\": \"ERCOT\", \"start_year\": 2015, \"end_year\": 2023}]");
+        enqueue("[{\"region\": \"ERCOT\", \"start_year\": 2015, \"end_year\": 2024}]");
+
+        cache.getPricingRegions("ERCOT", AncillaryService.REGULATION_UP, Market.DAYAHEAD);
+        advance(Duration.ofHours(1));
+
+        assertEquals(2023, cache.getPricingRegions("ERCOT", AncillaryService.REGULATION_UP, Market.DAYAHEAD)
+            .get(0).getEndYear());
+        assertEquals(1, cache.getStats().getStaleHitCount());
+        awaitRefreshes(1);
+        assertEquals(2024, cache.getPricingRegions("ERCOT", AncillaryService.REGULATION_UP, Market.DAYAHEAD)
+            .get(0).getEndYear());
+    }
+
+    @Test
+    void testFailedRefreshKeepsPreviousValue() throws Exception {
+        enqueue("[\"ERCOT\"]");
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+
+        cache.getAllIsos();
+        advance(Duration.ofHours(1));
+        assertEquals(List.of("ERCOT"), cache.getAllIsos());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.getStats().getRefreshFailureCount() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, cache.getStats().getRefreshFailureCount());
+        assertEquals(List.of("ERCOT"), cache.getAllIsos());
+    }
+
+    @Test
+    void testLeastRecentlyUsedNodesAreEvicted() throws IOException {
+        enqueue("[]");
+        enqueue("[]");
+        enqueue("[]");
+        enqueue("[]");
+
+        cache.getAllNodes("ERCOT");
+        cache.getAllNodes("CAISO");
+        cache.getAllNodes("ERCOT");
+        cache.getAllNodes("PJM");
+        cache.getAllNodes("ERCOT");
+        cache.getAllNodes("CAISO");
+
+        assertEquals(4, mockWebServer.getRequestCount());
+        assertEquals(2, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    void testSeedFromSnapshot() throws IOException {
+        CatalogSnapshot snapshot = CatalogSnapshot.builder()
+            .createdAt(Instant.now())
+            .isos(List.of("ERCOT"))
+            .nodes("ERCOT", List.of())
+            .build();
+
+        cache.seed(snapshot);
+
+        assertEquals(List.of("ERCOT"), cache.getAllIsos());
+        assertTrue(cache.getAllNodes("ERCOT").isEmpty());
+        assertEquals(0, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testServicesExposeSharedCache() {
+        assertSame(client.getServices().getReferenceDataCache(), client.getServices().getReferenceDataCache());
+    }
+}
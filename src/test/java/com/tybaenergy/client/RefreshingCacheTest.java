@@ -0,0 +1,66 @@
+package com.tybaenergy.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshingCacheTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testMissJoiningFailedBackgroundRefreshThrowsIOException() throws Exception {
+        long[] now = {0};
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch failRefresh = new CountDownLatch(1);
+        RefreshingCache<String, String> cache = new RefreshingCache<>(key -> {
+            int load = loads.incrementAndGet();
+            if (load != 2) {
+                return load == 1 ? "first" : "loaded again";
+            }
+            refreshStarted.countDown();
+            try {
+                failRefresh.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("refresh failed");
+        }, Duration.ofMinutes(10), 0.5, 4, executor, () -> now[0]);
+
+        assertEquals("first", cache.get("key"));
+        // Past the refresh-ahead point: served from the cache while a refresh starts in the background
+        now[0] += Duration.ofMinutes(6).toNanos();
+        assertEquals("first", cache.get("key"));
+        assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+
+        // A miss right after invalidation joins the refresh still in flight
+        cache.invalidate("key");
+        Future<String> miss = executor.submit(() -> cache.get("key"));
+        while (cache.stats().getMissCount() < 2) {
+            Thread.onSpinWait();
+        }
+        Thread.sleep(100);
+        failRefresh.countDown();
+
+        Exception failure = assertThrows(Exception.class, () -> miss.get(5, TimeUnit.SECONDS));
+        IOException cause = assertInstanceOf(IOException.class, failure.getCause());
+        assertEquals("refresh failed", cause.getMessage());
+        assertEquals(2, loads.get());
+    }
+}
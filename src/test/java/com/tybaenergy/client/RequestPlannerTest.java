@@ -0,0 +1,190 @@
+package com.tybaenergy.client;
+
+import com.tybaenergy.client.model.AncillaryRegionData;
+import com.tybaenergy.client.model.AncillaryService;
+import com.tybaenergy.client.model.Market;
+import com.tybaenergy.client.model.NodeData;
+import com.tybaenergy.client.model.PriceTimeSeries;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestPlannerTest {
+
+    private MockWebServer mockWebServer;
+    private TybaClient client;
+    private RequestPlanner planner;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        String baseUrl = mockWebServer.url("/").toString();
+
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        client = new TybaClient("test-token", baseUrl);
+        planner = client.getServices().getRequestPlanner();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        mockWebServer.shutdown();
+    }
+
+    private static NodeData node(String id, Integer rtStart, Integer rtEnd) {
+        NodeData node = new NodeData();
+        node.setId(id);
+        node.setRtStartYear(rtStart);
+        node.setRtEndYear(rtEnd);
+        node.setDaStartYear(rtStart != null ? rtStart.doubleValue() : null);
+        node.setDaEndYear(rtEnd != null ? rtEnd.doubleValue() : null);
+        return node;
+    }
+
+    @Test
+    void testPlanClampsAndDropsRanges() {
+        List<NodeData> nodes = List.of(
+            node("A", 2015, 2024),
+            node("B", 2020, 2024),
+            node("C", 2010, 2012),   // no overlap with the request
+            node("D", null, null));  // unknown range is kept unclamped
+
+        List<RequestPlanner.LmpBatch> batches = planner.planLmpPrices(nodes, Market.REALTIME, 2018, 2022);
+
+        assertEquals(2, batches.size());
+        assertEquals(List.of("A", "D"), batches.get(0).getNodeIds());
+        assertEquals(new RequestPlanner.YearRange(2018, 2022), batches.get(0).getYears());
+        assertEquals(List.of("B"), batches.get(1).getNodeIds());
+        assertEquals(new RequestPlanner.YearRange(2020, 2022), batches.get(1).getYears());
+    }
+
+    @Test
+    void testPlanSplitsBatchesAtEightNodes() {
+        List<NodeData> nodes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            nodes.add(node("N" + i, 2015, 2024));
+        }
+
+        List<RequestPlanner.LmpBatch> batches = planner.planLmpPrices(nodes, Market.DAYAHEAD, 2020, 2021);
+
+        assertEquals(2, batches.size());
+        assertEquals(8, batches.get(0).getNodeIds().size());
+        assertEquals(2, batches.get(1).getNodeIds().size());
+    }
+
+    @Test
+    void testEmptyResultsAreNotRequestedAgain() throws IOException, InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+            .setBody("{\"A\": {\"datetimes\": [\"2022-01-01T00:00:00\"], \"prices\": [20.0]},"
+                + " \"B\": {\"datetimes\": [], \"prices\": []}}")
+            .setResponseCode(200)
+            .addHeader("Content-Type", "application/json"));
+
+        List<NodeData> nodes = List.of(node("A", 2015, 2024), node("B", 2015, 2024));
+        Map<String, PriceTimeSeries> prices = planner.getLmpPrices(nodes, Market.REALTIME, 2022, 2023);
+
+        RecordedRequest recordedRequest = mockWebServer.takeRequest();
+        assertTrue(recordedRequest.getPath().contains("start_year=2022"));
+        assertTrue(recordedRequest.getPath().contains("end_year=2023"));
+        assertEquals(2, prices.size());
+        assertEquals(2, planner.getKnownEmptyCount());
+
+        List<RequestPlanner.LmpBatch> batches = planner.planLmpPrices(nodes, Market.REALTIME, 2022, 2023);
+        assertEquals(1, batches.size());
+        assertEquals(List.of("A"), batches.get(0).getNodeIds());
+
+        // Known-empty years are trimmed from the edges of wider requests
+        batches = planner.planLmpPrices(List.of(node("B", 2015, 2024)), Market.REALTIME, 2020, 2023);
+        assertEquals(new RequestPlanner.YearRange(2020, 2021), batches.get(0).getYears());
+
+        planner.clearKnownEmpty();
+        assertEquals(0, planner.getKnownEmptyCount());
+    }
+
+    @Test
+    void testEmptyYearsAreRequestedAgainOnceExpired() throws IOException, InterruptedException {
+        AtomicLong nanos = new AtomicLong();
+        Clock clock = Clock.fixed(Instant.parse("2024-06-01T00:00:00Z"), ZoneOffset.UTC);
+        RequestPlanner expiring = new RequestPlanner(client.getServices(), Duration.ofHours(1), 2, nanos::get, clock);
+        mockWebServer.enqueue(new MockResponse().setBody("{\"B\": {\"datetimes\": [], \"prices\": []}}"));
+        mockWebServer.enqueue(new MockResponse().setBody(
+            "{\"B\": {\"datetimes\": [\"2022-01-01T00:00:00\"], \"prices\": [20.0]}}"));
+        List<NodeData> nodes = List.of(node("B", 2015, 2030));
+
+        expiring.getLmpPrices(nodes, Market.REALTIME, 2022, 2024);
+
+        // The current year is never recorded as empty
+        assertEquals(2, expiring.getKnownEmptyCount());
+        assertEquals(new RequestPlanner.YearRange(2024, 2024),
+            expiring.planLmpPrices(nodes, Market.REALTIME, 2022, 2024).get(0).getYears());
+
+        nanos.addAndGet(Duration.ofHours(1).toNanos());
+        assertEquals(0, expiring.getKnownEmptyCount());
+        Map<String, PriceTimeSeries> prices = expiring.getLmpPrices(nodes, Market.REALTIME, 2022, 2022);
+        assertEquals(List.of(20.0), prices.get("B").getPrices());
+        mockWebServer.takeRequest();
+        assertTrue(mockWebServer.takeRequest().getPath().contains("start_year=2022"));
+    }
+
+    @Test
+    void testKnownEmptyIsBounded() throws IOException {
+        Clock clock = Clock.fixed(Instant.parse("2024-06-01T00:00:00Z"), ZoneOffset.UTC);
+        RequestPlanner bounded = new RequestPlanner(client.getServices(), Duration.ofHours(1), 2, () -> 0, clock);
+        mockWebServer.enqueue(new MockResponse().setBody("{\"B\": {\"datetimes\": [], \"prices\": []}}"));
+
+        bounded.getLmpPrices(List.of(node("B", 2015, 2030)), Market.REALTIME, 2018, 2023);
+
+        assertEquals(2, bounded.getKnownEmptyCount());
+        assertEquals(new RequestPlanner.YearRange(2018, 2021), bounded.planLmpPrices(
+            List.of(node("B", 2015, 2030)), Market.REALTIME, 2018, 2023).get(0).getYears());
+    }
+
+    @Test
+    void testViewsShareTheNegativeCache() throws IOException {
+        mockWebServer.enqueue(new MockResponse()
+            .setBody("{\"B\": {\"datetimes\": [], \"prices\": []}}")
+            .setResponseCode(200)
+            .addHeader("Content-Type", "application/json"));
+        TybaClient view = client.withOptions(RequestOptions.deadline(Duration.ofSeconds(5)));
+        RequestPlanner viewPlanner = view.getServices().getRequestPlanner();
+
+        viewPlanner.getLmpPrices(List.of(node("B", 2015, 2024)), Market.REALTIME, 2022, 2023);
+
+        assertEquals(2, planner.getKnownEmptyCount());
+        assertTrue(planner.planLmpPrices(List.of(node("B", 2015, 2024)), Market.REALTIME, 2022, 2023).isEmpty());
+        assertTrue(client.withOptions(RequestOptions.deadline(Duration.ofSeconds(5))).getServices().getRequestPlanner()
+            .planLmpPrices(List.of(node("B", 2015, 2024)), Market.REALTIME, 2022, 2023).isEmpty());
+    }
+
+    @Test
+    void testAncillaryOutsideRegionRangeIsSkipped() throws IOException {
+        AncillaryRegionData region = new AncillaryRegionData("ERCOT", 2015, 2020);
+
+        PriceTimeSeries prices = planner.getAncillaryPrices(
+            "ERCOT", AncillaryService.REGULATION_UP, Market.DAYAHEAD, region, 2021, 2024);
+
+        assertTrue(prices.getPrices().isEmpty());
+        assertEquals(0, mockWebServer.getRequestCount());
+        assertEquals(new RequestPlanner.YearRange(2018, 2020), planner.planAncillaryPrices(
+            "ERCOT", AncillaryService.REGULATION_UP, Market.DAYAHEAD, region, 2018, 2024));
+    }
+}
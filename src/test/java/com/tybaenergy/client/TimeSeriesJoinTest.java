@@ -0,0 +1,144 @@
+package com.tybaenergy.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tybaenergy.client.model.PriceTimeSeries;
+import com.tybaenergy.client.model.TimeSeriesFrame;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSeriesJoinTest {
+
+    private static final long HOUR = 3600;
+
+    @Test
+    void testInnerAndOuterJoin() {
+        TimeSeriesFrame left = TimeSeriesFrame.of("a", new long[] {0, HOUR, 2 * HOUR}, new double[] {1, 2, 3});
+        TimeSeriesFrame right = TimeSeriesFrame.of("b", new long[] {HOUR, 2 * HOUR, 3 * HOUR}, new double[] {20, 30, 40});
+
+        TimeSeriesFrame inner = TimeSeriesJoin.innerJoin(left, right);
+        assertArrayEquals(new long[] {HOUR, 2 * HOUR}, inner.getEpochSeconds());
+        assertArrayEquals(new double[] {2, 3}, inner.getColumn("a"));
+        assertArrayEquals(new double[] {20, 30}, inner.getColumn("b"));
+
+        TimeSeriesFrame outer = TimeSeriesJoin.outerJoin(left, right);
+        assertArrayEquals(new long[] {0, HOUR, 2 * HOUR, 3 * HOUR}, outer.getEpochSeconds());
+        assertArrayEquals(new double[] {1, 2, 3, Double.NaN}, outer.getColumn("a"));
+        assertArrayEquals(new double[] {Double.NaN, 20, 30, 40}, outer.getColumn("b"));
+    }
+
+    @Test
+    void testAsOfJoinRespectsTolerance() {
+        TimeSeriesFrame left = TimeSeriesFrame.of("rt", new long[] {300, 600, 4200}, new double[] {1, 2, 3});
+        TimeSeriesFrame right = TimeSeriesFrame.of("da", new long[] {0}, new double[] {50});
+
+        TimeSeriesFrame joined = TimeSeriesJoin.asOfJoin(left, right, HOUR - 1);
+
+        assertArrayEquals(new double[] {50, 50, Double.NaN}, joined.getColumn("da"));
+    }
+
+    @Test
+    void testResampleAndToInterval() {
+        TimeSeriesFrame fiveMinute = TimeSeriesFrame.of("rt",
+            new long[] {0, 300, 600, HOUR, HOUR + 300}, new double[] {1, 2, Double.NaN, 4, 6});
+
+        TimeSeriesFrame hourly = TimeSeriesJoin.resample(fiveMinute, HOUR, TimeSeriesJoin.Aggregation.MEAN);
+        assertArrayEquals(new long[] {0, HOUR}, hourly.getEpochSeconds());
+        assertArrayEquals(new double[] {1.5, 5}, hourly.getColumn("rt"));
+
+        TimeSeriesFrame coarse = TimeSeriesFrame.of("da", new long[] {0, HOUR}, new double[] {10, 20});
+        TimeSeriesFrame onGrid = TimeSeriesJoin.toInterval(coarse, 1800, TimeSeriesJoin.Aggregation.MEAN);
+        assertArrayEquals(new long[] {0, 1800, HOUR}, onGrid.getEpochSeconds());
+        assertArrayEquals(new double[] {10, 10, 20}, onGrid.getColumn("da"));
+    }
+
+    @Test
+    void testFramesFromApiSeriesShareOneAxis() throws Exception {
+        // 2024-01-01T00:00 in Central Time, expressed three ways
+        PriceTimeSeries lmp = new PriceTimeSeries(List.of("2024-01-01T00:00:00"), List.of(25.0));
+        PriceTimeSeries ancillary = new PriceTimeSeries(List.of("2024-01-01T00:00:00Z"), List.of(5.0));
+        JsonNode forecast = new ObjectMapper().readTree(
+            "[{\"datetime\": \"2024-01-01T00:00:00-06:00\", \"value\": 30.0}]");
+
+        TimeSeriesFrame energy = TimeSeriesFrame.fromLmpPrices("lmp", lmp, ZoneId.of("America/Chicago"));
+        TimeSeriesFrame regUp = TimeSeriesFrame.fromAncillaryPrices("reg_up", ancillary, ZoneOffset.ofHours(-6));
+        TimeSeriesFrame predicted = TimeSeriesFrame.fromForecast("forecast", forecast, "value");
+
+        TimeSeriesFrame joined = TimeSeriesJoin.innerJoin(TimeSeriesJoin.innerJoin(energy, regUp), predicted);
+        assertEquals(1, joined.getRowCount());
+        assertEquals(List.of("lmp", "reg_up", "forecast"), joined.getColumnNames());
+    }
+
+    @Test
+    void testForecastRowWithoutDatetimeIsRejected() throws Exception {
+        JsonNode forecast = new ObjectMapper().readTree(
+            "[{\"datetime\": \"2024-01-01T00:00:00Z\", \"value\": 30.0}, {\"value\": 31.0}]");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> TimeSeriesFrame.fromForecast("forecast", forecast, "value"));
+        assertTrue(e.getMessage().contains("row 1"));
+    }
+
+    @Test
+    void testJoinAllAcrossNodes() {
+        Map<String, TimeSeriesFrame> lefts = new LinkedHashMap<>();
+        Map<String, TimeSeriesFrame> rights = new LinkedHashMap<>();
+        for (int node = 0; node < 20; node++) {
+            lefts.put("node" + node, TimeSeriesFrame.of("da", new long[] {0, HOUR}, new double[] {node, node}));
+            rights.put("node" + node, TimeSeriesFrame.of("rt", new long[] {HOUR}, new double[] {-node}));
+        }
+        rights.remove("node19");
+
+        Map<String, TimeSeriesFrame> joined = TimeSeriesJoin.joinAll(lefts, rights, TimeSeriesJoin::innerJoin);
+
+        assertEquals(19, joined.size());
+        assertArrayEquals(new double[] {-7}, joined.get("node7").getColumn("rt"));
+    }
+
+    @Test
+    void testUnsortedPointsAreSorted() {
+        TimeSeriesFrame frame = TimeSeriesFrame.of("a", new long[] {HOUR, 0, HOUR}, new double[] {1, 2, 3});
+
+        assertArrayEquals(new long[] {0, HOUR}, frame.getEpochSeconds());
+        assertArrayEquals(new double[] {2, 3}, frame.getColumn("a"));
+    }
+
+    @Test
+    void testConcatDropsOverlapAndUnionsColumns() {
+        TimeSeriesFrame first = TimeSeriesFrame.of("a", new long[] {0, HOUR}, new double[] {1, 2});
+        TimeSeriesFrame second = TimeSeriesJoin.outerJoin(
+            TimeSeriesFrame.of("a", new long[] {HOUR, 2 * HOUR}, new double[] {99, 3}),
+            TimeSeriesFrame.of("b", new long[] {2 * HOUR}, new double[] {30}));
+
+        TimeSeriesFrame stitched = TimeSeriesJoin.concat(List.of(first, second));
+        assertArrayEquals(new long[] {0, HOUR, 2 * HOUR}, stitched.getEpochSeconds());
+        assertArrayEquals(new double[] {1, 2, 3}, stitched.getColumn("a"));
+        assertArrayEquals(new double[] {Double.NaN, Double.NaN, 30}, stitched.getColumn("b"));
+    }
+
+    @Test
+    void testFrameDeserializesRowsAndColumns() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        TimeSeriesFrame rows = mapper.readValue("""
+            [{"datetime": "2024-01-01T01:00:00Z", "power": 2.0, "site": "A"},
+             {"datetime": "2024-01-01T00:00:00Z", "power": 1.0, "soc": 0.4}]
+            """, TimeSeriesFrame.class);
+        assertEquals(List.of("power", "soc"), rows.getColumnNames());
+        assertArrayEquals(new double[] {1, 2}, rows.getColumn("power"));
+        assertArrayEquals(new double[] {0.4, Double.NaN}, rows.getColumn("soc"));
+
+        TimeSeriesFrame columns = mapper.readValue("""
+            {"timestamp": [1704067200000, 1704070800000], "power": [1.0, null], "site": ["A", "A"]}
+            """, TimeSeriesFrame.class);
+        assertEquals(List.of("power"), columns.getColumnNames());
+        assertArrayEquals(new long[] {1704067200L, 1704070800L}, columns.getEpochSeconds());
+        assertArrayEquals(new double[] {1, Double.NaN}, columns.getColumn("power"));
+    }
+}
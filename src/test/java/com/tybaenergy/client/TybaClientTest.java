@@ -1,6 +1,7 @@
 package com.tybaenergy.client;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -9,8 +10,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -132,6 +141,23 @@ class TybaClientTest {
         response.close();
     }
 
+    @Test
+    void testCollectionParamsPerRoute() throws IOException, InterruptedException {
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("metrics", List.of("power", "soc"));
+        client.get("test/repeat", params).close();
+
+        client.setCollectionFormat("test/comma", TybaClient.CollectionFormat.COMMA);
+        client.get("test/comma", params).close();
+
+        assertTrue(mockWebServer.takeRequest().getPath().endsWith("?metrics=power&metrics=soc"));
+        assertTrue(mockWebServer.takeRequest().getPath().endsWith("?metrics=power%2Csoc"));
+        assertEquals(TybaClient.CollectionFormat.COMMA, client.getCollectionFormat("services/lmp/prices"));
+    }
+
     @Test
     void testPostRequest() throws IOException, InterruptedException {
         // Enqueue a mock response
@@ -163,6 +189,41 @@ class TybaClientTest {
         response.close();
     }
 
+    @Test
+    void testPostSendsContentLengthForSmallBodies() throws IOException, InterruptedException {
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+
+        client.post("test/create", Map.of("name", "test")).close();
+        client.post("test/create", Map.of("values", Collections.nCopies(20_000, 1.5))).close();
+
+        RecordedRequest small = mockWebServer.takeRequest();
+        assertEquals("15", small.getHeader("Content-Length"));
+        assertNull(small.getHeader("Transfer-Encoding"));
+        assertEquals("{\"name\":\"test\"}", small.getBody().readUtf8());
+
+        RecordedRequest large = mockWebServer.takeRequest();
+        assertEquals("chunked", large.getHeader("Transfer-Encoding"));
+        assertEquals(20_000, new ObjectMapper().readTree(large.getBody().readUtf8()).get("values").size());
+    }
+
+    @Test
+    void testPostGzipStreamsJson() throws IOException, InterruptedException {
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        client.setGzipRequestBodies(true);
+
+        List<Double> values = Collections.nCopies(10_000, 1.5);
+        client.post("test/create", Map.of("values", values)).close();
+
+        RecordedRequest recordedRequest = mockWebServer.takeRequest();
+        assertEquals("gzip", recordedRequest.getHeader("Content-Encoding"));
+        assertTrue(recordedRequest.getBodySize() < 1000);
+        try (InputStream in = new GZIPInputStream(recordedRequest.getBody().inputStream())) {
+            JsonNode body = new ObjectMapper().readTree(in);
+            assertEquals(10_000, body.get("values").size());
+        }
+    }
+
     @Test
     void testParseResponse() throws IOException {
         // Enqueue a mock response with JSON
@@ -260,4 +321,132 @@ class TybaClientTest {
         // Create a new client since we closed the previous one
         client = new TybaClient("test-token", baseUrl);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testErrorsAreClassified() throws IOException {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(429).addHeader("Retry-After", "7"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("boom"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(400).setBody("{\"error\": \"bad field\"}"));
+
+        RateLimitedException rateLimited = assertThrows(RateLimitedException.class,
+            () -> client.parseResponseString(client.get("test")));
+        assertTrue(rateLimited.isRetryable());
+        assertEquals(Duration.ofSeconds(7), rateLimited.getRetryAfter());
+
+        ServerErrorException getError = assertThrows(ServerErrorException.class,
+            () -> client.parseResponseString(client.get("test")));
+        assertTrue(getError.isRetryable());
+        assertEquals("boom", getError.getBodyExcerpt());
+        assertTrue(getError.getMessage().contains("Request failed with code: 500"));
+
+        // A POST may have been applied before the server failed, unless the server was unavailable
+        assertFalse(assertThrows(ServerErrorException.class,
+            () -> client.parseResponseString(client.post("test", Map.of()))).isRetryable());
+        assertTrue(assertThrows(ServerErrorException.class,
+            () -> client.parseResponseString(client.post("test", Map.of()))).isRetryable());
+
+        ClientErrorException clientError = assertThrows(ClientErrorException.class,
+            () -> client.parseResponse(client.get("test"), JsonNode.class));
+        assertFalse(clientError.isRetryable());
+        assertEquals(400, clientError.getStatusCode());
+        assertEquals("{\"error\": \"bad field\"}", clientError.getBodyExcerpt());
+    }
+
+    @Test
+    void testFailedResponsesReleaseTheirConnection() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("error " + i));
+        }
+        mockWebServer.enqueue(new MockResponse().setBody("[]"));
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ServerErrorException.class, () -> client.parseResponseList(client.get("test"), JsonNode.class));
+        }
+        client.parseResponseList(client.get("test"), JsonNode.class);
+
+        // Every request went over the first connection, so none was left holding it
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, mockWebServer.takeRequest().getSequenceNumber());
+        }
+    }
+
+    @Test
+    void testCallTimeoutAppliesToTheViewOnly() throws IOException {
+        mockWebServer.enqueue(new MockResponse().setBody("[]").setHeadersDelay(2, TimeUnit.SECONDS));
+        mockWebServer.enqueue(new MockResponse().setBody("[]").setHeadersDelay(300, TimeUnit.MILLISECONDS));
+
+        TybaClient interactive = client.withOptions(RequestOptions.deadline(Duration.ofMillis(200)));
+        RequestTimeoutException timeout = assertThrows(RequestTimeoutException.class,
+            () -> interactive.parseResponseList(interactive.get("test"), JsonNode.class));
+        assertTrue(timeout.isRetryable());
+        assertEquals(0, timeout.getStatusCode());
+
+        assertEquals(List.of(), client.parseResponseList(client.get("test"), JsonNode.class));
+    }
+
+    @Test
+    void testCancellationAbortsInFlightAndLaterRequests() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("[]").setHeadersDelay(2, TimeUnit.SECONDS));
+        Cancellation cancellation = new Cancellation();
+        TybaClient view = client.withOptions(RequestOptions.builder().cancellation(cancellation).build());
+
+        CompletableFuture<List<JsonNode>> call = CompletableFuture.supplyAsync(() -> {
+            try {
+                return view.parseResponseList(view.get("test"), JsonNode.class);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        mockWebServer.takeRequest();
+        long start = System.nanoTime();
+        cancellation.cancel();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RequestCancelledException.class, failure.getCause().getCause());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        assertThrows(RequestCancelledException.class, () -> view.get("test"));
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testViewsShareSettingsAndExtendOptions() throws IOException {
+        Cancellation cancellation = new Cancellation();
+        TybaClient view = client.withOptions(RequestOptions.builder().cancellation(cancellation).build())
+            .withOptions(RequestOptions.deadline(Duration.ofSeconds(5)));
+
+        assertSame(cancellation, view.getOptions().getCancellation());
+        assertEquals(Duration.ofSeconds(5), view.getOptions().getCallTimeout());
+        // Reference data loaded through the view is served to the client from the shared cache
+        mockWebServer.enqueue(new MockResponse().setBody("[\"ERCOT\"]"));
+        assertEquals(List.of("ERCOT"), view.getServices().getReferenceDataCache().getAllIsos());
+        assertEquals(List.of("ERCOT"), client.getServices().getReferenceDataCache().getAllIsos());
+        assertEquals(1, mockWebServer.getRequestCount());
+        view.setCollectionFormat("test", TybaClient.CollectionFormat.COMMA);
+        assertEquals(TybaClient.CollectionFormat.COMMA, client.getCollectionFormat("test"));
+        view.close();
+        assertFalse(client.executor().isShutdown());
+    }
+
+    @Test
+    void testCancellationReleasesEndedCalls() throws IOException {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("error"));
+        mockWebServer.enqueue(new MockResponse().setBody("[1, 2, 3]"));
+        mockWebServer.enqueue(new MockResponse().setBody("[]"));
+        Cancellation cancellation = new Cancellation();
+        TybaClient view = client.withOptions(RequestOptions.builder().cancellation(cancellation).build());
+
+        // An error response closed while building the exception, as setAssetOverrides does
+        TybaApiException.fromResponse(view.get("test"));
+        assertEquals(0, cancellation.inFlight());
+
+        // A raw response closed by the caller without reading it
+        view.get("test").close();
+        assertEquals(0, cancellation.inFlight());
+
+        view.parseResponseList(view.get("test"), JsonNode.class);
+        assertEquals(0, cancellation.inFlight());
+    }
+}
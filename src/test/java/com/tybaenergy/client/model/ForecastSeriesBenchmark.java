@@ -0,0 +1,117 @@
+package com.tybaenergy.client.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+/**
+ * Parse time, allocation and retained heap of binding a week of 5-minute forecast rows into a
+ * {@link ForecastSeries}, versus reading a {@link JsonNode} tree and walking it into the same arrays.
+ * This produces the figures quoted in the README. It is not run by the test suite; run it with
+ *
+ * <pre>{@code
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.tybaenergy.client.model.ForecastSeriesBenchmark
+ * }</pre>
+ */
+public final class ForecastSeriesBenchmark {
+    private static final int ROWS = 7 * 24 * 12;
+    private static final int WARMUP = 2_000;
+    private static final int MEASURED = 2_000;
+    private static final int RETAINED = 200;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ForecastSeriesBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        byte[] json = week();
+        System.out.printf("%d rows, %d KB of JSON, JDK %s%n", ROWS, json.length / 1024,
+                System.getProperty("java.version"));
+
+        for (int i = 0; i < WARMUP; i++) {
+            bindSeries(json);
+            walkTree(json);
+        }
+        report("JsonNode", json, false);
+        report("ForecastSeries", json, true);
+    }
+
+    private static void report(String name, byte[] json, boolean series) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED; i++) {
+            if (series) {
+                bindSeries(json);
+            } else {
+                walkTree(json);
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Object[] kept = new Object[RETAINED];
+        long usedBefore = usedHeap();
+        for (int i = 0; i < RETAINED; i++) {
+            kept[i] = series ? bindSeries(json) : MAPPER.readTree(json);
+        }
+        long retained = (usedHeap() - usedBefore) / RETAINED;
+
+        System.out.printf("%-15s %.2f ms/parse, %d KB allocated/parse, %d KB retained (%d kept)%n", name,
+                nanos / 1e6 / MEASURED, allocated / MEASURED / 1024, retained / 1024, kept.length);
+    }
+
+    private static ForecastSeries bindSeries(byte[] json) throws IOException {
+        return MAPPER.readValue(json, ForecastSeries.class);
+    }
+
+    /**
+     * The tree-based equivalent: read the tree, then copy its rows into the same arrays
+     */
+    private static double walkTree(byte[] json) throws IOException {
+        JsonNode rows = MAPPER.readTree(json);
+        long[] datetimes = new long[rows.size()];
+        long[] forecastedAt = new long[rows.size()];
+        double[] values = new double[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            JsonNode row = rows.get(i);
+            datetimes[i] = Timestamps.parseEpochSeconds(row.get("datetime").asText(), ZoneOffset.UTC);
+            forecastedAt[i] = Timestamps.parseEpochSeconds(row.get("forecasted_at").asText(), ZoneOffset.UTC);
+            values[i] = row.get("value").asDouble();
+        }
+        return values.length > 0 ? values[0] + datetimes[0] + forecastedAt[0] : 0;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static byte[] week() {
+        Instant start = Instant.parse("2024-06-01T00:00:00Z");
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < ROWS; i++) {
+            Instant target = start.plusSeconds(300L * i);
+            Instant vintage = target.minusSeconds(3600L * (1 + i % 24));
+            json.append(i == 0 ? "" : ",").append("{\"datetime\": \"").append(target)
+                    .append("\", \"forecasted_at\": \"").append(vintage)
+                    .append("\", \"value\": ").append(25 + (i * 7919 % 1000) / 37.0)
+                    .append(", \"forecast_type\": \"da\", \"object_name\": \"HB_HOUSTON\"}");
+        }
+        return json.append("]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
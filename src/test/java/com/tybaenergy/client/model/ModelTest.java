@@ -6,9 +6,13 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 
@@ -282,4 +286,80 @@ class ModelTest {
             objectMapper.readValue(json, Market.class);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTimestampsParseEpochSeconds() {
+        ZoneId central = ZoneId.of("America/Chicago");
+
+        assertEquals(1704067200L, Timestamps.parseEpochSeconds("2024-01-01T00:00:00Z", central));
+        assertEquals(1707112800L, Timestamps.parseEpochSeconds("2024-02-05T00:00:00-06:00", central));
+        assertEquals(1707112800L, Timestamps.parseEpochSeconds("2024-02-05T00:00:00.000-06:00", central));
+        // Timestamps without an offset are read in the given zone, including DST
+        assertEquals(1707112800L, Timestamps.parseEpochSeconds("2024-02-05T00:00:00", central));
+        assertEquals(ZonedDateTime.of(2024, 7, 1, 0, 0, 0, 0, central).toEpochSecond(),
+            Timestamps.parseEpochSeconds("2024-07-01T00:00:00", central));
+        assertEquals(1707112800L, Timestamps.parseEpochSeconds("2024-02-05T06:00Z", central));
+        // Days beyond the end of the month are rejected, not rolled into the next month
+        assertEquals(1709164800L, Timestamps.parseEpochSeconds("2024-02-29T00:00:00Z", central));
+        assertThrows(DateTimeParseException.class, () -> Timestamps.parseEpochSeconds("2024-02-30T00:00:00Z", central));
+        assertThrows(DateTimeParseException.class, () -> Timestamps.parseEpochSeconds("2023-02-29T00:00:00Z", central));
+        assertThrows(DateTimeParseException.class, () -> Timestamps.parseEpochSeconds("2024-04-31T00:00:00", central));
+    }
+
+    @Test
+    void testVintageCubeAsOfLookup() throws Exception {
+        VintageCube cube = VintageCube.builder(0.1, 0.9)
+            .add(1000L, 5000L, 1.0, 2.0)
+            .add(1000L, 6000L, 3.0, 4.0)
+            .add(2000L, 5000L, 5.0, 6.0)
+            .add(2000L, 5000L, 7.0, 8.0)
+            .build();
+
+        assertEquals(3, cube.getRowCount());
+        assertArrayEquals(new long[] {1000L, 2000L}, cube.getVintages());
+        // Nothing issued yet, then the first vintage, then the later one with the duplicate row replaced
+        assertTrue(Double.isNaN(cube.valueAsOf(999L, 5000L, 0)));
+        assertEquals(1.0, cube.valueAsOf(1999L, 5000L, 0));
+        assertEquals(8.0, cube.valueAsOf(2000L, 5000L, 1));
+        // The later vintage does not cover 6000, so the earlier one is used
+        assertEquals(3.0, cube.valueAsOf(3000L, 6000L, 0));
+        assertEquals(1000L, cube.vintageAsOf(3000L, 6000L));
+        assertTrue(Double.isNaN(cube.valueAsOf(3000L, 7000L, 0)));
+
+        ForecastSeries slice = cube.sliceAsOf(2500L, 5000L, 7000L, cube.indexOfQuantile(0.9));
+        assertArrayEquals(new long[] {5000L, 6000L}, slice.getDatetimes());
+        assertArrayEquals(new long[] {2000L, 1000L}, slice.getForecastedAt());
+        assertArrayEquals(new double[] {8.0, 4.0}, slice.getValues());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cube.writeTo(out);
+        VintageCube read = VintageCube.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertArrayEquals(cube.getQuantiles(), read.getQuantiles());
+        assertArrayEquals(cube.getTargets(), read.getTargets());
+        double[] row = new double[2];
+        assertTrue(read.rowAsOf(2000L, 5000L, row));
+        assertArrayEquals(new double[] {7.0, 8.0}, row);
+
+        assertThrows(IllegalArgumentException.class, () -> VintageCube.builder().add(1000L, 5000L, 1.0, 2.0));
+    }
+
+    @Test
+    void testForecastErrorMetricsPinballLoss() {
+        ForecastErrorMetrics metrics = new ForecastErrorMetrics(new double[] {0.1, 0.5, 0.9}, 3600);
+        metrics.addQuantiles(0, new double[] {8.0, 10.0, 14.0}, 12.0);
+
+        assertEquals(0.4, metrics.getPinballLoss(0, 0), 1e-9);
+        assertEquals(1.0, metrics.getPinballLoss(0, 1), 1e-9);
+        assertEquals(0.2, metrics.getPinballLoss(0, 2), 1e-9);
+        assertEquals(-2.0, metrics.getBias(), 1e-9);
+
+        ForecastErrorMetrics later = new ForecastErrorMetrics(new double[] {0.1, 0.5, 0.9}, 3600);
+        later.addQuantiles(7200, new double[] {Double.NaN, 12.0, Double.NaN}, 12.0);
+        metrics.merge(later);
+
+        assertEquals(3, metrics.getBucketCount());
+        assertEquals(2, metrics.getCount());
+        assertEquals(0.5, metrics.getPinballLoss(1), 1e-9);
+        assertTrue(Double.isNaN(metrics.getPinballLoss(2, 0)));
+    }
+}